@@ -2,10 +2,9 @@ package com.ejemplos.jwt.application.ports.in;
 
 /**
  * Comando para la solicitud de cambio de rol.
- * Requiere el token actual para poder invalidar la sesión tras el cambio.
+ * La sesión se invalida con el corte de sesión del usuario, así que no hace falta el JTI del token actual.
  */
 public record ChangeRoleCommand(
-        String email,
-        String token
+        String email
 ) {
 }
@@ -3,6 +3,7 @@ package com.ejemplos.jwt.application.ports.out;
 import com.ejemplos.jwt.domain.model.User;
 
 import java.time.Instant;
+import java.util.Optional;
 
 /**
  * Puerto de Salida (Output Port) para operaciones criptográficas con JWT.
@@ -18,18 +19,21 @@ public interface JwtTokenProviderPort {
     /** Genera un Refresh Token de larga duración. */
     GeneratedToken generateRefreshToken(User user);
 
-    /** Valida matemáticamente y por fecha un Access Token. */
-    boolean isAccessTokenValid(String token);
+    /**
+     * Valida un Access Token y devuelve sus datos ya parseados.
+     * @return el token verificado, o vacío si es inválido, de otro tipo o está revocado.
+     */
+    Optional<VerifiedToken> verifyAccessToken(String token);
 
-    /** Valida matemáticamente y por fecha un Refresh Token. */
+    /**
+     * Valida matemáticamente y por fecha un Refresh Token.
+     * Los Refresh Tokens opacos solo se validan por forma: su estado vive en el {@code RefreshTokenRepository}.
+     */
     boolean isRefreshTokenValid(String token);
 
-    /** Extrae el email (subject) del token. */
-    String getUsernameFromToken(String token);
-
-    /** Extrae el ID único (JTI) del token. */
-    String getJtiFromToken(String token);
-
-    /** Extrae la fecha de expiración del token. */
-    Instant getExpirationFromToken(String token);
+    /**
+     * Indica si hace falta persistir la revocación de un Access Token que expira en {@code expiresAt}.
+     * @return false si le queda tan poca vida que la validación ya no consulta la Lista Negra.
+     */
+    boolean isRevocationRequired(Instant expiresAt);
 }
@@ -0,0 +1,30 @@
+package com.ejemplos.jwt.application.ports.out;
+
+import com.ejemplos.jwt.application.ports.in.RefreshTokenResult;
+
+import java.util.Optional;
+
+/**
+ * Puerto de Salida: recuerda por unos segundos el par entregado al rotar un Refresh Token.
+ * <p>
+ * Un navegador con varias pestañas refresca en paralelo con el mismo token. La primera petición lo rota;
+ * las siguientes lo encuentran revocado y, sin esta ventana de gracia, dispararían la detección de reuso.
+ * </p>
+ */
+public interface RefreshResultCache {
+
+    /**
+     * Registra el par emitido al rotar {@code rotatedToken}.
+     * <p>
+     * Queda visible enseguida, antes del commit: una petición concurrente con el mismo token espera el lock de
+     * la fila rotada y, cuando lo obtiene, el par ya tiene que estar. Si la transacción no confirma, se retira.
+     * Quien lo lea debe comprobar que el sucesor exista y siga vigente.
+     * </p>
+     */
+    void remember(String rotatedToken, RefreshTokenResult result);
+
+    /**
+     * @return el par emitido al rotar {@code rotatedToken}, si la rotación fue hace menos que la ventana de gracia.
+     */
+    Optional<RefreshTokenResult> recall(String rotatedToken);
+}
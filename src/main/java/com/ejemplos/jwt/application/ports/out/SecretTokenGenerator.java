@@ -0,0 +1,17 @@
+package com.ejemplos.jwt.application.ports.out;
+
+/**
+ * Puerto de Salida (Output Port) para generar secretos al portador: tokens opacos que valen
+ * por sí mismos (recuperación de contraseña, Refresh Tokens opacos).
+ * <p>
+ * A diferencia de {@link TokenIdGenerator}, no hay nada que ordenar ni timestamp que exponer:
+ * todos los bits son aleatorios.
+ * </p>
+ */
+public interface SecretTokenGenerator {
+
+    /**
+     * Genera un secreto nuevo con toda su entropía de un CSPRNG.
+     */
+    String nextSecret();
+}
@@ -0,0 +1,14 @@
+package com.ejemplos.jwt.application.ports.out;
+
+/**
+ * Puerto de Salida (Output Port) para generar identificadores únicos de tokens (JTI de los JWT).
+ * Abstrae el formato del ID (ej: UUID, ULID).
+ * Los secretos al portador se generan con {@link SecretTokenGenerator}.
+ */
+public interface TokenIdGenerator {
+
+    /**
+     * Genera un identificador nuevo, impredecible y único.
+     */
+    String nextId();
+}
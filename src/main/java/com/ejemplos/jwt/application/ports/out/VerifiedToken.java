@@ -0,0 +1,60 @@
+package com.ejemplos.jwt.application.ports.out;
+
+import com.ejemplos.jwt.domain.enums.UserRole;
+
+import java.time.Instant;
+
+/**
+ * Vista inmutable de un JWT cuya firma y expiración ya fueron verificadas.
+ * <p>
+ * El filtro de seguridad parsea el token UNA sola vez por request y guarda este objeto
+ * como credencial de la {@code Authentication}. Los controladores y servicios leen
+ * sus datos de aquí en lugar de volver a parsear (y re-verificar) el String crudo.
+ * </p>
+ *
+ * @param jti         ID único del token (para revocarlo individualmente).
+ * @param uid         ID del usuario dueño del token.
+ * @param subject     Email del usuario.
+ * @param role        Rol del usuario ({@code null} en Refresh Tokens).
+ * @param issuedAt    Fecha de emisión ({@code iat}, en segundos); {@link Instant#EPOCH} si el token no la trae.
+ * @param expiresAt   Fecha de expiración natural del token.
+ * @param type        Tipo de token: "ACCESS" o "REFRESH".
+ * @param permissions Máscara de bits de {@link com.ejemplos.jwt.domain.enums.Permission}.
+ */
+public record VerifiedToken(
+        String jti,
+        Long uid,
+        String subject,
+        String role,
+        Instant issuedAt,
+        Instant expiresAt,
+        String type,
+        long permissions
+) {
+
+    /**
+     * Para tokens emitidos antes del claim de permisos: se derivan del rol.
+     */
+    public VerifiedToken(String jti, Long uid, String subject, String role, Instant issuedAt, Instant expiresAt, String type) {
+        this(jti, uid, subject, role, issuedAt, expiresAt, type, permissionsOf(role));
+    }
+
+    /**
+     * Indica si el token tiene TODOS los permisos de la máscara.
+     */
+    public boolean hasPermissions(long mask) {
+        return (permissions & mask) == mask;
+    }
+
+    private static long permissionsOf(String role) {
+        if (role == null) {
+            return 0;
+        }
+        for (UserRole userRole : UserRole.values()) {
+            if (userRole.name().equals(role)) {
+                return userRole.getPermissions();
+            }
+        }
+        return 0;
+    }
+}
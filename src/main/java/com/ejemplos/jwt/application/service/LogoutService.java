@@ -2,6 +2,7 @@ package com.ejemplos.jwt.application.service;
 
 import com.ejemplos.jwt.application.ports.in.LogoutCommand;
 import com.ejemplos.jwt.application.ports.in.LogoutUseCase;
+import com.ejemplos.jwt.application.ports.out.JwtTokenProviderPort;
 import com.ejemplos.jwt.domain.exception.personalized.InvalidTokenException;
 import com.ejemplos.jwt.domain.model.RefreshToken;
 import com.ejemplos.jwt.domain.model.RevokedToken;
@@ -20,6 +21,10 @@ import java.util.Optional;
  * 1. Invalida el Refresh Token en la BD (para que no pueda sacar más tokens).
  * 2. Invalida el Access Token actual en una Blacklist (para que no pueda usar el tiempo que le queda).
  * </p>
+ * <p>
+ * Si al Access Token le queda menos vida que el umbral de validación sin estado, no se agrega a la Blacklist:
+ * la validación ya no la consultaría.
+ * </p>
  */
 @Service
 @RequiredArgsConstructor
@@ -27,19 +32,22 @@ public class LogoutService implements LogoutUseCase {
 
     private final RevokedTokenRepository revokedTokenRepository;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtTokenProviderPort jwtTokenProviderPort;
 
     @Override
     @Transactional
     public void logout(LogoutCommand command) {
         // 1. Blacklist del Access Token (Seguridad Inmediata)
         // Guardamos el JTI para que el filtro de seguridad lo rechace en futuros requests
-        RevokedToken revokedToken = RevokedToken.revoke(
-                command.jti(),
-                command.email(),
-                "User logout",
-                command.expiration()
-        );
-        revokedTokenRepository.save(revokedToken);
+        if (jwtTokenProviderPort.isRevocationRequired(command.expiration())) {
+            RevokedToken revokedToken = RevokedToken.revoke(
+                    command.jti(),
+                    command.email(),
+                    "User logout",
+                    command.expiration()
+            );
+            revokedTokenRepository.save(revokedToken);
+        }
 
         // 2. Revocación del Refresh Token (Seguridad a Largo Plazo)
         // Marcamos el token de base de datos como revocado
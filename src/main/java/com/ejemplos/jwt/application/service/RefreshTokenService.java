@@ -4,18 +4,22 @@ import com.ejemplos.jwt.application.ports.in.RefreshTokenResult;
 import com.ejemplos.jwt.application.ports.in.RefreshTokenUseCase;
 import com.ejemplos.jwt.application.ports.out.GeneratedToken;
 import com.ejemplos.jwt.application.ports.out.JwtTokenProviderPort;
+import com.ejemplos.jwt.application.ports.out.RefreshResultCache;
 import com.ejemplos.jwt.domain.exception.personalized.InvalidTokenException;
 import com.ejemplos.jwt.domain.exception.personalized.SecurityBreachException;
 import com.ejemplos.jwt.domain.exception.personalized.UserNotFoundException;
 import com.ejemplos.jwt.domain.model.RefreshToken;
 import com.ejemplos.jwt.domain.model.User;
 import com.ejemplos.jwt.domain.repository.RefreshTokenRepository;
+import com.ejemplos.jwt.domain.repository.TokenCutoffRepository;
 import com.ejemplos.jwt.domain.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Optional;
 
 /**
  * Servicio encargado de la renovación de sesiones mediante Refresh Tokens.
@@ -27,8 +31,29 @@ import java.time.Instant;
  * <li>El cliente envía un Refresh Token.</li>
  * <li>Si es válido, se le entrega uno NUEVO y el anterior se marca como "reemplazado".</li>
  * <li>Si el cliente (o un hacker) intenta usar el token viejo de nuevo, el sistema detecta el reuso
- * y asume que ha habido un robo, cerrando todas las sesiones del usuario.</li>
+ * y asume que ha habido un robo, cerrando esa sesión: la familia del token.</li>
  * </ol>
+ * <p>
+ * Cada login abre una <strong>familia</strong> y las rotaciones la heredan, así que un cliente móvil con
+ * un token viejo solo pierde su propia sesión; las de los otros dispositivos siguen vivas.
+ * </p>
+ * <p>
+ * <strong>Ventana de gracia:</strong> varias pestañas refrescan en paralelo con el mismo token. Si un token
+ * revocado se rotó hace unos segundos ({@link RefreshResultCache}), se devuelve el mismo par que recibió la
+ * primera pestaña, sin escribir en la BD ni dar por robado el token. Solo si ese sucesor sigue vigente: si ya se
+ * revocó (logout, reuso detectado, corte de sesión), devolverlo reviviría una sesión cerrada.
+ * </p>
+ * <p>
+ * <strong>Concurrencia:</strong> la revisión de {@code isRevoked()} en Java es solo la vía rápida. Quien decide es
+ * el UPDATE condicional de {@link RefreshTokenRepository#rotate}: si dos peticiones pasan la revisión a la vez,
+ * solo una rota el token; la otra recibe el par de la ganadora (ventana de gracia) o un rechazo, sin revocar
+ * la familia: no presentó un token viejo, llegó al mismo tiempo.
+ * </p>
+ * <p>
+ * La transacción es {@code READ_COMMITTED}: la perdedora espera el lock de la fila que la ganadora revocó y,
+ * cuando lo obtiene, tiene que poder leer el sucesor recién confirmado. Con {@code REPEATABLE_READ} (el default
+ * de MySQL) seguiría viendo la foto tomada antes de ese commit y el sucesor no existiría.
+ * </p>
  */
 @Service
 @RequiredArgsConstructor
@@ -37,6 +62,8 @@ public class RefreshTokenService implements RefreshTokenUseCase {
     private final RefreshTokenRepository refreshTokenRepository;
     private final UserRepository userRepository;
     private final JwtTokenProviderPort jwtTokenProviderPort;
+    private final TokenCutoffRepository tokenCutoffRepository;
+    private final RefreshResultCache refreshResultCache;
 
     /**
      * Procesa la solicitud de refresco.
@@ -48,7 +75,7 @@ public class RefreshTokenService implements RefreshTokenUseCase {
      * </p>
      */
     @Override
-    @Transactional(noRollbackFor = SecurityBreachException.class)
+    @Transactional(isolation = Isolation.READ_COMMITTED, noRollbackFor = SecurityBreachException.class)
     public RefreshTokenResult refresh(String refreshTokenValue) {
 
         // 1. Validación de formato y firma criptográfica (Sin ir a BD aún)
@@ -64,8 +91,14 @@ public class RefreshTokenService implements RefreshTokenUseCase {
         // Si el token ya fue usado (revoked) y alguien lo envía de nuevo salta la alarma.
         // Significa que el usuario legítimo ya lo rotó, y quien envía esto ahora tiene una copia vieja.
         if (refreshToken.isRevoked()) {
-            // Medida drástica: Revocar TODO acceso a este usuario.
-            refreshTokenRepository.revokeAllTokens(refreshToken.getUserId());
+            // Salvo que se haya rotado recién: otra pestaña refrescando a la vez (ventana de gracia)
+            Optional<RefreshTokenResult> recentRotation = recallActiveRotation(refreshTokenValue);
+            if (recentRotation.isPresent()) {
+                return recentRotation.get();
+            }
+
+            // Se revoca toda la familia: el token vigente de esa sesión también está en manos del atacante.
+            refreshTokenRepository.revokeFamily(refreshToken.getFamilyId());
             throw new SecurityBreachException("Token reuse detected. Session closed for security reasons.");
         }
 
@@ -74,29 +107,50 @@ public class RefreshTokenService implements RefreshTokenUseCase {
             throw new InvalidTokenException("The refresh token is expired");
         }
 
+        // Corte de sesión (cambio de rol o de contraseña): un token opaco no lleva fecha de emisión,
+        // así que se usa la de su fila. Para los JWT repite lo que ya revisó el proveedor.
+        if (tokenCutoffRepository.isIssuedBeforeCutoff(refreshToken.getUserId(), refreshToken.getCreatedAt())) {
+            throw new InvalidTokenException("The refresh token was invalidated by a session cutoff");
+        }
+
         // 4. Recuperar al usuario dueño de la sesión
         User user = userRepository.findById(refreshToken.getUserId())
                 .orElseThrow(() -> new UserNotFoundException("User not found for the provided token"));
 
-        // 5. Creamos la entidad del NUEVO token
+        // 5. Generamos el NUEVO par (Refresh + Access)
         GeneratedToken refreshTokenData = jwtTokenProviderPort.generateRefreshToken(user);
         String newAccessToken = jwtTokenProviderPort.generateAccessToken(user);
 
-        // 5. Creamos la entidad del NUEVO token
-        RefreshToken newRefreshToken = RefreshToken.create(
-                user.getId(),
+        // 6. Creamos la entidad del NUEVO token
+        RefreshToken newRefreshToken = refreshToken.successor(
                 refreshTokenData.token(),
                 refreshTokenData.expiresAt()
         );
 
-        // 6. Invalidamos el VIEJO y apuntamos al nuevo (Cadena de custodia)
-        refreshToken.revoke();
-        refreshToken.setReplacedBy(newRefreshToken.getToken());
+        // 7. Invalidamos el VIEJO y apuntamos al nuevo (Cadena de custodia)
+        refreshToken.rotate(newRefreshToken.getToken());
 
-        // 7. Guardamos ambos cambios
-        refreshTokenRepository.save(refreshToken);      // Viejo actualizado
-        refreshTokenRepository.save(newRefreshToken);   // Nuevo creado
+        // 8. UPDATE condicional del viejo + INSERT del nuevo. Si otra petición lo rotó primero, no se guarda nada.
+        if (!refreshTokenRepository.rotate(refreshToken, newRefreshToken)) {
+            return recallActiveRotation(refreshTokenValue)
+                    .orElseThrow(() -> new InvalidTokenException("The refresh token was rotated by a concurrent request"));
+        }
+
+        RefreshTokenResult result = new RefreshTokenResult(newAccessToken, newRefreshToken.getToken());
+        refreshResultCache.remember(refreshTokenValue, result);
+        return result;
+    }
 
-        return new RefreshTokenResult(newAccessToken, newRefreshToken.getToken());
+    /**
+     * Par de la rotación reciente de este token (ventana de gracia), siempre que su sucesor siga vigente en la BD.
+     * <p>
+     * La caché publica el par antes del commit de quien rotó; el sucesor confirmado es lo que lo vuelve válido.
+     * </p>
+     */
+    private Optional<RefreshTokenResult> recallActiveRotation(String refreshTokenValue) {
+        return refreshResultCache.recall(refreshTokenValue)
+                .filter(result -> refreshTokenRepository.findByToken(result.refreshToken())
+                        .filter(successor -> !successor.isRevoked())
+                        .isPresent());
     }
 }
@@ -2,6 +2,7 @@ package com.ejemplos.jwt.application.service;
 
 import com.ejemplos.jwt.application.ports.in.RequestRecoveryUseCase;
 import com.ejemplos.jwt.application.ports.out.EmailNotificationPort;
+import com.ejemplos.jwt.application.ports.out.SecretTokenGenerator;
 import com.ejemplos.jwt.domain.exception.personalized.UserNotFoundException;
 import com.ejemplos.jwt.domain.model.RecoveryToken;
 import com.ejemplos.jwt.domain.repository.RecoveryTokenRepository;
@@ -10,8 +11,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.UUID;
-
 /**
  * Servicio que inicia el flujo de recuperación de contraseña (Forgot Password).
  * <p>
@@ -26,6 +25,7 @@ public class RequestRecoveryService implements RequestRecoveryUseCase {
     private final UserRepository userRepository;
     private final RecoveryTokenRepository recoveryTokenRepository;
     private final EmailNotificationPort emailNotificationPort;
+    private final SecretTokenGenerator secretTokenGenerator;
 
     @Override
     @Transactional
@@ -40,9 +40,9 @@ public class RequestRecoveryService implements RequestRecoveryUseCase {
         }
 
         // 2. Generación del Token Opaco
-        // Usamos UUID porque es impredecible y único. No necesitamos un JWT aquí
-        // porque el token se guarda en BD con estado (Stateful).
-        String tokenString = UUID.randomUUID().toString();
+        // Usamos 256 bits aleatorios (impredecible y único). No necesitamos un JWT aquí
+        // porque el token se guarda en BD con estado (Stateful). Tampoco un ULID: es un secreto, no un ID.
+        String tokenString = secretTokenGenerator.nextSecret();
 
         // 3. Creación de la entidad con expiración corta (15 min)
         RecoveryToken recoveryToken = RecoveryToken.create(
@@ -47,8 +47,10 @@ public class ResetPasswordService implements ResetPasswordUseCase {
         User user = userRepository.findByEmail(recoveryToken.getEmail())
                 .orElseThrow(() -> new UserNotFoundException("User not found for the provided token"));
 
-        // 4. Actualizar la contraseña (Hasheada)
+        // 4. Actualizar la contraseña (Hasheada) e invalidar todos los tokens emitidos hasta ahora
+        // (incluidos los Access Tokens vigentes: un atacante con un token robado queda afuera YA)
         user.setPassword(passwordEncoderPort.encode(command.newPassword()));
+        user.invalidateIssuedTokens();
         userRepository.save(user);
 
         // Si la contraseña cambió, todas las sesiones abiertas (Refresh Tokens)
@@ -0,0 +1,63 @@
+package com.ejemplos.jwt.domain.enums;
+
+/**
+ * Permisos finos del sistema, cada uno asociado a una posición de bit fija.
+ * <p>
+ * Los permisos de un usuario viajan en el token como una sola máscara de bits ({@code long}),
+ * así que comprobar un permiso es una operación AND, sin recorrer listas de authorities
+ * ni evaluar expresiones SpEL.
+ * </p>
+ * <p>
+ * <strong>Importante:</strong> el bit de un permiso es parte del formato de los tokens ya emitidos.
+ * Nunca se reutiliza ni se cambia el bit de un permiso existente; los nuevos usan bits libres.
+ * </p>
+ */
+public enum Permission {
+
+    /** Acceso a la zona de administración de usuarios. */
+    USERS_ADMIN_AREA(0),
+
+    /** Acceso a la zona de clientes. */
+    USERS_CLIENT_AREA(1),
+
+    /** Acceso a la zona común a todos los usuarios. */
+    USERS_COMMON_AREA(2),
+
+    /** Lectura de los contadores internos de infraestructura. */
+    METRICS_READ(3);
+
+    private final int bit;
+
+    Permission(int bit) {
+        this.bit = bit;
+    }
+
+    static {
+        long seen = 0;
+        for (Permission permission : values()) {
+            if (permission.bit < 0 || permission.bit > 62 || (seen & permission.mask()) != 0) {
+                throw new ExceptionInInitializerError("Invalid or duplicated permission bit: " + permission);
+            }
+            seen |= permission.mask();
+        }
+    }
+
+    public int getBit() {
+        return bit;
+    }
+
+    public long mask() {
+        return 1L << bit;
+    }
+
+    /**
+     * Máscara con todos los permisos indicados.
+     */
+    public static long maskOf(Permission... permissions) {
+        long mask = 0;
+        for (Permission permission : permissions) {
+            mask |= permission.mask();
+        }
+        return mask;
+    }
+}
@@ -3,13 +3,27 @@ package com.ejemplos.jwt.domain.enums;
 /**
  * Enumeración que define los roles de autorización disponibles en el sistema.
  * <p>
- * Se utiliza para la seguridad basada en roles (RBAC).
+ * Se utiliza para la seguridad basada en roles (RBAC). Cada rol agrupa un conjunto
+ * de {@link Permission}, que es lo que realmente se comprueba en cada endpoint.
  * </p>
  */
 public enum UserRole {
     /** Privilegios completos de administración. */
-    ADMIN,
+    ADMIN(Permission.USERS_ADMIN_AREA, Permission.USERS_COMMON_AREA, Permission.METRICS_READ),
 
     /** Privilegios estándar con acceso limitado */
-    CLIENT
+    CLIENT(Permission.USERS_CLIENT_AREA, Permission.USERS_COMMON_AREA);
+
+    private final long permissions;
+
+    UserRole(Permission... permissions) {
+        this.permissions = Permission.maskOf(permissions);
+    }
+
+    /**
+     * Máscara de bits con los permisos del rol (ver {@link Permission#mask()}).
+     */
+    public long getPermissions() {
+        return permissions;
+    }
 }
@@ -0,0 +1,7 @@
+package com.ejemplos.jwt.domain.exception.generic;
+
+public class ServiceUnavailableException extends DomainException {
+    protected ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
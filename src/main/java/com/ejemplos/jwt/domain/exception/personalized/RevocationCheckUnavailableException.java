@@ -0,0 +1,9 @@
+package com.ejemplos.jwt.domain.exception.personalized;
+
+import com.ejemplos.jwt.domain.exception.generic.ServiceUnavailableException;
+
+public class RevocationCheckUnavailableException extends ServiceUnavailableException {
+    public RevocationCheckUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -24,7 +24,7 @@ public class RecoveryToken {
     private Long id;
 
     /**
-     * El código secreto que se envía por correo (generalmente un UUID).
+     * El código secreto que se envía por correo (un ID aleatorio, ej: ULID).
      * No necesita contener datos (claims) como un JWT, solo ser único y difícil de adivinar.
      */
     private String token;
@@ -64,7 +64,7 @@ public class RecoveryToken {
      * Genera un nuevo token de recuperación válido.
      *
      * @param email             A quién pertenece.
-     * @param token             El string aleatorio seguro (UUID).
+     * @param token             El string aleatorio seguro (ej: ULID).
      * @param expirationSeconds Tiempo de vida en segundos (ej: 900 para 15 min).
      * @return Una instancia lista para ser enviada por email y guardada en BD.
      */
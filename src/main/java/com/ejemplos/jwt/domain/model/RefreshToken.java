@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.time.Instant;
+import java.util.UUID;
 
 /**
  * Representa la llave maestra de la sesión actual del usuario.
@@ -20,6 +21,12 @@ import java.time.Instant;
  * Cuando se usa, no se borra; se marca como 'revocado' y se apunta al nuevo token
  * que lo reemplazó ({@code replacedBy}).
  * </p>
+ * <p>
+ * <strong>Concepto: Familia</strong>
+ * Todos los tokens que nacen de un mismo login comparten {@code familyId}: el primero la crea y cada
+ * rotación la hereda. Si se detecta reuso, se revoca solo esa familia (ese dispositivo), no todas las
+ * sesiones del usuario.
+ * </p>
  *
  * @author Luca
  */
@@ -42,6 +49,8 @@ public class RefreshToken {
      */
     private final String token;
 
+    /** Sesión (login) a la que pertenece el token; la comparten todos los tokens de la cadena de rotación. */
+    private final UUID familyId;
 
     private final Instant createdAt;
 
@@ -72,7 +81,7 @@ public class RefreshToken {
     private String replacedBy;
 
     // Constructor completo
-    private RefreshToken(Long id, Long userId, String token, Instant createdAt, Instant expiresAt, boolean revoked, String replacedBy) {
+    private RefreshToken(Long id, Long userId, String token, UUID familyId, Instant createdAt, Instant expiresAt, boolean revoked, String replacedBy) {
         if (userId == null) {
             throw new IllegalArgumentException("UserId cannot be null.");
         }
@@ -82,6 +91,7 @@ public class RefreshToken {
         this.id = id;
         this.userId = userId;
         this.token = token;
+        this.familyId = familyId;
         this.createdAt = createdAt;
         this.expiresAt = expiresAt;
         this.revoked = revoked;
@@ -93,7 +103,7 @@ public class RefreshToken {
     // ========================================================================
 
     /**
-     * Crea un Refresh Token virgen y válido.
+     * Crea un Refresh Token virgen y válido, primero de una nueva familia (un login).
      *
      * @param userId    El dueño de la sesión.
      * @param token     El string seguro generado por el proveedor.
@@ -105,6 +115,7 @@ public class RefreshToken {
                 null,
                 userId,
                 token,
+                UUID.randomUUID(),
                 Instant.now(),
                 expiresAt,
                 false, // Nace vivo (no revocado)
@@ -112,6 +123,26 @@ public class RefreshToken {
         );
     }
 
+    /**
+     * Crea el token que sucede a este en la rotación: mismo dueño y misma familia.
+     *
+     * @param token     El string seguro generado por el proveedor.
+     * @param expiresAt Cuánto tiempo vivirá el nuevo token.
+     * @return Una instancia lista para ser guardada.
+     */
+    public RefreshToken successor(String token, Instant expiresAt) {
+        return new RefreshToken(
+                null,
+                this.userId,
+                token,
+                this.familyId,
+                Instant.now(),
+                expiresAt,
+                false,
+                null
+        );
+    }
+
     // ========================================================================
     // Domain Logic (Comportamiento)
     // ========================================================================
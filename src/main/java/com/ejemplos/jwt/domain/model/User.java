@@ -43,8 +43,15 @@ public class User {
     private Instant createdAt;
     private Instant updatedAt;
 
+    /**
+     * Corte de sesiones: todo token del usuario emitido antes de este instante es inválido
+     * ({@code null} = ninguno). Invalida TODOS sus tokens con un solo dato, sin listar JTIs.
+     */
+    private Instant tokensValidAfter;
+
     // Constructor completo usado por Lombok y mappers (Infraestructura)
-    public User(Long id, String firstName, String lastName, String email, String password, UserRole role, boolean enabled, Instant createdAt, Instant updatedAt) {
+    public User(Long id, String firstName, String lastName, String email, String password, UserRole role, boolean enabled,
+                Instant createdAt, Instant updatedAt, Instant tokensValidAfter) {
         this.id = id;
         this.firstName = firstName;
         this.lastName = lastName;
@@ -54,6 +61,11 @@ public class User {
         this.enabled = enabled;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
+        this.tokensValidAfter = tokensValidAfter;
+    }
+
+    public User(Long id, String firstName, String lastName, String email, String password, UserRole role, boolean enabled, Instant createdAt, Instant updatedAt) {
+        this(id, firstName, lastName, email, password, role, enabled, createdAt, updatedAt, null);
     }
 
     // ========================================================================
@@ -112,4 +124,16 @@ public class User {
         // Auditoría: Es vital registrar cuándo ocurrió el último cambio
         this.updatedAt = Instant.now();
     }
+
+    /**
+     * Invalida todos los tokens (Access y Refresh) emitidos hasta ahora.
+     * <p>
+     * Los tokens que se emitan después (ej: el próximo login) siguen siendo válidos.
+     * </p>
+     */
+    public void invalidateIssuedTokens() {
+        Instant now = Instant.now();
+        this.tokensValidAfter = now;
+        this.updatedAt = now;
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.ejemplos.jwt.domain.repository;
 import com.ejemplos.jwt.domain.model.RefreshToken;
 
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Puerto de Salida (Repository) para la gestión de Refresh Tokens.
@@ -16,9 +17,28 @@ public interface RefreshTokenRepository {
 
     Optional<RefreshToken> findByToken(String token);
 
+    /**
+     * Rota un token de forma atómica: lo revoca y guarda su sucesor solo si seguía vivo.
+     * <p>
+     * La revocación es un UPDATE condicional ({@code ... WHERE token = ? AND revoked = false}): de dos
+     * peticiones concurrentes con el mismo token, solo una lo rota.
+     * </p>
+     *
+     * @param current   El token presentado, ya apuntando a su sucesor ({@code replacedBy}).
+     * @param successor El token nuevo de la misma familia.
+     * @return false si otra petición ya lo había rotado o revocado (no se guarda nada).
+     */
+    boolean rotate(RefreshToken current, RefreshToken successor);
+
     /**
      * Revoca todos los tokens activos de un usuario específico.
      * Útil para casos de cambio de contraseña o detección de robo.
      */
     void revokeAllTokens(Long userId);
+
+    /**
+     * Revoca todos los tokens de una familia (los nacidos de un mismo login).
+     * Útil para la detección de robo: cierra solo la sesión comprometida.
+     */
+    void revokeFamily(UUID familyId);
 }
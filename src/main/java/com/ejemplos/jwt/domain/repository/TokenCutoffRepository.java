@@ -0,0 +1,23 @@
+package com.ejemplos.jwt.domain.repository;
+
+import java.time.Instant;
+
+/**
+ * Puerto de Salida para los cortes de sesión ("todo token emitido antes de T es inválido").
+ * <p>
+ * Complementa a la Lista Negra ({@link RevokedTokenRepository}): en lugar de guardar un JTI por token,
+ * guarda un instante por usuario ({@code User#tokensValidAfter}) y uno global de emergencia.
+ * </p>
+ */
+public interface TokenCutoffRepository {
+
+    /**
+     * Verifica si un token quedó invalidado por un corte de sesión.
+     *
+     * @param userId   Dueño del token ({@code null} = solo se aplica el corte global).
+     * @param issuedAt Fecha de emisión del token.
+     * @return true si el token se emitió antes del corte de su usuario o del corte global.
+     */
+    boolean isIssuedBeforeCutoff(Long userId, Instant issuedAt);
+
+}
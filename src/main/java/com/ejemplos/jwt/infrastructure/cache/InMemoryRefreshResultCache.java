@@ -0,0 +1,140 @@
+package com.ejemplos.jwt.infrastructure.cache;
+
+import com.ejemplos.jwt.application.ports.in.RefreshTokenResult;
+import com.ejemplos.jwt.application.ports.out.RefreshResultCache;
+import com.ejemplos.jwt.infrastructure.metrics.MetricsSource;
+import com.ejemplos.jwt.infrastructure.security.jwt.JwtProperties;
+import com.ejemplos.jwt.infrastructure.security.TokenDigest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ventana de gracia de la rotación de Refresh Tokens, en memoria del nodo.
+ * <p>
+ * La clave es la huella del token rotado ({@link TokenDigest}); el valor, el par que se le entregó a quien
+ * lo rotó. Cada entrada vence en una {@link TimingWheel} a los {@code jwt.refresh-grace-window-ms}.
+ * </p>
+ * <p>
+ * La entrada se publica antes del commit de la rotación (la petición que pierde la carrera la busca apenas
+ * se libera el lock de la fila) y se retira si la transacción termina sin confirmar.
+ * </p>
+ * <p>
+ * <strong>Límites:</strong> la caché es local. Si las pestañas caen en nodos distintos, la segunda no encuentra
+ * el par y se aplica la detección de reuso de siempre. Dentro de la ventana, quien presente el token rotado
+ * recibe el mismo par que el cliente legítimo: por eso la ventana debe ser de pocos segundos (0 = deshabilitada).
+ * </p>
+ */
+@Component
+public class InMemoryRefreshResultCache implements RefreshResultCache, MetricsSource {
+
+    private final long graceWindowMillis;
+    private final int maxSize;
+
+    private final Map<TokenDigest, Entry> results = new ConcurrentHashMap<>();
+    private final TimingWheel<TokenDigest> expirations = new TimingWheel<>(100, results::remove);
+
+    private final LongAdder remembered = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    public InMemoryRefreshResultCache(JwtProperties jwtProperties) {
+        this.graceWindowMillis = jwtProperties.getRefreshGraceWindowMs();
+        this.maxSize = jwtProperties.getRefreshGraceCacheMaxSize();
+    }
+
+    @Override
+    public void remember(String rotatedToken, RefreshTokenResult result) {
+        if (graceWindowMillis <= 0 || maxSize <= 0) {
+            return;
+        }
+        TokenDigest digest = TokenDigest.of(rotatedToken);
+        Entry entry = put(digest, result);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        forget(digest, entry);
+                    }
+                }
+            });
+        }
+    }
+
+    private Entry put(TokenDigest digest, RefreshTokenResult result) {
+        if (results.size() >= maxSize) {
+            makeRoom();
+        }
+        long expiresAt = System.currentTimeMillis() + graceWindowMillis;
+        Entry entry = new Entry(result, expiresAt, expirations.schedule(digest, expiresAt));
+        Entry previous = results.put(digest, entry);
+        if (previous != null) {
+            expirations.cancel(previous.timeout());
+        }
+        remembered.increment();
+        return entry;
+    }
+
+    /** Rotación que no se confirmó: se retira su par (si no lo reemplazó otra). */
+    private void forget(TokenDigest digest, Entry entry) {
+        if (results.remove(digest, entry)) {
+            expirations.cancel(entry.timeout());
+        }
+    }
+
+    @Override
+    public Optional<RefreshTokenResult> recall(String rotatedToken) {
+        if (graceWindowMillis <= 0) {
+            return Optional.empty();
+        }
+        Entry entry = results.get(TokenDigest.of(rotatedToken));
+        if (entry == null || System.currentTimeMillis() >= entry.expiresAtMillis()) {
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.result());
+    }
+
+    /**
+     * Caché llena de entradas vigentes: se desalojan arbitrarias (esas pestañas caen en la detección de reuso).
+     */
+    private void makeRoom() {
+        Iterator<Entry> it = results.values().iterator();
+        while (results.size() >= maxSize && it.hasNext()) {
+            expirations.cancel(it.next().timeout());
+            it.remove();
+        }
+    }
+
+    /**
+     * Avanza la rueda de vencimientos.
+     */
+    @Scheduled(fixedDelay = 1_000)
+    void evictExpired() {
+        expirations.advanceTo(System.currentTimeMillis());
+    }
+
+    @Override
+    public String metricsName() {
+        return "refresh-grace-cache";
+    }
+
+    @Override
+    public Map<String, Long> metrics() {
+        return Map.of(
+                "remembered", remembered.sum(),
+                "hits", hits.sum(),
+                "size", (long) results.size()
+        );
+    }
+
+    private record Entry(RefreshTokenResult result, long expiresAtMillis, TimingWheel.Timeout<TokenDigest> timeout) {
+    }
+}
@@ -0,0 +1,304 @@
+package com.ejemplos.jwt.infrastructure.cache;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Rueda de tiempo jerárquica (hashed hierarchical timing wheel) para desalojar estado en memoria
+ * cuando vence su {@code expiresAt}.
+ * <p>
+ * <strong>Problema:</strong> las cachés de tokens (revocados, verificados, rechazados) tienen una
+ * fecha de muerte exacta. Encontrar lo vencido recorriendo el Map entero es O(n) por barrido,
+ * y dejarlo para la lectura deja basura ocupando memoria hasta que alguien la toque.
+ * </p>
+ * <p>
+ * <strong>Funcionamiento:</strong>
+ * <ul>
+ * <li>El tiempo avanza en ticks de {@code tickMillis}. Cada nivel tiene 64 casilleros; el nivel 0
+ * cubre 64 ticks, el 1 cubre 64², etc. Con 4 niveles y ticks de 1s se cubren ~194 días.</li>
+ * <li>En cada tick se vacía UN casillero del nivel 0: todo lo que hay ahí vence ahora.
+ * Cuando un nivel da la vuelta, el casillero siguiente del nivel superior se redistribuye hacia abajo
+ * (cada entrada baja como mucho una vez por nivel).</li>
+ * </ul>
+ * La rueda es pasiva: quien la usa llama a {@link #advanceTo(long)} periódicamente
+ * (ej: un {@code @Scheduled} por segundo). Los callbacks de vencimiento deben ser baratos
+ * (típicamente un {@code Map.remove}).
+ * </p>
+ * <p>
+ * <strong>Concurrencia:</strong> {@link #schedule} y {@link #cancel} se llaman desde los hilos de los requests
+ * en cada {@code put} de las cachés, así que no toman ningún lock:
+ * <ul>
+ * <li>{@code schedule} encola la entrada en una bandeja sin locks ({@link ConcurrentLinkedQueue}, un CAS).
+ * {@code advanceTo} la vacía hacia los casilleros antes de procesar los ticks.</li>
+ * <li>{@code cancel} es un CAS sobre el estado de la entrada; no la desengancha. La entrada cancelada
+ * se descarta cuando {@code advanceTo} llega a su casillero.</li>
+ * </ul>
+ * Solo {@code advanceTo} y {@code clear} (hilo programado y retiro de llaves) comparten el monitor de la rueda.
+ * <strong>Costo:</strong> una entrada cancelada ocupa memoria (unos 40 bytes, sin su valor) hasta su vencimiento
+ * original, y la cuenta de {@link #size()} solo incluye las pendientes.
+ * </p>
+ *
+ * @param <K> Clave que se entrega al callback al vencer.
+ */
+public final class TimingWheel<K> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int DEFAULT_LEVELS = 4;
+
+    private final long tickMillis;
+    private final int levels;
+    private final Consumer<? super K> onExpire;
+    private final Timeout<K>[][] wheels;
+
+    /** Entradas registradas que {@code advanceTo} todavía no ubicó en su casillero. */
+    private final ConcurrentLinkedQueue<Timeout<K>> inbox = new ConcurrentLinkedQueue<>();
+
+    /** Último tick procesado (solo lo escribe {@code advanceTo}, con el monitor tomado). */
+    private volatile long currentTick;
+
+    /** Entradas pendientes: ni vencidas ni canceladas. */
+    private final AtomicInteger size = new AtomicInteger();
+
+    public TimingWheel(long tickMillis, Consumer<? super K> onExpire) {
+        this(tickMillis, DEFAULT_LEVELS, System.currentTimeMillis(), onExpire);
+    }
+
+    /**
+     * @param tickMillis  Resolución: una entrada vence, como mucho, un tick después de su fecha.
+     * @param levels      Niveles de la jerarquía (alcance = 64^levels ticks; lo que exceda se re-ubica al bajar).
+     * @param startMillis Instante inicial del reloj de la rueda.
+     * @param onExpire    Acción al vencer una entrada.
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int levels, long startMillis, Consumer<? super K> onExpire) {
+        if (tickMillis <= 0 || levels < 1 || levels * WHEEL_BITS > 62) {
+            throw new IllegalArgumentException("Invalid timing wheel geometry");
+        }
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.onExpire = onExpire;
+        this.wheels = new Timeout[levels][WHEEL_SIZE];
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    // =================================================================================
+    // REGISTRO (sin locks)
+    // =================================================================================
+
+    /**
+     * Registra una entrada que vence en {@code expiresAtMillis} (si ya venció, vence en el próximo tick).
+     *
+     * @return el handle para cancelarla antes de tiempo.
+     */
+    public Timeout<K> schedule(K key, long expiresAtMillis) {
+        // Redondeo hacia arriba: nunca se desaloja antes de la fecha pedida
+        long deadlineTick = Math.max(Math.floorDiv(expiresAtMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        Timeout<K> timeout = new Timeout<>(key, deadlineTick);
+        size.incrementAndGet();
+        inbox.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Cancela una entrada sin ejecutar su callback. Idempotente.
+     *
+     * @return {@code true} si la entrada seguía pendiente.
+     */
+    public boolean cancel(Timeout<K> timeout) {
+        if (timeout == null || !timeout.finish(Timeout.CANCELLED)) {
+            return false;
+        }
+        size.decrementAndGet();
+        return true;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Cancela todas las entradas pendientes sin ejecutar sus callbacks.
+     */
+    public synchronized void clear() {
+        drainInbox();
+        for (Timeout<K>[] wheel : wheels) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                Timeout<K> timeout = wheel[slot];
+                wheel[slot] = null;
+                while (timeout != null) {
+                    Timeout<K> next = timeout.next;
+                    timeout.next = null;
+                    cancel(timeout);
+                    timeout = next;
+                }
+            }
+        }
+    }
+
+    // =================================================================================
+    // AVANCE DEL RELOJ
+    // =================================================================================
+
+    /**
+     * Procesa todos los ticks hasta {@code nowMillis} y ejecuta el callback de lo vencido.
+     *
+     * @return cantidad de entradas vencidas.
+     */
+    public synchronized int advanceTo(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        int expired = drainInbox();
+        while (currentTick < targetTick) {
+            if (size.get() == 0) {
+                // Nada pendiente: no hace falta recorrer los ticks. Si queda alguna entrada cancelada,
+                // se descarta cuando el reloj vuelva a pasar por su casillero.
+                currentTick = targetTick;
+                break;
+            }
+            long tick = currentTick + 1;
+            currentTick = tick;
+
+            // Vueltas completas: se redistribuye desde el nivel más alto que cambió hacia abajo
+            for (int level = levels - 1; level >= 1; level--) {
+                int shift = WHEEL_BITS * level;
+                if ((tick & ((1L << shift) - 1)) == 0) {
+                    cascade(level, (int) ((tick >>> shift) & WHEEL_MASK));
+                }
+            }
+
+            int slot = (int) (tick & WHEEL_MASK);
+            Timeout<K> timeout = wheels[0][slot];
+            wheels[0][slot] = null;
+            while (timeout != null) {
+                Timeout<K> next = timeout.next;
+                timeout.next = null;
+                if (expire(timeout)) {
+                    expired++;
+                }
+                timeout = next;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Ubica en su casillero lo registrado desde el último avance.
+     *
+     * @return cantidad de entradas que ya estaban vencidas (se registraron con un reloj atrasado).
+     */
+    private int drainInbox() {
+        int expired = 0;
+        Timeout<K> timeout;
+        while ((timeout = inbox.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            if (timeout.deadlineTick <= currentTick) {
+                if (expire(timeout)) {
+                    expired++;
+                }
+            } else {
+                place(timeout);
+            }
+        }
+        return expired;
+    }
+
+    private boolean expire(Timeout<K> timeout) {
+        if (!timeout.finish(Timeout.EXPIRED)) {
+            return false; // Cancelada mientras esperaba en su casillero
+        }
+        size.decrementAndGet();
+        onExpire.accept(timeout.key);
+        return true;
+    }
+
+    private void cascade(int level, int slot) {
+        Timeout<K> timeout = wheels[level][slot];
+        wheels[level][slot] = null;
+        while (timeout != null) {
+            Timeout<K> next = timeout.next;
+            timeout.next = null;
+            if (!timeout.isCancelled()) {
+                place(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * Ubica la entrada en el nivel más bajo cuyo alcance cubre su vencimiento.
+     */
+    private void place(Timeout<K> timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        if (delta <= 0) {
+            // Solo al redistribuir: vence en el tick que se está procesando (su casillero se vacía a continuación)
+            link(timeout, 0, (int) (currentTick & WHEEL_MASK));
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            int shift = WHEEL_BITS * level;
+            if (delta < (1L << (shift + WHEEL_BITS))) {
+                link(timeout, level, (int) ((timeout.deadlineTick >>> shift) & WHEEL_MASK));
+                return;
+            }
+        }
+        // Más allá del alcance: se estaciona en el último casillero alcanzable y se re-ubica al bajar
+        int top = levels - 1;
+        long horizon = currentTick + (1L << (WHEEL_BITS * levels)) - 1;
+        link(timeout, top, (int) ((horizon >>> (WHEEL_BITS * top)) & WHEEL_MASK));
+    }
+
+    private void link(Timeout<K> timeout, int level, int slot) {
+        timeout.next = wheels[level][slot];
+        wheels[level][slot] = timeout;
+    }
+
+    /**
+     * Handle de una entrada registrada (nodo de la lista simple de su casillero).
+     */
+    public static final class Timeout<K> {
+
+        private static final int PENDING = 0;
+        private static final int EXPIRED = 1;
+        private static final int CANCELLED = 2;
+
+        private static final VarHandle STATE;
+
+        static {
+            try {
+                STATE = MethodHandles.lookup().findVarHandle(Timeout.class, "state", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final K key;
+        private final long deadlineTick;
+        /** Solo lo toca {@code advanceTo}/{@code clear}, con el monitor de la rueda. */
+        private Timeout<K> next;
+        private volatile int state = PENDING;
+
+        private Timeout(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public K key() {
+            return key;
+        }
+
+        private boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        /** Pasa de pendiente a vencida o cancelada; solo una de las dos gana. */
+        private boolean finish(int outcome) {
+            return STATE.compareAndSet(this, PENDING, outcome);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.ejemplos.jwt.infrastructure.messaging.config;
+
+import org.springframework.amqp.core.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de la topología de propagación de revocaciones.
+ * <p>
+ * Un exchange <strong>fanout</strong> copia cada revocación a una cola por nodo:
+ * - La cola es anónima, exclusiva y auto-borrable: vive lo que vive el nodo.
+ * - Sin DLQ: un evento perdido solo retrasa la revocación hasta la próxima
+ *   reconstrucción del índice desde la BD (que sigue siendo la fuente durable).
+ * </p>
+ */
+@Configuration
+public class RevocationMessagingConfig {
+
+    @Value("${rabbitmq.revocation.exchange}")
+    private String revocationExchangeName;
+
+    /**
+     * Exchange de este módulo. Fanout: ignora la routing key y entrega a todas las colas.
+     */
+    @Bean
+    public FanoutExchange revocationExchange() {
+        return new FanoutExchange(revocationExchangeName);
+    }
+
+    /**
+     * Cola propia de este nodo (nombre generado, ej.: auth.revocation.q.Xy3...).
+     */
+    @Bean
+    public Queue revocationQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy(revocationExchangeName + ".q."));
+    }
+
+    @Bean
+    public Binding revocationBinding() {
+        return BindingBuilder
+                .bind(revocationQueue())
+                .to(revocationExchange());
+    }
+}
@@ -0,0 +1,28 @@
+package com.ejemplos.jwt.infrastructure.messaging.dto;
+
+/**
+ * Evento de revocación que se difunde a todos los nodos del cluster.
+ * <p>
+ * Solo lleva lo necesario para las estructuras en memoria y hasta cuándo importa ({@code exp}, segundos epoch).
+ * Al ser pequeño, el fanout es barato aunque haya muchos nodos. Hay dos formas:
+ * <ul>
+ * <li>Un token: {@code jti}.</li>
+ * <li>Un corte de sesión: {@code uid} + {@code validAfter} (milisegundos epoch); {@code jti} es {@code null}.</li>
+ * </ul>
+ * </p>
+ */
+public record RevocationEvent(
+        String jti,
+        long exp,
+        Long uid,
+        Long validAfter
+) {
+
+    public RevocationEvent(String jti, long exp) {
+        this(jti, exp, null, null);
+    }
+
+    public boolean isCutoff() {
+        return uid != null && validAfter != null;
+    }
+}
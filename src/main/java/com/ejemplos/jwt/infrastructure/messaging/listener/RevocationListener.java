@@ -0,0 +1,66 @@
+package com.ejemplos.jwt.infrastructure.messaging.listener;
+
+import com.ejemplos.jwt.infrastructure.messaging.dto.RevocationEvent;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.RevocationIndex;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.TokenCutoffRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.listener.AsyncConsumerRestartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Listener (Consumidor) de revocaciones: mantiene el índice en memoria de este nodo
+ * (y sus cortes de sesión, {@link TokenCutoffRegistry}) al día con lo que revocan los demás.
+ * <p>
+ * Los eventos repetidos (incluido el propio, que también llega por el fanout) se descartan
+ * en {@link RevocationIndex#add}. Si el consumidor se reconecta, la cola anónima es nueva y
+ * pudo perder eventos: en ese caso se reconstruyen el índice y los cortes desde la BD.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevocationListener {
+
+    private final RevocationIndex revocationIndex;
+    private final TokenCutoffRegistry tokenCutoffRegistry;
+
+    @RabbitListener(queues = {"#{revocationQueue.name}"})
+    public void consumeRevocation(RevocationEvent event) {
+        Instant expiresAt = Instant.ofEpochSecond(event.exp());
+        if (expiresAt.isBefore(Instant.now())) {
+            return; // El token (o todos los afectados por el corte) ya expiró por sí solo
+        }
+        if (event.isCutoff()) {
+            tokenCutoffRegistry.update(event.uid(), Instant.ofEpochMilli(event.validAfter()));
+            log.debug("Token cutoff of user {} received from the cluster", event.uid());
+            return;
+        }
+        if (revocationIndex.add(event.jti(), expiresAt)) {
+            log.debug("Revocation of {} received from the cluster", event.jti());
+        }
+    }
+
+    @EventListener(AsyncConsumerRestartedEvent.class)
+    public void onConsumerRestarted() {
+        if (revocationIndex.isReady()) {
+            log.info("Revocation consumer restarted, rebuilding index to cover missed events");
+            try {
+                revocationIndex.rebuild();
+            } catch (RuntimeException e) {
+                log.error("Revocation index rebuild failed, keeping previous index: {}", e.getMessage());
+            }
+        }
+        if (tokenCutoffRegistry.isReady()) {
+            try {
+                tokenCutoffRegistry.reload();
+            } catch (RuntimeException e) {
+                log.error("Token cutoff reload failed, keeping previous cutoffs: {}", e.getMessage());
+            }
+        }
+    }
+}
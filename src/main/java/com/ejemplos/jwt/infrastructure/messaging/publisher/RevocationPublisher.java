@@ -0,0 +1,62 @@
+package com.ejemplos.jwt.infrastructure.messaging.publisher;
+
+import com.ejemplos.jwt.infrastructure.messaging.dto.RevocationEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Publicador de revocaciones hacia el resto del cluster.
+ * <p>
+ * Se llama después del commit de la revocación. Si el broker no está disponible, el error
+ * se registra y NO se propaga: la revocación ya es durable en la BD y los demás nodos
+ * la verán en su próxima reconstrucción del índice.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevocationPublisher {
+
+    @Value("${rabbitmq.revocation.exchange}")
+    private String revocationExchange;
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public void publish(String jti, Instant expiresAt) {
+        try {
+            rabbitTemplate.convertAndSend(
+                    revocationExchange,
+                    "", // Fanout: la routing key no se usa
+                    new RevocationEvent(jti, expiresAt.getEpochSecond()),
+                    new CorrelationData(jti) // El JTI ya es único: sirve como ID de tracking
+            );
+        } catch (AmqpException e) {
+            log.warn("Revocation of {} not propagated, other nodes will pick it up on their next rebuild: {}",
+                    jti, e.getMessage());
+        }
+    }
+
+    /**
+     * Difunde un corte de sesión ("los tokens de este usuario emitidos antes de {@code validAfter} son inválidos").
+     */
+    public void publishCutoff(Long userId, Instant validAfter, Instant relevantUntil) {
+        try {
+            rabbitTemplate.convertAndSend(
+                    revocationExchange,
+                    "",
+                    new RevocationEvent(null, relevantUntil.getEpochSecond(), userId, validAfter.toEpochMilli()),
+                    new CorrelationData("uid-" + userId + "-" + validAfter.toEpochMilli())
+            );
+        } catch (AmqpException e) {
+            log.warn("Token cutoff of user {} not propagated, other nodes will pick it up on their next reload: {}",
+                    userId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ejemplos.jwt.infrastructure.metrics;
+
+import java.util.Map;
+
+/**
+ * Contrato para los componentes de infraestructura que exponen contadores internos
+ * (cachés, filtros, colas, etc.).
+ * <p>
+ * Cada implementación publica una "foto" de sus contadores bajo un nombre propio,
+ * y el {@code MetricsController} las agrega en un único endpoint de administración.
+ * </p>
+ */
+public interface MetricsSource {
+
+    /** Nombre lógico del componente (ej: "verified-claims-cache"). */
+    String metricsName();
+
+    /** Valores actuales de los contadores. */
+    Map<String, Long> metrics();
+}
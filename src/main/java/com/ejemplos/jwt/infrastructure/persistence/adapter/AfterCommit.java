@@ -0,0 +1,29 @@
+package com.ejemplos.jwt.infrastructure.persistence.adapter;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Ejecuta una acción cuando la transacción actual se confirma (o en el momento, si no hay transacción).
+ * <p>
+ * Las cachés en memoria y el cluster solo deben reflejar lo que quedó en la BD: si hay rollback, la acción no corre.
+ * </p>
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -5,16 +5,27 @@ import com.ejemplos.jwt.domain.repository.RefreshTokenRepository;
 import com.ejemplos.jwt.infrastructure.persistence.entity.RefreshTokenEntity;
 import com.ejemplos.jwt.infrastructure.persistence.mapper.RefreshTokenMapper;
 import com.ejemplos.jwt.infrastructure.persistence.repository.SpringDataRefreshTokenRepository;
+import com.ejemplos.jwt.infrastructure.security.TokenDigest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Adaptador de Persistencia para Refresh Tokens.
  * <p>
  * Conecta el puerto de dominio {@link RefreshTokenRepository} con el repositorio JPA real.
  * </p>
+ * <p>
+ * Los tokens se buscan y se guardan por su huella SHA-256 ({@link TokenDigest}); el token en claro
+ * nunca llega a la BD. Un token ya guardado solo cambia de estado (revocado, sucesor), así que se
+ * actualiza con un UPDATE puntual en lugar de un merge de la entidad completa.
+ * </p>
+ * <p>
+ * La rotación no lee la fila para decidir: el UPDATE condicional revoca el token y la cantidad de filas
+ * afectadas dice si esta petición ganó. Solo entonces se inserta el sucesor, en la misma transacción.
+ * </p>
  */
 @Component
 @RequiredArgsConstructor
@@ -23,21 +34,42 @@ public class RefreshTokenRepositoryAdapter implements RefreshTokenRepository {
     private final SpringDataRefreshTokenRepository springDataRefreshTokenRepository;
     private final RefreshTokenMapper refreshTokenMapper;
 
-
     @Override
     public RefreshToken save(RefreshToken refreshToken) {
+        if (refreshToken.getId() != null) {
+            byte[] replacedBy = refreshToken.getReplacedBy() == null ? null : TokenDigest.of(refreshToken.getReplacedBy()).toBytes();
+            springDataRefreshTokenRepository.updateState(refreshToken.getId(), refreshToken.isRevoked(), replacedBy);
+            return refreshToken;
+        }
         RefreshTokenEntity saved = springDataRefreshTokenRepository.save(refreshTokenMapper.toEntity(refreshToken));
-        return refreshTokenMapper.toDomain(saved);
+        return refreshTokenMapper.toDomain(saved, refreshToken.getToken());
+    }
+
+    @Override
+    public boolean rotate(RefreshToken current, RefreshToken successor) {
+        int updated = springDataRefreshTokenRepository.revokeIfActive(
+                TokenDigest.of(current.getToken()).toBytes(),
+                TokenDigest.of(successor.getToken()).toBytes());
+        if (updated == 0) {
+            return false;
+        }
+        springDataRefreshTokenRepository.save(refreshTokenMapper.toEntity(successor));
+        return true;
     }
 
     @Override
     public Optional<RefreshToken> findByToken(String token) {
-        return springDataRefreshTokenRepository.findByToken(token)
-                .map(refreshTokenMapper::toDomain);
+        return springDataRefreshTokenRepository.findByTokenHash(TokenDigest.of(token).toBytes())
+                .map(entity -> refreshTokenMapper.toDomain(entity, token));
     }
 
     @Override
     public void revokeAllTokens(Long userId) {
         springDataRefreshTokenRepository.revokeAllByUserId(userId);
     }
+
+    @Override
+    public void revokeFamily(UUID familyId) {
+        springDataRefreshTokenRepository.revokeAllByFamilyId(familyId);
+    }
 }
@@ -2,16 +2,32 @@ package com.ejemplos.jwt.infrastructure.persistence.adapter;
 
 import com.ejemplos.jwt.domain.model.RevokedToken;
 import com.ejemplos.jwt.domain.repository.RevokedTokenRepository;
-import com.ejemplos.jwt.infrastructure.persistence.entity.RevokedTokenEntity;
-import com.ejemplos.jwt.infrastructure.persistence.mapper.RevokedTokenMapper;
+import com.ejemplos.jwt.infrastructure.messaging.publisher.RevocationPublisher;
 import com.ejemplos.jwt.infrastructure.persistence.repository.SpringDataRevokedTokenRepository;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.JtiKey;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.RevocationAuditWriter;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.RevocationDbGuard;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.RevocationIndex;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.RevocationWriteBuffer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 /**
  * Adaptador de Persistencia para la Lista Negra de Tokens.
  * <p>
- * Implementa {@link RevokedTokenRepository} delegando en Spring Data JPA.
+ * Implementa {@link RevokedTokenRepository} con un {@code INSERT IGNORE} para la escritura,
+ * y en {@link RevocationIndex} (en memoria) para la consulta del camino caliente.
+ * Cada revocación confirmada se difunde al resto del cluster con {@link RevocationPublisher}.
+ * </p>
+ * <p>
+ * La revocación se guarda en la tabla caliente (JTI binario + expiración) dentro de la transacción;
+ * la fila de auditoría (subject, motivo, fecha) se escribe después del commit con {@link RevocationAuditWriter}.
+ * En modo {@code WRITE_BEHIND} tampoco la tabla caliente se escribe en la transacción: la fila se encola
+ * al commit en {@link RevocationWriteBuffer}, que la escribe en lotes.
+ * </p>
+ * <p>
+ * Mientras el índice no está cargado, la consulta va a MySQL a través de {@link RevocationDbGuard}
+ * (plazo máximo + circuit breaker).
  * </p>
  */
 @Component
@@ -19,16 +35,42 @@ import org.springframework.stereotype.Component;
 public class RevokedTokenRepositoryAdapter implements RevokedTokenRepository {
 
     private final SpringDataRevokedTokenRepository springDataRevokedTokenRepository;
-    private final RevokedTokenMapper revokedTokenMapper;
+    private final RevocationIndex revocationIndex;
+    private final RevocationPublisher revocationPublisher;
+    private final RevocationAuditWriter revocationAuditWriter;
+    private final RevocationWriteBuffer revocationWriteBuffer;
+    private final RevocationDbGuard revocationDbGuard;
 
     @Override
     public void save(RevokedToken revokedToken) {
-        RevokedTokenEntity toEntity = revokedTokenMapper.toEntity(revokedToken);
-        springDataRevokedTokenRepository.save(toEntity);
+        if (revocationWriteBuffer.isEnabled()) {
+            // El índice se actualiza al commit; la fila llega a la BD con el próximo lote
+            AfterCommit.run(() -> {
+                propagate(revokedToken);
+                revocationWriteBuffer.enqueue(revokedToken.getJti(), revokedToken.getExpiresAt());
+            });
+            return;
+        }
+
+        springDataRevokedTokenRepository.insertIgnore(JtiKey.toBytes(JtiKey.of(revokedToken.getJti())), revokedToken.getExpiresAt());
+
+        // El índice (y el cluster) solo reflejan lo que quedó en la BD: si hay rollback, no se agrega
+        AfterCommit.run(() -> propagate(revokedToken));
+    }
+
+    private void propagate(RevokedToken revokedToken) {
+        revocationIndex.add(revokedToken.getJti(), revokedToken.getExpiresAt());
+        revocationPublisher.publish(revokedToken.getJti(), revokedToken.getExpiresAt());
+        revocationAuditWriter.write(revokedToken);
     }
 
     @Override
     public boolean isRevoked(String jti) {
-        return springDataRevokedTokenRepository.existsByJti(jti);
+        if (revocationIndex.isReady()) {
+            return revocationIndex.contains(jti);
+        }
+        return revocationDbGuard.check(
+                () -> springDataRevokedTokenRepository.existsById(JtiKey.of(jti)),
+                () -> revocationIndex.containsKnown(jti));
     }
 }
@@ -0,0 +1,45 @@
+package com.ejemplos.jwt.infrastructure.persistence.adapter;
+
+import com.ejemplos.jwt.domain.repository.TokenCutoffRepository;
+import com.ejemplos.jwt.infrastructure.persistence.repository.SpringDataUserRepository;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.RevocationDbGuard;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.TokenCutoffRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Adaptador de Persistencia para los cortes de sesión.
+ * <p>
+ * Responde desde {@link TokenCutoffRegistry} (en memoria); hasta que el registro se carga,
+ * consulta la columna {@code users.tokens_valid_after} directamente, a través de {@link RevocationDbGuard}.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenCutoffRepositoryAdapter implements TokenCutoffRepository {
+
+    private final TokenCutoffRegistry tokenCutoffRegistry;
+    private final SpringDataUserRepository springDataUserRepository;
+    private final RevocationDbGuard revocationDbGuard;
+
+    @Override
+    public boolean isIssuedBeforeCutoff(Long userId, Instant issuedAt) {
+        long issuedAtMillis = issuedAt.toEpochMilli();
+        if (tokenCutoffRegistry.isGloballyCutOff(issuedAtMillis)) {
+            return true;
+        }
+        if (userId == null) {
+            return false;
+        }
+        if (tokenCutoffRegistry.isReady()) {
+            return tokenCutoffRegistry.isCutOff(userId, issuedAtMillis);
+        }
+        return revocationDbGuard.check(
+                () -> springDataUserRepository.findTokensValidAfterById(userId)
+                        .map(cutoff -> issuedAtMillis < cutoff.toEpochMilli())
+                        .orElse(false),
+                () -> tokenCutoffRegistry.isCutOff(userId, issuedAtMillis)); // Cortes recibidos antes de cargar
+    }
+}
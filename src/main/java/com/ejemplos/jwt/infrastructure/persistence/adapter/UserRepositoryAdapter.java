@@ -2,12 +2,15 @@ package com.ejemplos.jwt.infrastructure.persistence.adapter;
 
 import com.ejemplos.jwt.domain.model.User;
 import com.ejemplos.jwt.domain.repository.UserRepository;
+import com.ejemplos.jwt.infrastructure.messaging.publisher.RevocationPublisher;
 import com.ejemplos.jwt.infrastructure.persistence.entity.UserEntity;
 import com.ejemplos.jwt.infrastructure.persistence.mapper.UserMapper;
 import com.ejemplos.jwt.infrastructure.persistence.repository.SpringDataUserRepository;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.TokenCutoffRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.Optional;
 
 /**
@@ -17,6 +20,10 @@ import java.util.Optional;
  * Su responsabilidad es traducir las llamadas del dominio a operaciones de base de datos
  * y mapear los resultados (Entidades) de vuelta a objetos de dominio.
  * </p>
+ * <p>
+ * Si al guardar el usuario tiene un corte de sesión nuevo ({@code tokensValidAfter}), después del commit
+ * se registra en {@link TokenCutoffRegistry} y se difunde al resto del cluster.
+ * </p>
  */
 @Component
 @RequiredArgsConstructor
@@ -24,11 +31,22 @@ public class UserRepositoryAdapter implements UserRepository {
 
     private final SpringDataUserRepository springDataUserRepository;
     private final UserMapper userMapper;
+    private final TokenCutoffRegistry tokenCutoffRegistry;
+    private final RevocationPublisher revocationPublisher;
 
     @Override
     public User save(User user) {
         UserEntity userEntity = springDataUserRepository.save(userMapper.toEntity(user));
-        return userMapper.toDomain(userEntity);
+        User saved = userMapper.toDomain(userEntity);
+
+        Instant cutoff = saved.getTokensValidAfter();
+        if (cutoff != null && tokenCutoffRegistry.isNewer(saved.getId(), cutoff)) {
+            AfterCommit.run(() -> {
+                tokenCutoffRegistry.update(saved.getId(), cutoff);
+                revocationPublisher.publishCutoff(saved.getId(), cutoff, tokenCutoffRegistry.relevantUntil(cutoff));
+            });
+        }
+        return saved;
     }
 
     @Override
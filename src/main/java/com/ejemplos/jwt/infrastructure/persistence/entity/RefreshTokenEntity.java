@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.Instant;
+import java.util.UUID;
 
 /**
  * Entidad JPA que mapea la tabla 'refresh_tokens'.
@@ -11,9 +12,13 @@ import java.time.Instant;
  * Gestiona la persistencia de las sesiones de larga duración y su relación
  * con el usuario propietario (Foreign Key).
  * </p>
+ * <p>
+ * El token no se guarda: solo su SHA-256 (32 bytes fijos). Un volcado de la BD no contiene
+ * tokens usables y el índice único es de ancho fijo, varias veces más chico que uno sobre el JWT.
+ * </p>
  */
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -25,9 +30,13 @@ public class RefreshTokenEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    // length = 512 es importante porque los tokens JWT pueden ser largos
-    @Column(nullable = false, unique = true, length = 512)
-    private String token;
+    /** SHA-256 del token ({@code TokenDigest}). */
+    @Column(name = "token_hash", nullable = false, unique = true, length = 32, columnDefinition = "BINARY(32)")
+    private byte[] tokenHash;
+
+    /** Familia del token (un login y todas sus rotaciones). */
+    @Column(name = "family_id", nullable = false, columnDefinition = "BINARY(16)")
+    private UUID familyId;
 
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
@@ -38,8 +47,9 @@ public class RefreshTokenEntity {
     @Column(nullable = false)
     private boolean revoked;
 
-    @Column(name = "replaced_by", length = 512)
-    private String replacedBy;
+    /** SHA-256 del token sucesor (el que lo reemplazó al rotar). */
+    @Column(name = "replaced_by", length = 32, columnDefinition = "BINARY(32)")
+    private byte[] replacedBy;
 
     /**
      * Relación Muchos-a-Uno con la tabla de usuarios.
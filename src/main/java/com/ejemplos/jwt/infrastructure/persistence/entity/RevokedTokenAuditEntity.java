@@ -0,0 +1,40 @@
+package com.ejemplos.jwt.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Entidad JPA para la tabla fría 'revoked_token_audit'.
+ * <p>
+ * Registro histórico de las revocaciones (quién, por qué, cuándo). No participa de la
+ * autenticación: se escribe de forma asíncrona después del commit de la revocación.
+ * </p>
+ */
+@Entity
+@Table(name = "revoked_token_audit")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedTokenAuditEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String jti;
+
+    private String subject;
+
+    private String reason;
+
+    @Column(nullable = false, name = "expires_at")
+    private Instant expiresAt;
+
+    @Column(nullable = false, name = "created_at")
+    private Instant createdAt;
+}
@@ -2,14 +2,23 @@ package com.ejemplos.jwt.infrastructure.persistence.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
+import java.util.UUID;
 
 /**
- * Entidad JPA para la tabla 'revoked_tokens' (Blacklist).
+ * Entidad JPA para la tabla caliente 'revoked_tokens' (Blacklist).
  * <p>
- * Almacena los identificadores (JTI) de los tokens que han sido invalidados
- * explícitamente antes de su expiración natural.
+ * Solo guarda lo que necesita la consulta "¿está revocado?": el JTI en binario
+ * (16 bytes, ver {@code JtiKey}) como clave primaria y su expiración. Filas de 24 bytes
+ * caben por cientos en una página del buffer pool; los datos de auditoría (quién, por qué)
+ * viven aparte en {@link RevokedTokenAuditEntity}.
+ * </p>
+ * <p>
+ * La clave es asignada, así que las filas no se guardan con {@code save()} (sería un merge: SELECT + INSERT)
+ * sino con {@code SpringDataRevokedTokenRepository#insertIgnore}.
  * </p>
  */
 @Entity
@@ -22,19 +31,10 @@ import java.time.Instant;
 public class RevokedTokenEntity {
 
     @Id
-    @GeneratedValue(strategy =  GenerationType.IDENTITY)
-    private Long id;
-
-    @Column(nullable = false, unique = true)
-    private String jti;
-
-    private String subject;
-
-    private String reason;
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "jti", length = 16, columnDefinition = "BINARY(16)")
+    private UUID jti;
 
     @Column(nullable = false, name = "expires_at")
     private Instant expiresAt;
-
-    @Column(nullable = false, name = "created_at")
-    private Instant createdAt;
 }
@@ -14,7 +14,7 @@ import java.time.Instant;
  * </p>
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_tokens_valid_after", columnList = "tokens_valid_after"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -50,4 +50,8 @@ public class UserEntity {
 
     @Column(nullable = false)
     private Instant updatedAt;
+
+    /** Los tokens emitidos antes de este instante son inválidos (NULL = ninguno). */
+    @Column(name = "tokens_valid_after")
+    private Instant tokensValidAfter;
 }
@@ -2,6 +2,7 @@ package com.ejemplos.jwt.infrastructure.persistence.mapper;
 
 import com.ejemplos.jwt.domain.model.RefreshToken;
 import com.ejemplos.jwt.infrastructure.persistence.entity.RefreshTokenEntity;
+import com.ejemplos.jwt.infrastructure.security.TokenDigest;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -11,13 +12,21 @@ import org.mapstruct.Mapping;
  * Gestiona la conversión incluyendo el mapeo de claves foráneas (ID de usuario)
  * entre el objeto de dominio {@link RefreshToken} y la entidad JPA {@link RefreshTokenEntity}.
  * </p>
+ * <p>
+ * La entidad solo tiene la huella SHA-256 del token ({@link TokenDigest}): al volver al dominio, el token
+ * en claro lo aporta quien lo buscó. El sucesor ({@code replacedBy}) no se puede reconstruir y queda vacío.
+ * </p>
  */
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", imports = TokenDigest.class)
 public interface RefreshTokenMapper {
 
-    @Mapping(target = "userId", source = "user.id")
-    RefreshToken toDomain(RefreshTokenEntity refreshTokenEntity);
+    @Mapping(target = "userId", source = "refreshTokenEntity.user.id")
+    @Mapping(target = "token", source = "token")
+    @Mapping(target = "replacedBy", ignore = true)
+    RefreshToken toDomain(RefreshTokenEntity refreshTokenEntity, String token);
 
     @Mapping(target = "user.id", source = "userId")
+    @Mapping(target = "tokenHash", expression = "java(TokenDigest.of(refreshToken.getToken()).toBytes())")
+    @Mapping(target = "replacedBy", expression = "java(refreshToken.getReplacedBy() == null ? null : TokenDigest.of(refreshToken.getReplacedBy()).toBytes())")
     RefreshTokenEntity toEntity(RefreshToken refreshToken);
 }
@@ -1,19 +1,22 @@
 package com.ejemplos.jwt.infrastructure.persistence.mapper;
 
 import com.ejemplos.jwt.domain.model.RevokedToken;
-import com.ejemplos.jwt.infrastructure.persistence.entity.RevokedTokenEntity;
+import com.ejemplos.jwt.infrastructure.persistence.entity.RevokedTokenAuditEntity;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 /**
  * Mapper para la entidad de Lista Negra (Blacklist).
  * <p>
- * Realiza la conversión entre {@link RevokedToken} y {@link RevokedTokenEntity}.
+ * Una {@link RevokedToken} se reparte en dos filas: la caliente (JTI binario + expiración, que el adaptador
+ * inserta directo) y la de auditoría ({@link RevokedTokenAuditEntity}), que se mapea aquí.
  * </p>
  */
 @Mapper(componentModel = "spring")
 public interface RevokedTokenMapper {
 
-    RevokedTokenEntity toEntity(RevokedToken revokedToken);
+    @Mapping(target = "id", ignore = true)
+    RevokedTokenAuditEntity toAuditEntity(RevokedToken revokedToken);
 
-    RevokedToken toDomain(RevokedTokenEntity revokedTokenEntity);
+    RevokedToken toDomain(RevokedTokenAuditEntity revokedTokenAuditEntity);
 }
@@ -16,7 +16,7 @@ import java.util.Optional;
 @Repository
 public interface SpringDataRecoveryTokenRepository extends JpaRepository<RecoveryTokenEntity, Long> {
 
-    /** Busca el token de recuperación por su código UUID. */
+    /** Busca el token de recuperación por su código. */
     Optional<RecoveryTokenEntity> findByToken(String token);
 
 }
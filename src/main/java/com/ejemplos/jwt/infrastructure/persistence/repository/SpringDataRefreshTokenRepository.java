@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Repositorio JPA para la gestión de Refresh Tokens.
@@ -17,8 +18,30 @@ import java.util.Optional;
 @Repository
 public interface SpringDataRefreshTokenRepository extends JpaRepository<RefreshTokenEntity, Long> {
 
-    /** Busca un token por su valor de String único. */
-    Optional<RefreshTokenEntity> findByToken(String token);
+    /** Busca un token por su huella SHA-256 (índice único de 32 bytes). */
+    Optional<RefreshTokenEntity> findByTokenHash(byte[] tokenHash);
+
+    /**
+     * Actualiza el estado de un token ya guardado (revocación y rotación).
+     * <p>
+     * {@code COALESCE}: un {@code replacedBy} nulo (el dominio no puede reconstruir la huella del sucesor
+     * de un token leído de la BD) no borra el sucesor ya registrado.
+     * </p>
+     */
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity rt SET rt.revoked = :revoked, rt.replacedBy = COALESCE(:replacedBy, rt.replacedBy) WHERE rt.id = :id")
+    int updateState(Long id, boolean revoked, byte[] replacedBy);
+
+    /**
+     * Revoca un token solo si seguía vivo y registra su sucesor.
+     * <p>
+     * Es la rotación entera en una sentencia: MySQL bloquea la fila, re-evalúa {@code revoked} sobre la
+     * versión confirmada y devuelve cuántas filas cambió. 1 = esta petición rotó el token; 0 = otra se adelantó.
+     * </p>
+     */
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity rt SET rt.revoked = true, rt.replacedBy = :replacedBy WHERE rt.tokenHash = :tokenHash AND rt.revoked = false")
+    int revokeIfActive(byte[] tokenHash, byte[] replacedBy);
 
     /**
      * Revoca masivamente todos los tokens de un usuario.
@@ -32,4 +55,9 @@ public interface SpringDataRefreshTokenRepository extends JpaRepository<RefreshT
     @Query("UPDATE RefreshTokenEntity rt SET rt.revoked = true WHERE rt.user.id = :userId")
     void revokeAllByUserId(Long userId);
 
+    /** Revoca los tokens vivos de una familia (índice {@code idx_refresh_tokens_family_id}). */
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity rt SET rt.revoked = true WHERE rt.familyId = :familyId AND rt.revoked = false")
+    int revokeAllByFamilyId(UUID familyId);
+
 }
@@ -0,0 +1,12 @@
+package com.ejemplos.jwt.infrastructure.persistence.repository;
+
+import com.ejemplos.jwt.infrastructure.persistence.entity.RevokedTokenAuditEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio JPA para la auditoría de revocaciones (tabla fría).
+ */
+@Repository
+public interface SpringDataRevokedTokenAuditRepository extends JpaRepository<RevokedTokenAuditEntity, Long> {
+}
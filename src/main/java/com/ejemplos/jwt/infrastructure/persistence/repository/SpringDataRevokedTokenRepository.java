@@ -2,23 +2,35 @@ package com.ejemplos.jwt.infrastructure.persistence.repository;
 
 import com.ejemplos.jwt.infrastructure.persistence.entity.RevokedTokenEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.UUID;
+
 /**
- * Repositorio JPA para la Lista Negra de Tokens (Blacklist).
+ * Repositorio JPA para la Lista Negra de Tokens (Blacklist), tabla caliente.
  * <p>
- * Se utiliza principalmente para verificar si un Access Token (JTI) ha sido
- * revocado antes de procesar una petición.
+ * La clave es el JTI en binario ({@code JtiKey}); {@code existsById} reemplaza al
+ * antiguo {@code existsByJti} sobre un varchar. El índice en memoria lee la tabla con JDBC
+ * ({@code RevocationIndex}), página por página, sin pasar por entidades.
  * </p>
  */
 @Repository
-public interface SpringDataRevokedTokenRepository extends JpaRepository<RevokedTokenEntity, Long> {
+public interface SpringDataRevokedTokenRepository extends JpaRepository<RevokedTokenEntity, UUID> {
 
     /**
-     * Verifica si existe un registro de revocación para un ID de token específico.
-     * @param jti JWT ID único.
-     * @return true si el token está en la lista negra.
+     * Inserta la fila caliente de una revocación.
+     * <p>
+     * La clave es asignada (no generada), así que {@code save()} haría un {@code merge}: un SELECT por la
+     * clave antes de cada INSERT. {@code INSERT IGNORE} va directo y revocar dos veces el mismo JTI no falla
+     * (igual que en {@code RevocationWriteBuffer}).
+     * </p>
+     * @param jti Clave binaria ({@code JtiKey.toBytes}).
+     * @return filas insertadas (0 si el JTI ya estaba).
      */
-    boolean existsByJti(String jti);
-
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO revoked_tokens (jti, expires_at) VALUES (:jti, :expiresAt)", nativeQuery = true)
+    int insertIgnore(byte[] jti, Instant expiresAt);
 }
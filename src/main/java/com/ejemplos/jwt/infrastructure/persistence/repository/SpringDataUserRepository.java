@@ -2,8 +2,12 @@ package com.ejemplos.jwt.infrastructure.persistence.repository;
 
 import com.ejemplos.jwt.infrastructure.persistence.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -22,4 +26,20 @@ public interface SpringDataUserRepository extends JpaRepository<UserEntity, Long
     /** Verifica eficientemente si un correo ya está registrado en la base de datos. */
     boolean existsByEmail(String email);
 
+    /** Cortes de sesión posteriores a {@code since} (usa el índice de {@code tokens_valid_after}). */
+    List<UserCutoff> findByTokensValidAfterAfter(Instant since);
+
+    /** Corte de sesión de un usuario, sin cargar la entidad completa. */
+    @Query("select u.tokensValidAfter from UserEntity u where u.id = :id")
+    Optional<Instant> findTokensValidAfterById(@Param("id") Long id);
+
+    /**
+     * Proyección con lo mínimo para el registro de cortes en memoria.
+     */
+    interface UserCutoff {
+        Long getId();
+
+        Instant getTokensValidAfter();
+    }
+
 }
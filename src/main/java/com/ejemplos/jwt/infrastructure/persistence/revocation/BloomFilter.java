@@ -0,0 +1,82 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom concurrente para claves de 128 bits (JTI en forma binaria, ver {@link JtiKey}).
+ * <p>
+ * Responde "seguro que NO está" o "puede que esté". Nunca da falsos negativos, así que
+ * un "no" basta para descartar la consulta exacta. Las escrituras son CAS sobre palabras
+ * de 64 bits; las lecturas no bloquean.
+ * </p>
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitMask;
+    private final int hashFunctions;
+
+    /**
+     * @param expectedEntries         cantidad de elementos para la que se dimensiona.
+     * @param falsePositiveProbability tasa de falsos positivos objetivo con esa cantidad.
+     */
+    BloomFilter(int expectedEntries, double falsePositiveProbability) {
+        int entries = Math.max(expectedEntries, 64);
+        // m = -n ln p / (ln 2)^2, redondeado a potencia de 2 para indexar con una máscara
+        long optimalBits = (long) Math.ceil(-entries * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        long bits = Long.highestOneBit(Math.max(optimalBits, 64) - 1) << 1;
+        this.words = new AtomicLongArray((int) (bits >>> 6));
+        this.bitMask = bits - 1;
+        // k = (m / n) ln 2
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bits / entries * Math.log(2)));
+    }
+
+    void put(long hi, long lo) {
+        long hash = hash64(hi, lo);
+        long h1 = hash;
+        long h2 = mix(hash) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word = words.get(index);
+            while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+                word = words.get(index);
+            }
+        }
+    }
+
+    boolean mightContain(long hi, long lo) {
+        long hash = hash64(hi, lo);
+        long h1 = hash;
+        long h2 = mix(hash) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bitSize() {
+        return bitMask + 1;
+    }
+
+    /**
+     * Pliega la clave a 64 bits. Los 80 bits bajos de un ULID son aleatorios, así que no hace falta más.
+     */
+    private static long hash64(long hi, long lo) {
+        return mix(hi * 0x9E3779B97F4A7C15L + lo);
+    }
+
+    /** Finalizador de MurmurHash3 (fmix64). */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,98 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import com.ejemplos.jwt.infrastructure.security.id.Ulid;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Forma binaria (128 bits) de un JTI, usada como clave de la tabla caliente de revocaciones.
+ * <p>
+ * {@link UUID} se usa solo como contenedor de 128 bits (Hibernate lo mapea a {@code BINARY(16)}):
+ * <ul>
+ * <li>ULID (los JTI actuales): sus 16 bytes. Empiezan por el timestamp, así que las claves
+ * quedan ordenadas por fecha de emisión.</li>
+ * <li>UUID (JTI emitidos antes del ULID): sus 16 bytes, igual que {@code UUID_TO_BIN} de MySQL.</li>
+ * <li>Cualquier otro texto: los primeros 16 bytes de su SHA-256.</li>
+ * </ul>
+ * El índice en memoria y el snapshot usan esta misma clave, así que un JTI se reconoce igual venga
+ * de la BD o de un token. La forma texto "canónica" de una clave es su ULID (26 caracteres).
+ * </p>
+ */
+public final class JtiKey {
+
+    private JtiKey() {
+    }
+
+    /** Clave binaria del JTI. */
+    public static UUID of(String jti) {
+        byte[] bytes = new byte[Ulid.BINARY_LENGTH];
+        if (Ulid.isUlid(jti)) {
+            Ulid.toBytes(jti, bytes, 0);
+        } else if (jti.length() == 36 && jti.charAt(8) == '-') {
+            try {
+                return UUID.fromString(jti);
+            } catch (IllegalArgumentException e) {
+                System.arraycopy(sha256(jti), 0, bytes, 0, bytes.length);
+            }
+        } else {
+            System.arraycopy(sha256(jti), 0, bytes, 0, bytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /** Forma texto canónica de una clave binaria. */
+    public static String text(UUID key) {
+        return Ulid.fromBytes(toBytes(key), 0);
+    }
+
+    /** Los 16 bytes de la clave, tal como se guardan en la columna {@code BINARY(16)}. */
+    public static byte[] toBytes(UUID key) {
+        return ByteBuffer.allocate(Ulid.BINARY_LENGTH)
+                .putLong(key.getMostSignificantBits())
+                .putLong(key.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Forma texto canónica de un JTI. Para los ULID en mayúsculas (todos los que emitimos)
+     * es el mismo String, sin alocar.
+     */
+    public static String canonical(String jti) {
+        if (Ulid.isUlid(jti) && isUpperCase(jti)) {
+            return jti;
+        }
+        return text(of(jti));
+    }
+
+    /**
+     * Menor clave posible de un ULID emitido en {@code issuedAt} (timestamp + 80 bits en cero):
+     * las claves {@code >=} a esta son las de tokens emitidos desde ese instante.
+     */
+    public static UUID lowerBound(Instant issuedAt) {
+        return new UUID(issuedAt.toEpochMilli() << 16, 0L);
+    }
+
+    private static boolean isUpperCase(String ulid) {
+        for (int i = 0; i < ulid.length(); i++) {
+            char c = ulid.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] sha256(String jti) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(jti.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
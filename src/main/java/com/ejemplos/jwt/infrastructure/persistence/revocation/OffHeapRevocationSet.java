@@ -0,0 +1,341 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Conjunto exacto de revocaciones fuera del heap: claves de 128 bits ({@link JtiKey}) con su expiración.
+ * <p>
+ * <strong>Problema:</strong> con decenas de millones de JTI revocados (TTL largos, un incidente), un
+ * {@code Map<String, Instant>} son varios objetos por entrada: cientos de bytes cada una y pausas de GC
+ * que crecen con el heap. Aquí cada entrada son 24 bytes en memoria directa que el GC no recorre.
+ * </p>
+ * <p>
+ * <strong>Estructura:</strong>
+ * <ul>
+ * <li>{@link #STRIPES} tablas independientes (la clave elige la tabla por los bits bajos de su hash).
+ * Cada una es un {@code ByteBuffer} directo con direccionamiento abierto y sondeo lineal;
+ * casillero = clave alta | clave baja | expiración (ms epoch). Expiración 0 = vacío.</li>
+ * <li><strong>Lecturas sin lock:</strong> la expiración se lee con semántica acquire y se escribe con release,
+ * después de la clave; si un lector ve la expiración, ve la clave completa. La clave de un casillero
+ * nunca cambia mientras la tabla esté publicada: borrar es marcar la expiración como {@link #TOMBSTONE}.</li>
+ * <li><strong>Escrituras por franja:</strong> un lock por tabla. Cuando la ocupación (incluidas lápidas y
+ * entradas vencidas) supera el 75%, la tabla se reconstruye en un buffer nuevo sin ellas y se publica
+ * con una escritura volátil; los lectores que todavía recorren la vieja la ven intacta.</li>
+ * </ul>
+ * Un buffer reemplazado se libera cuando el GC recolecta su {@code ByteBuffer}; no se libera a mano
+ * porque algún lector podría seguir usándolo.
+ * </p>
+ */
+final class OffHeapRevocationSet {
+
+    static final int STRIPES = 64;
+
+    private static final int SLOT_BYTES = 24;
+    private static final int MIN_CAPACITY = 16;
+    /** Máximo de casilleros por tabla: un {@code ByteBuffer} se indexa con int. */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE / SLOT_BYTES;
+    private static final long EMPTY = 0L;
+    private static final long TOMBSTONE = -1L;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * @param expectedEntries entradas para las que se dimensionan las tablas al crearlas (crecen solas).
+     */
+    OffHeapRevocationSet(int expectedEntries) {
+        int perStripe = (int) Math.min(MAX_CAPACITY, Math.max(MIN_CAPACITY, 2L * expectedEntries / STRIPES));
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    // =================================================================================
+    // LECTURA (sin lock)
+    // =================================================================================
+
+    /**
+     * @return {@code true} si la clave está y su expiración es posterior a {@code nowMillis}.
+     */
+    boolean contains(long hi, long lo, long nowMillis) {
+        long hash = hash(hi, lo);
+        Table table = stripes[stripeOf(hash)].table;
+        int capacity = table.capacity;
+        ByteBuffer buffer = table.buffer;
+        for (int slot = slotOf(hash, capacity), probes = 0; probes < capacity; probes++) {
+            int offset = slot * SLOT_BYTES;
+            long expiresAt = (long) LONGS.getAcquire(buffer, offset + 16);
+            if (expiresAt == EMPTY) {
+                return false;
+            }
+            if (expiresAt != TOMBSTONE
+                    && (long) LONGS.get(buffer, offset) == hi
+                    && (long) LONGS.get(buffer, offset + 8) == lo) {
+                return expiresAt > nowMillis;
+            }
+            if (++slot == capacity) {
+                slot = 0;
+            }
+        }
+        return false;
+    }
+
+    // =================================================================================
+    // ESCRITURA (lock por franja)
+    // =================================================================================
+
+    /**
+     * Agrega (o renueva, si había vencido) una clave.
+     *
+     * @return {@code false} si la clave ya estaba vigente (no se modifica).
+     */
+    boolean add(long hi, long lo, long expiresAtMillis) {
+        if (expiresAtMillis == EMPTY || expiresAtMillis == TOMBSTONE) {
+            throw new IllegalArgumentException("Reserved expiration: " + expiresAtMillis);
+        }
+        long hash = hash(hi, lo);
+        Stripe stripe = stripes[stripeOf(hash)];
+        synchronized (stripe) {
+            long now = System.currentTimeMillis();
+            int found = stripe.find(hash, hi, lo);
+            if (found >= 0) {
+                Table table = stripe.table;
+                long current = (long) LONGS.get(table.buffer, found * SLOT_BYTES + 16);
+                if (current > now) {
+                    return false;
+                }
+                LONGS.setRelease(table.buffer, found * SLOT_BYTES + 16, expiresAtMillis); // Misma clave: solo cambia la expiración
+                return true;
+            }
+            if ((long) (stripe.used + 1) * 4 > (long) stripe.table.capacity * 3) {
+                stripe.rebuild(now, stripe.live + 1);
+            }
+            stripe.insert(hash, hi, lo, expiresAtMillis);
+            return true;
+        }
+    }
+
+    /**
+     * @return {@code true} si la clave estaba.
+     */
+    boolean remove(long hi, long lo) {
+        long hash = hash(hi, lo);
+        Stripe stripe = stripes[stripeOf(hash)];
+        synchronized (stripe) {
+            int found = stripe.find(hash, hi, lo);
+            if (found < 0) {
+                return false;
+            }
+            LONGS.setRelease(stripe.table.buffer, found * SLOT_BYTES + 16, TOMBSTONE);
+            stripe.live--;
+            return true;
+        }
+    }
+
+    /**
+     * Reconstruye las tablas en las que al menos un cuarto de lo ocupado está vencido o borrado.
+     * Las consultas ya ignoran lo vencido; esto solo devuelve el espacio.
+     *
+     * @return entradas vencidas descartadas.
+     */
+    int purgeExpired(long nowMillis) {
+        int purged = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                int expired = stripe.countExpired(nowMillis);
+                int dead = expired + (stripe.used - stripe.live);
+                if (dead > 0 && dead * 4 >= stripe.used) {
+                    stripe.rebuild(nowMillis, stripe.live - expired);
+                    purged += expired;
+                }
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * Recorre las entradas vigentes. Cada tabla se lee bajo su lock (una a la vez).
+     */
+    void forEach(long nowMillis, EntryConsumer consumer) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Table table = stripe.table;
+                for (int slot = 0; slot < table.capacity; slot++) {
+                    int offset = slot * SLOT_BYTES;
+                    long expiresAt = (long) LONGS.get(table.buffer, offset + 16);
+                    if (expiresAt > nowMillis) {
+                        consumer.accept((long) LONGS.get(table.buffer, offset), (long) LONGS.get(table.buffer, offset + 8), expiresAt);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Entradas agregadas y no borradas (incluye las vencidas que aún no se purgaron). */
+    int size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.live;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, size);
+    }
+
+    /** Memoria directa ocupada por las tablas publicadas. */
+    long offHeapBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            bytes += (long) stripe.table.capacity * SLOT_BYTES;
+        }
+        return bytes;
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long hi, long lo, long expiresAtMillis);
+    }
+
+    // =================================================================================
+    // INTERNOS
+    // =================================================================================
+
+    private static long hash(long hi, long lo) {
+        long h = hi * 0x9E3779B97F4A7C15L + lo;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int stripeOf(long hash) {
+        return (int) hash & (STRIPES - 1);
+    }
+
+    /** Reducción multiplicativa de los 32 bits altos a [0, capacity): no exige potencias de 2. */
+    private static int slotOf(long hash, int capacity) {
+        return (int) (((hash >>> 32) * capacity) >>> 32);
+    }
+
+    /**
+     * Tabla inmutable en tamaño; se reemplaza entera al crecer o purgar.
+     */
+    private static final class Table {
+
+        private final ByteBuffer buffer;
+        private final int capacity;
+
+        private Table(int capacity) {
+            this.capacity = capacity;
+            this.buffer = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder()); // Llega en cero (= vacía)
+        }
+    }
+
+    /**
+     * Una franja: su tabla publicada y los contadores que solo se tocan bajo su lock.
+     */
+    private static final class Stripe {
+
+        private volatile Table table;
+        /** Casilleros con clave (vigentes, vencidos o lápidas). */
+        private int used;
+        /** Claves agregadas y no borradas. Volátil solo para {@link #size()}. */
+        private volatile int live;
+
+        private Stripe(int capacity) {
+            this.table = new Table(capacity);
+        }
+
+        /**
+         * @return el casillero con la clave (vigente o vencida, no lápida), o -1.
+         */
+        private int find(long hash, long hi, long lo) {
+            Table current = table;
+            ByteBuffer buffer = current.buffer;
+            for (int slot = slotOf(hash, current.capacity), probes = 0; probes < current.capacity; probes++) {
+                int offset = slot * SLOT_BYTES;
+                long expiresAt = (long) LONGS.get(buffer, offset + 16);
+                if (expiresAt == EMPTY) {
+                    return -1;
+                }
+                if (expiresAt != TOMBSTONE && (long) LONGS.get(buffer, offset) == hi && (long) LONGS.get(buffer, offset + 8) == lo) {
+                    return slot;
+                }
+                if (++slot == current.capacity) {
+                    slot = 0;
+                }
+            }
+            return -1;
+        }
+
+        /** Inserta en el primer casillero vacío. Requiere espacio (ver el chequeo de ocupación en {@code add}). */
+        private void insert(long hash, long hi, long lo, long expiresAt) {
+            Table current = table;
+            int slot = slotOf(hash, current.capacity);
+            while ((long) LONGS.get(current.buffer, slot * SLOT_BYTES + 16) != EMPTY) {
+                if (++slot == current.capacity) {
+                    slot = 0;
+                }
+            }
+            write(current.buffer, slot, hi, lo, expiresAt);
+            used++;
+            live++;
+        }
+
+        private int countExpired(long nowMillis) {
+            Table current = table;
+            int expired = 0;
+            for (int slot = 0; slot < current.capacity; slot++) {
+                long expiresAt = (long) LONGS.get(current.buffer, slot * SLOT_BYTES + 16);
+                if (expiresAt != EMPTY && expiresAt != TOMBSTONE && expiresAt <= nowMillis) {
+                    expired++;
+                }
+            }
+            return expired;
+        }
+
+        /**
+         * Copia lo vigente a una tabla nueva al 50% de ocupación para {@code expectedLive} y la publica.
+         */
+        private void rebuild(long nowMillis, int expectedLive) {
+            Table current = table;
+            int capacity = (int) Math.min(MAX_CAPACITY, Math.max(MIN_CAPACITY, 2L * Math.max(expectedLive, 1)));
+            if (capacity == MAX_CAPACITY && expectedLive * 4L > (long) MAX_CAPACITY * 3) {
+                throw new IllegalStateException("Off-heap revocation stripe is full");
+            }
+            Table next = new Table(capacity);
+            int copied = 0;
+            for (int slot = 0; slot < current.capacity; slot++) {
+                int offset = slot * SLOT_BYTES;
+                long expiresAt = (long) LONGS.get(current.buffer, offset + 16);
+                if (expiresAt == EMPTY || expiresAt == TOMBSTONE || expiresAt <= nowMillis) {
+                    continue;
+                }
+                long hi = (long) LONGS.get(current.buffer, offset);
+                long lo = (long) LONGS.get(current.buffer, offset + 8);
+                int target = slotOf(hash(hi, lo), capacity);
+                while ((long) LONGS.get(next.buffer, target * SLOT_BYTES + 16) != EMPTY) {
+                    if (++target == capacity) {
+                        target = 0;
+                    }
+                }
+                write(next.buffer, target, hi, lo, expiresAt);
+                copied++;
+            }
+            used = copied;
+            live = copied;
+            table = next; // Publicación: escritura volátil después de llenar la tabla
+        }
+
+        private static void write(ByteBuffer buffer, int slot, long hi, long lo, long expiresAt) {
+            int offset = slot * SLOT_BYTES;
+            LONGS.set(buffer, offset, hi);
+            LONGS.set(buffer, offset + 8, lo);
+            LONGS.setRelease(buffer, offset + 16, expiresAt); // Último: publica la clave a los lectores
+        }
+    }
+}
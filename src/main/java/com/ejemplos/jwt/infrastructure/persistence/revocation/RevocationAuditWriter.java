@@ -0,0 +1,97 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import com.ejemplos.jwt.domain.model.RevokedToken;
+import com.ejemplos.jwt.infrastructure.metrics.MetricsSource;
+import com.ejemplos.jwt.infrastructure.persistence.mapper.RevokedTokenMapper;
+import com.ejemplos.jwt.infrastructure.persistence.repository.SpringDataRevokedTokenAuditRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Escritor asíncrono de la auditoría de revocaciones (tabla fría).
+ * <p>
+ * El logout no debería esperar un INSERT que nadie lee en el camino caliente: la fila de
+ * auditoría se encola y la escribe un único hilo en segundo plano.
+ * </p>
+ * <p>
+ * Si la cola se llena (BD lenta), la escritura se hace en el hilo que revoca: se pierde
+ * latencia antes que registros de auditoría. Un error al insertar se registra y se descarta;
+ * la revocación en sí ya está en la tabla caliente.
+ * </p>
+ */
+@Component
+@Slf4j
+public class RevocationAuditWriter implements MetricsSource {
+
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    private final SpringDataRevokedTokenAuditRepository springDataRevokedTokenAuditRepository;
+    private final RevokedTokenMapper revokedTokenMapper;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public RevocationAuditWriter(SpringDataRevokedTokenAuditRepository springDataRevokedTokenAuditRepository,
+                                 RevokedTokenMapper revokedTokenMapper) {
+        this.springDataRevokedTokenAuditRepository = springDataRevokedTokenAuditRepository;
+        this.revokedTokenMapper = revokedTokenMapper;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "revocation-audit-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Encola la fila de auditoría de una revocación ya commiteada.
+     */
+    public void write(RevokedToken revokedToken) {
+        executor.execute(() -> insert(revokedToken));
+    }
+
+    private void insert(RevokedToken revokedToken) {
+        try {
+            springDataRevokedTokenAuditRepository.save(revokedTokenMapper.toAuditEntity(revokedToken));
+            written.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("Revocation audit for {} could not be written: {}", revokedToken.getJti(), e.getMessage());
+        }
+    }
+
+    /**
+     * Al apagar, se vacía la cola antes de cerrar el pool de conexiones.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Revocation audit writer stopped with {} pending rows", executor.getQueue().size());
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "revocation-audit-writer";
+    }
+
+    @Override
+    public Map<String, Long> metrics() {
+        return Map.of(
+                "written", written.sum(),
+                "failed", failed.sum(),
+                "queued", (long) executor.getQueue().size()
+        );
+    }
+}
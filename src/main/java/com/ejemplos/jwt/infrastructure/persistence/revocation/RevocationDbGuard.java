@@ -0,0 +1,196 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import com.ejemplos.jwt.domain.exception.personalized.RevocationCheckUnavailableException;
+import com.ejemplos.jwt.infrastructure.metrics.MetricsSource;
+import com.ejemplos.jwt.infrastructure.security.jwt.JwtProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Plazo máximo y circuit breaker para las consultas de revocación que van a MySQL.
+ * <p>
+ * <strong>Problema:</strong> si MySQL se cuelga, cada request autenticado espera en {@code isRevoked}
+ * hasta el {@code connection-timeout} de Hikari (60 s) y los hilos de Tomcat se agotan.
+ * </p>
+ * <p>
+ * <strong>Solución:</strong>
+ * <ul>
+ * <li><strong>Plazo por consulta</strong> ({@code jwt.revocation-db-timeout-ms}): la consulta corre en un pool
+ * propio y acotado; el hilo del request espera como mucho el plazo. Si el pool está lleno, ni se encola.</li>
+ * <li><strong>Circuit breaker:</strong> tras {@code jwt.revocation-breaker-failures} fallos seguidos, durante
+ * {@code jwt.revocation-breaker-open-ms} nadie consulta la BD. Después pasa una sola consulta de prueba:
+ * si responde, el circuito se cierra; si no, vuelve a abrirse.</li>
+ * <li><strong>Política</strong> ({@link RevocationFallback}): qué se responde cuando la BD no contestó.</li>
+ * </ul>
+ * </p>
+ */
+@Component
+@Slf4j
+public class RevocationDbGuard implements MetricsSource {
+
+    private static final int THREADS = 4;
+    private static final int QUEUE_CAPACITY = 64;
+
+    private final RevocationFallback fallback;
+    private final long timeoutMs;
+    private final int failureThreshold;
+    private final long openMs;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    /** 0 = circuito cerrado; si no, instante (ms) hasta el que queda abierto. */
+    private volatile long openUntil;
+    /** Circuito semiabierto: la consulta de prueba está en curso. */
+    private final AtomicBoolean probing = new AtomicBoolean();
+
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder failOpen = new LongAdder();
+    private final LongAdder failClosed = new LongAdder();
+
+    public RevocationDbGuard(JwtProperties jwtProperties) {
+        this.fallback = jwtProperties.getRevocationFallback();
+        this.timeoutMs = jwtProperties.getRevocationDbTimeoutMs();
+        this.failureThreshold = jwtProperties.getRevocationBreakerFailures();
+        this.openMs = jwtProperties.getRevocationBreakerOpenMs();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(THREADS, THREADS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "revocation-db-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Ejecuta una consulta de revocación con plazo.
+     *
+     * @param query     la consulta a MySQL.
+     * @param lastKnown lo que el nodo sabe en memoria; se usa si la BD no responde y la política es {@code FAIL_OPEN}.
+     * @throws RevocationCheckUnavailableException si la BD no respondió y la política es {@code FAIL_CLOSED}.
+     */
+    public boolean check(Supplier<Boolean> query, BooleanSupplier lastKnown) {
+        if (!allowRequest()) {
+            shortCircuited.increment();
+            return fallback(lastKnown, "circuit open");
+        }
+
+        Future<Boolean> result;
+        try {
+            result = executor.submit(query::get);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            onFailure();
+            return fallback(lastKnown, "too many queries in flight");
+        }
+
+        try {
+            boolean answer = result.get(timeoutMs, TimeUnit.MILLISECONDS);
+            onSuccess();
+            return answer;
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            timeouts.increment();
+            onFailure();
+            return fallback(lastKnown, "timed out after " + timeoutMs + " ms");
+        } catch (ExecutionException e) {
+            errors.increment();
+            onFailure();
+            return fallback(lastKnown, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            probing.set(false);
+            Thread.currentThread().interrupt();
+            return fallback(lastKnown, "interrupted");
+        }
+    }
+
+    private boolean fallback(BooleanSupplier lastKnown, String reason) {
+        if (fallback == RevocationFallback.FAIL_OPEN) {
+            failOpen.increment();
+            log.debug("Revocation check unavailable ({}), answering from memory", reason);
+            return lastKnown.getAsBoolean();
+        }
+        failClosed.increment();
+        throw new RevocationCheckUnavailableException("Revocation check unavailable: " + reason);
+    }
+
+    // =================================================================================
+    // CIRCUIT BREAKER
+    // =================================================================================
+
+    private boolean allowRequest() {
+        long until = openUntil;
+        if (until == 0) {
+            return true;
+        }
+        if (System.currentTimeMillis() < until) {
+            return false;
+        }
+        return probing.compareAndSet(false, true); // Semiabierto: una sola consulta de prueba
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (openUntil != 0) {
+            openUntil = 0;
+            log.info("Revocation database responded again, circuit closed");
+        }
+        probing.set(false);
+    }
+
+    private void onFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            if (openUntil == 0) {
+                opened.increment();
+                log.warn("Revocation database failed {} times in a row, circuit open for {} ms", failureThreshold, openMs);
+            }
+            openUntil = System.currentTimeMillis() + openMs;
+        }
+        probing.set(false);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String metricsName() {
+        return "revocation-db-guard";
+    }
+
+    @Override
+    public Map<String, Long> metrics() {
+        return Map.of(
+                "open", openUntil != 0 ? 1L : 0L,
+                "opened", opened.sum(),
+                "timeouts", timeouts.sum(),
+                "errors", errors.sum(),
+                "rejected", rejected.sum(),
+                "short-circuited", shortCircuited.sum(),
+                "fail-open", failOpen.sum(),
+                "fail-closed", failClosed.sum()
+        );
+    }
+}
@@ -0,0 +1,24 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+/**
+ * Momento en que una revocación queda durable en MySQL ({@code jwt.revocation-durability}).
+ * <p>
+ * En ambos modos el índice en memoria y el resto del cluster se enteran al confirmarse la transacción
+ * del request; lo que cambia es cuándo la fila llega al disco de la BD.
+ * </p>
+ */
+public enum RevocationDurability {
+
+    /**
+     * La fila se inserta dentro de la transacción del request: si el logout respondió OK, la revocación
+     * ya pasó por el commit (y el fsync del redo log) de MySQL.
+     */
+    SYNC,
+
+    /**
+     * La fila se encola y se escribe en lotes JDBC ({@link RevocationWriteBuffer}): un commit por lote
+     * en lugar de uno por logout. Si todos los nodos caen a la vez se pueden perder las revocaciones
+     * de la última ventana de flush; mientras quede un nodo vivo, siguen en su índice y en su snapshot.
+     */
+    WRITE_BEHIND
+}
@@ -0,0 +1,23 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+/**
+ * Qué responder cuando la BD no contesta a tiempo una consulta de revocación ({@code jwt.revocation-fallback}).
+ * <p>
+ * Solo aplica mientras el índice en memoria (o el registro de cortes) no está cargado: una vez cargado,
+ * el camino caliente no consulta MySQL.
+ * </p>
+ */
+public enum RevocationFallback {
+
+    /**
+     * El token no se acepta: el request recibe 503 y el cliente puede reintentar con el mismo token.
+     * Nadie usa un token revocado, a costa de disponibilidad.
+     */
+    FAIL_CLOSED,
+
+    /**
+     * Se responde con lo que el nodo ya sabe en memoria (revocaciones y cortes recibidos por el fanout
+     * antes de terminar de cargar). Un token revocado que el nodo todavía no conoce pasa como válido.
+     */
+    FAIL_OPEN
+}
@@ -0,0 +1,439 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import com.ejemplos.jwt.infrastructure.metrics.MetricsSource;
+import com.ejemplos.jwt.infrastructure.security.jwt.JwtProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Índice en memoria de la Lista Negra, para sacar a MySQL del camino caliente de autenticación.
+ * <p>
+ * <strong>Problema:</strong> cada request autenticado (y cada refresh) consultaba {@code existsByJti}
+ * en la BD, aunque casi todas las respuestas son "no está revocado".
+ * </p>
+ * <p>
+ * <strong>Niveles:</strong>
+ * <ol>
+ * <li><strong>Filtro de Bloom:</strong> unos pocos bits por JTI. Un "no" es definitivo y resuelve
+ * el caso común sin tocar el conjunto exacto ni la BD.</li>
+ * <li><strong>Conjunto exacto:</strong> confirma (o descarta) los "puede que sí" del filtro. Vive fuera del
+ * heap ({@link OffHeapRevocationSet}) y guarda la expiración de cada JTI: lo vencido deja de contar
+ * enseguida y su espacio se recupera en la purga periódica; el filtro lo olvida en la próxima reconstrucción.</li>
+ * <li><strong>MySQL:</strong> sigue siendo la fuente durable. El índice se reconstruye desde ella al
+ * arrancar y periódicamente (lo que además descarta las revocaciones ya expiradas).</li>
+ * </ol>
+ * Mientras el índice no se haya cargado, {@link #isReady()} es {@code false} y el adaptador
+ * consulta la BD como antes.
+ * </p>
+ * <p>
+ * <strong>Arranque en caliente:</strong> si se configura {@code jwt.revocation-snapshot-file}, el índice
+ * se vuelca periódicamente a un archivo local ({@link RevocationSnapshot}). Al reiniciar, el nodo mapea
+ * ese archivo y solo pide a MySQL lo revocado desde su marca de agua, en lugar de leer toda la tabla.
+ * </p>
+ * <p>
+ * Los JTI se guardan en su forma binaria ({@link JtiKey#of}), la misma clave de la tabla.
+ * La tabla se lee con JDBC en páginas por clave primaria y cada fila va directo al índice: con decenas de
+ * millones de revocaciones, nunca hay en el heap más que una página.
+ * </p>
+ * <p>
+ * <strong>Varios nodos:</strong> cada revocación se difunde a todos los nodos por un exchange fanout
+ * de RabbitMQ ({@code RevocationListener}). Si un evento se pierde, la reconstrucción periódica
+ * acota el tiempo que un nodo puede tardar en enterarse.
+ * </p>
+ */
+@Component
+@Slf4j
+public class RevocationIndex implements MetricsSource {
+
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    /**
+     * Margen hacia atrás de la marca de agua del snapshot: una revocación hecha antes de la lectura
+     * de la BD pudo no estar commiteada todavía en ese momento (y los relojes de los nodos difieren).
+     */
+    private static final Duration SNAPSHOT_SAFETY_MARGIN = Duration.ofMinutes(5);
+
+    /** Filas por página al leer la tabla. */
+    static final int PAGE_SIZE = 10_000;
+
+    /** Menor clave posible: leer desde aquí es leer la tabla entera. */
+    private static final UUID FIRST_KEY = new UUID(0L, 0L);
+
+    private static final String COUNT_SQL =
+            "SELECT COUNT(*) FROM revoked_tokens WHERE jti >= ? AND expires_at > ?";
+    private static final String FIRST_PAGE_SQL =
+            "SELECT jti, expires_at FROM revoked_tokens WHERE jti >= ? AND expires_at > ? ORDER BY jti LIMIT ?";
+    private static final String NEXT_PAGE_SQL =
+            "SELECT jti, expires_at FROM revoked_tokens WHERE jti > ? AND expires_at > ? ORDER BY jti LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int expectedEntries;
+    private final Duration accessTokenLifetime;
+    private final Path snapshotFile;
+    private final Instant ulidJtiSince;
+
+    /** {@code null} hasta la primera carga; se reemplaza entera en cada reconstrucción. */
+    private volatile Generation current;
+
+    /** Revocaciones recibidas antes de la primera carga; se incorporan al cargar. */
+    private final Map<UUID, Instant> pending = new HashMap<>();
+
+    private final LongAdder bloomNegatives = new LongAdder();
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    public RevocationIndex(JdbcTemplate jdbcTemplate, JwtProperties jwtProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedEntries = jwtProperties.getRevocationIndexExpectedEntries();
+        this.accessTokenLifetime = Duration.ofSeconds(jwtProperties.getAccessTokenExpirationSeconds());
+        this.snapshotFile = StringUtils.hasText(jwtProperties.getRevocationSnapshotFile())
+                ? Path.of(jwtProperties.getRevocationSnapshotFile())
+                : null;
+        this.ulidJtiSince = StringUtils.hasText(jwtProperties.getUlidJtiSince())
+                ? Instant.parse(jwtProperties.getUlidJtiSince())
+                : null;
+    }
+
+    // =================================================================================
+    // CONSULTAS
+    // =================================================================================
+
+    /** Indica si el índice ya se cargó desde la BD y puede responder solo. */
+    public boolean isReady() {
+        return current != null;
+    }
+
+    /**
+     * Consulta en memoria. Solo es válida si {@link #isReady()}.
+     *
+     * @return true si el JTI está en la Lista Negra.
+     */
+    public boolean contains(String jti) {
+        Generation generation = current;
+        UUID key = JtiKey.of(jti);
+        long hi = key.getMostSignificantBits();
+        long lo = key.getLeastSignificantBits();
+        if (!generation.bloom.mightContain(hi, lo)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        if (generation.exact.contains(hi, lo, System.currentTimeMillis())) {
+            confirmed.increment();
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Lo que se sabe de un JTI sin la BD: el índice si ya cargó, o las revocaciones recibidas antes
+     * de la primera carga. Es la respuesta de la política {@code FAIL_OPEN} cuando MySQL no contesta.
+     */
+    public synchronized boolean containsKnown(String jti) {
+        if (current != null) {
+            return contains(jti);
+        }
+        Instant expiresAt = pending.get(JtiKey.of(jti));
+        return expiresAt != null && expiresAt.isAfter(Instant.now());
+    }
+
+    // =================================================================================
+    // ESCRITURA Y RECONSTRUCCIÓN
+    // =================================================================================
+
+    /**
+     * Registra una revocación ya persistida (local o recibida de otro nodo).
+     * <p>
+     * Sincronizado con el cambio de generación de {@link #rebuild()}, para que ninguna
+     * revocación se pierda entre la lectura de la BD y el reemplazo del índice.
+     * </p>
+     *
+     * @return {@code false} si el JTI ya estaba registrado (evento repetido).
+     */
+    public synchronized boolean add(String jti, Instant expiresAt) {
+        UUID key = JtiKey.of(jti);
+        boolean added = current != null
+                ? current.add(key.getMostSignificantBits(), key.getLeastSignificantBits(), expiresAt.toEpochMilli())
+                : pending.putIfAbsent(key, expiresAt) == null;
+        if (!added) {
+            duplicates.increment();
+        }
+        return added;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void loadOnStartup() {
+        try {
+            if (snapshotFile != null && restoreFromSnapshot()) {
+                return;
+            }
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Revocation index could not be loaded, falling back to the database: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation-index-rebuild-ms:3600000}",
+            initialDelayString = "${jwt.revocation-index-rebuild-ms:3600000}")
+    void scheduledRebuild() {
+        if (!isReady()) {
+            loadOnStartup();
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Revocation index rebuild failed, keeping previous index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Vuelve a cargar las revocaciones vigentes desde la BD y reemplaza el índice.
+     * <p>
+     * El filtro se redimensiona con holgura (el doble de lo cargado) para que las
+     * revocaciones nuevas no disparen la tasa de falsos positivos antes de la próxima reconstrucción.
+     * Como no puede crecer, primero se cuentan las filas y después se recorren.
+     * </p>
+     */
+    public void rebuild() {
+        Instant now = Instant.now();
+        int active = count(FIRST_KEY, now);
+
+        Generation next = new Generation(Math.max(expectedEntries, active * 2), active, now);
+        load(FIRST_KEY, now, next);
+        install(next, now);
+        log.info("Revocation index loaded: {} active revocations", next.exact.size());
+    }
+
+    /**
+     * Arranque en caliente: snapshot local + lo revocado en MySQL desde su marca de agua.
+     * <p>
+     * La tabla caliente no guarda la fecha de revocación, pero no hace falta: solo se revocan
+     * Access Tokens vigentes, así que lo revocado después de la marca de agua es de tokens emitidos
+     * como mucho una vida de Access Token antes. Con JTI ULID eso es un rango de la clave primaria.
+     * </p>
+     * <p>
+     * Ese rango no ve las claves que no son ULID (UUID heredados, hash SHA-256): si la ventana a releer
+     * empieza antes de {@code jwt.ulid-jti-since} (o no se configuró), el snapshot se descarta y se lee la tabla entera.
+     * </p>
+     *
+     * @return {@code false} si no hay snapshot utilizable (hay que reconstruir desde cero).
+     */
+    boolean restoreFromSnapshot() {
+        Instant now = Instant.now();
+        try {
+            RevocationSnapshot.Mapped snapshot = RevocationSnapshot.open(snapshotFile);
+            Instant issuedAfter = snapshot.highWaterMark().minus(accessTokenLifetime);
+            if (ulidJtiSince == null || issuedAfter.isBefore(ulidJtiSince)) {
+                log.info("Revocation snapshot covers tokens issued since {}, before all JTIs were ULIDs; loading from the database",
+                        issuedAfter);
+                return false;
+            }
+            UUID lowerBound = JtiKey.lowerBound(issuedAfter);
+
+            int loaded = snapshot.size() + count(lowerBound, now);
+            Generation next = new Generation(Math.max(expectedEntries, loaded * 2), loaded, now);
+            snapshot.forEachActive(now, next::add);
+            int replayed = load(lowerBound, now, next);
+            install(next, now);
+            log.info("Revocation index restored from snapshot: {} records in file, {} replayed since {}",
+                    snapshot.size(), replayed, snapshot.highWaterMark());
+            return true;
+        } catch (NoSuchFileException e) {
+            log.info("No revocation snapshot at {}, loading from the database", snapshotFile);
+            return false;
+        } catch (IOException e) {
+            log.warn("Revocation snapshot at {} is unusable, loading from the database: {}", snapshotFile, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Revocaciones vigentes con clave {@code >= from}; dimensiona el filtro antes de la lectura.
+     */
+    private int count(UUID from, Instant now) {
+        Long count = jdbcTemplate.queryForObject(COUNT_SQL, Long.class, JtiKey.toBytes(from), utc(now));
+        return count == null ? 0 : (int) Math.min(count, Integer.MAX_VALUE / 2);
+    }
+
+    /**
+     * Agrega a {@code next} las revocaciones vigentes con clave {@code >= from}, página por página
+     * (keyset sobre la clave primaria: cada página sigue donde terminó la anterior).
+     *
+     * @return filas leídas.
+     */
+    private int load(UUID from, Instant now, Generation next) {
+        LocalDateTime nowUtc = utc(now);
+        Page page = new Page(next);
+        String sql = FIRST_PAGE_SQL;
+        byte[] after = JtiKey.toBytes(from);
+        int total = 0;
+        do {
+            page.rows = 0;
+            jdbcTemplate.query(sql, page, after, nowUtc, PAGE_SIZE);
+            total += page.rows;
+            sql = NEXT_PAGE_SQL;
+            after = page.lastKey;
+        } while (page.rows == PAGE_SIZE);
+        return total;
+    }
+
+    /** Misma representación que Hibernate para Instant en MySQL: DATETIME en UTC. */
+    private static LocalDateTime utc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    /**
+     * Vuelca el índice al archivo local (periódicamente y al apagar el nodo).
+     * La marca de agua es la última lectura completa de la BD: lo revocado después se vuelve a pedir al arrancar.
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${jwt.revocation-snapshot-ms:60000}",
+            initialDelayString = "${jwt.revocation-snapshot-ms:60000}")
+    void writeSnapshot() {
+        Generation generation = current;
+        if (snapshotFile == null || generation == null) {
+            return;
+        }
+        try {
+            Instant highWaterMark = generation.loadedAt.minus(SNAPSHOT_SAFETY_MARGIN);
+            RevocationSnapshot.write(snapshotFile, highWaterMark, generation.exact);
+        } catch (IOException e) {
+            log.warn("Revocation snapshot could not be written to {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Reemplaza el índice por {@code next}, incorporando lo que se registró mientras se armaba.
+     */
+    private synchronized void install(Generation next, Instant now) {
+        // Las revocaciones registradas mientras se leía la BD (quizá aún sin commit en esa lectura)
+        if (current != null) {
+            current.exact.forEach(now.toEpochMilli(), next::add);
+        }
+        pending.forEach((key, expiresAt) -> {
+            if (expiresAt.isAfter(now)) {
+                next.add(key, expiresAt);
+            }
+        });
+        pending.clear();
+        this.current = next;
+    }
+
+    /**
+     * Recupera el espacio de lo vencido en el conjunto exacto. Las consultas ya lo ignoran, así que
+     * alcanza con hacerlo cada tanto: cada purga recorre todas las tablas.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    void evictExpired() {
+        Generation generation = current;
+        if (generation != null) {
+            generation.exact.purgeExpired(System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "revocation-index";
+    }
+
+    @Override
+    public Map<String, Long> metrics() {
+        Generation generation = current;
+        return Map.of(
+                "ready", generation == null ? 0L : 1L,
+                "size", generation == null ? 0L : generation.exact.size(),
+                "off-heap-bytes", generation == null ? 0L : generation.exact.offHeapBytes(),
+                "bloom-bits", generation == null ? 0L : generation.bloom.bitSize(),
+                "bloom-negatives", bloomNegatives.sum(),
+                "confirmed", confirmed.sum(),
+                "false-positives", falsePositives.sum(),
+                "duplicates", duplicates.sum()
+        );
+    }
+
+    /**
+     * Filtro + conjunto exacto (JTI → expiración).
+     * {@code loadedAt} es el instante de la lectura (completa) de la BD que originó esta generación.
+     */
+    private static final class Generation {
+
+        private final BloomFilter bloom;
+        private final OffHeapRevocationSet exact;
+
+        private final Instant loadedAt;
+
+        /**
+         * @param bloomEntries  dimensión del filtro (con holgura: no puede crecer).
+         * @param loadedEntries dimensión inicial del conjunto exacto (crece solo).
+         */
+        private Generation(int bloomEntries, int loadedEntries, Instant loadedAt) {
+            this.bloom = new BloomFilter(bloomEntries, FALSE_POSITIVE_PROBABILITY);
+            this.exact = new OffHeapRevocationSet(loadedEntries);
+            this.loadedAt = loadedAt;
+        }
+
+        private void add(UUID key, Instant expiresAt) {
+            add(key.getMostSignificantBits(), key.getLeastSignificantBits(), expiresAt.toEpochMilli());
+        }
+
+        /**
+         * @return {@code false} si el JTI ya estaba vigente.
+         */
+        private boolean add(long hi, long lo, long expiresAtMillis) {
+            // Primero el conjunto exacto: si el filtro ya dice "puede", el conjunto debe confirmarlo
+            if (!exact.add(hi, lo, expiresAtMillis)) {
+                return false;
+            }
+            bloom.put(hi, lo);
+            return true;
+        }
+    }
+
+    /**
+     * Pasa cada fila de una página directo a la generación, sin acumularlas.
+     */
+    private static final class Page implements RowCallbackHandler {
+
+        private final Generation target;
+        private int rows;
+        private byte[] lastKey;
+
+        private Page(Generation target) {
+            this.target = target;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            byte[] key = rs.getBytes(1);
+            ByteBuffer jti = ByteBuffer.wrap(key);
+            Instant expiresAt = rs.getObject(2, LocalDateTime.class).toInstant(ZoneOffset.UTC);
+            target.add(jti.getLong(), jti.getLong(), expiresAt.toEpochMilli());
+            lastKey = key;
+            rows++;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Archivo local con las revocaciones vigentes, para arrancar sin leer toda la tabla.
+ * <p>
+ * <strong>Formato</strong> (big-endian, ancho fijo, ordenado por JTI binario):
+ * <pre>
+ * header (32 bytes): magic "JWTREV02" | high-water mark (ms) | cantidad | CRC32 del cuerpo
+ * registro (24 bytes): JTI (16 bytes, la misma clave binaria de la tabla) | expiración (ms)
+ * </pre>
+ * Los registros se escriben en el orden del conjunto fuera del heap, por tramos a través de un buffer directo
+ * chico; después el archivo se mapea y se ordena en el lugar. Con decenas de millones de revocaciones el
+ * heap no crece: los registros solo existen en el conjunto y en el archivo (page cache).
+ * </p>
+ */
+final class RevocationSnapshot {
+
+    private static final byte[] MAGIC = "JWTREV02".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 24;
+
+    /** Registros por tramo de escritura (96 KB). */
+    private static final int CHUNK_RECORDS = 4_096;
+
+    private RevocationSnapshot() {
+    }
+
+    /**
+     * Escribe el snapshot en un temporal y lo mueve atómicamente sobre {@code file}.
+     *
+     * @param revocations conjunto exacto del índice; se vuelcan sus entradas vigentes.
+     */
+    static void write(Path file, Instant highWaterMark, OffHeapRevocationSet revocations) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // 1. Lugar del header y los registros detrás, sin ordenar
+            ByteBuffer placeholder = ByteBuffer.allocate(HEADER_SIZE);
+            while (placeholder.hasRemaining()) {
+                channel.write(placeholder);
+            }
+            ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_RECORDS * RECORD_SIZE);
+            try {
+                revocations.forEach(System.currentTimeMillis(), (hi, lo, expiresAt) -> {
+                    if (!chunk.hasRemaining()) {
+                        drain(channel, chunk);
+                    }
+                    chunk.putLong(hi).putLong(lo).putLong(expiresAt);
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            drain(channel, chunk);
+
+            // 2. Orden, CRC y header sobre el archivo mapeado
+            long count = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+            if (count * RECORD_SIZE > Integer.MAX_VALUE) {
+                throw new IOException("Revocation snapshot too large: " + count + " records");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + count * RECORD_SIZE);
+            ByteBuffer body = mapped.slice(HEADER_SIZE, (int) (count * RECORD_SIZE));
+            sort(body, 0, (int) count - 1);
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+
+            mapped.put(0, MAGIC)
+                    .putLong(8, highWaterMark.toEpochMilli())
+                    .putLong(16, count)
+                    .putLong(24, crc.getValue());
+            mapped.force();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Escribe lo acumulado en {@code chunk} y lo deja listo para el próximo tramo. */
+    private static void drain(FileChannel channel, ByteBuffer chunk) {
+        chunk.flip();
+        try {
+            while (chunk.hasRemaining()) {
+                channel.write(chunk);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Mapea el archivo en memoria y valida header, tamaño, CRC y orden.
+     *
+     * @throws IOException si el archivo no existe, está truncado o corrupto.
+     */
+    static Mapped open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE) {
+            throw new IOException("Revocation snapshot truncated");
+        }
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(0, magic);
+        long highWaterMark = buffer.getLong(8);
+        long count = buffer.getLong(16);
+        long crc = buffer.getLong(24);
+        if (!Arrays.equals(magic, MAGIC) || count < 0 || buffer.capacity() != HEADER_SIZE + count * RECORD_SIZE) {
+            throw new IOException("Revocation snapshot has an invalid header");
+        }
+        ByteBuffer body = buffer.slice(HEADER_SIZE, (int) (count * RECORD_SIZE));
+        CRC32 actual = new CRC32();
+        actual.update(body.duplicate());
+        if (actual.getValue() != crc) {
+            throw new IOException("Revocation snapshot checksum mismatch");
+        }
+        return new Mapped(body, (int) count, Instant.ofEpochMilli(highWaterMark));
+    }
+
+    /**
+     * Snapshot mapeado y validado.
+     */
+    static final class Mapped {
+
+        private final ByteBuffer body;
+        private final int size;
+        private final Instant highWaterMark;
+
+        private Mapped(ByteBuffer body, int size, Instant highWaterMark) {
+            this.body = body;
+            this.size = size;
+            this.highWaterMark = highWaterMark;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /** Todo lo creado antes de este instante está en el archivo. */
+        Instant highWaterMark() {
+            return highWaterMark;
+        }
+
+        /**
+         * Recorre las revocaciones que expiran después de {@code now}.
+         *
+         * @throws IOException si los registros no están ordenados.
+         */
+        void forEachActive(Instant now, OffHeapRevocationSet.EntryConsumer action) throws IOException {
+            long nowMillis = now.toEpochMilli();
+            long previousHi = 0L;
+            long previousLo = 0L;
+            for (int i = 0; i < size; i++) {
+                int offset = i * RECORD_SIZE;
+                long hi = body.getLong(offset);
+                long lo = body.getLong(offset + 8);
+                long expiresAt = body.getLong(offset + 16);
+                if (compare(hi, lo, previousHi, previousLo) < 0) {
+                    throw new IOException("Revocation snapshot is not sorted");
+                }
+                previousHi = hi;
+                previousLo = lo;
+
+                if (expiresAt > nowMillis) {
+                    action.accept(hi, lo, expiresAt);
+                }
+            }
+        }
+    }
+
+    /** Orden de {@code BINARY(16)}: bytes sin signo. */
+    private static int compare(long hi, long lo, long otherHi, long otherLo) {
+        int high = Long.compareUnsigned(hi, otherHi);
+        return high != 0 ? high : Long.compareUnsigned(lo, otherLo);
+    }
+
+    /**
+     * Quicksort en el lugar de los registros [from, to] de {@code body}; recursión solo en la mitad menor.
+     * Las claves son únicas.
+     */
+    private static void sort(ByteBuffer body, int from, int to) {
+        while (from < to) {
+            int pivot = ((from + to) >>> 1) * RECORD_SIZE;
+            long pivotHi = body.getLong(pivot);
+            long pivotLo = body.getLong(pivot + 8);
+            int i = from;
+            int j = to;
+            while (i <= j) {
+                while (compare(body.getLong(i * RECORD_SIZE), body.getLong(i * RECORD_SIZE + 8), pivotHi, pivotLo) < 0) {
+                    i++;
+                }
+                while (compare(body.getLong(j * RECORD_SIZE), body.getLong(j * RECORD_SIZE + 8), pivotHi, pivotLo) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(body, i++, j--);
+                }
+            }
+            if (j - from < to - i) {
+                sort(body, from, j);
+                from = i;
+            } else {
+                sort(body, i, to);
+                to = j;
+            }
+        }
+    }
+
+    private static void swap(ByteBuffer body, int a, int b) {
+        for (int offset = 0; offset < RECORD_SIZE; offset += 8) {
+            long value = body.getLong(a * RECORD_SIZE + offset);
+            body.putLong(a * RECORD_SIZE + offset, body.getLong(b * RECORD_SIZE + offset));
+            body.putLong(b * RECORD_SIZE + offset, value);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import com.ejemplos.jwt.infrastructure.metrics.MetricsSource;
+import com.ejemplos.jwt.infrastructure.security.jwt.JwtProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buffer write-behind de la tabla caliente de revocaciones (modo {@link RevocationDurability#WRITE_BEHIND}).
+ * <p>
+ * <strong>Problema:</strong> en un logout masivo (deploy, cierre forzado de sesiones) cada request hace su
+ * propio INSERT y su propio commit; la BD pasa a estar limitada por los fsync del redo log, no por el trabajo.
+ * </p>
+ * <p>
+ * <strong>Funcionamiento:</strong>
+ * <ul>
+ * <li>Las revocaciones confirmadas se encolan; un único hilo las agrupa y las escribe con un
+ * {@code batchUpdate} de JDBC (una transacción por lote) cuando el lote se llena
+ * ({@code jwt.revocation-batch-size}) o cuando la más vieja lleva {@code jwt.revocation-flush-ms} esperando.</li>
+ * <li>{@code INSERT IGNORE}: reintentar un lote, o revocar dos veces el mismo JTI, no rompe nada.</li>
+ * <li>Si la cola se llena, la fila se inserta en el hilo que revoca (backpressure, igual que la auditoría).</li>
+ * <li>Un lote que falla se reintenta; tras {@link #MAX_ATTEMPTS} intentos se descarta con error en el log
+ * (la revocación sigue vigente en la memoria de todos los nodos hasta su expiración).</li>
+ * <li>Al apagar, se escribe todo lo pendiente antes de cerrar el pool de conexiones.</li>
+ * </ul>
+ * Para que el driver de MySQL envíe el lote en un solo INSERT multi-fila hace falta
+ * {@code rewriteBatchedStatements=true} (configurado en las propiedades de Hikari).
+ * </p>
+ */
+@Component
+@Slf4j
+public class RevocationWriteBuffer implements MetricsSource {
+
+    private static final String INSERT_SQL = "INSERT IGNORE INTO revoked_tokens (jti, expires_at) VALUES (?, ?)";
+    private static final int QUEUE_CAPACITY = 50_000;
+    private static final int MAX_ATTEMPTS = 3;
+
+    /** Marcador que despierta al hilo de escritura al apagar (se compara por identidad, nunca se escribe). */
+    private static final Row WAKE_UP = new Row(new UUID(0L, 0L), Instant.EPOCH);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushNanos;
+    private final BlockingQueue<Row> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread flusher;
+
+    private volatile boolean running = true;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public RevocationWriteBuffer(JdbcTemplate jdbcTemplate, JwtProperties jwtProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = jwtProperties.getRevocationDurability() == RevocationDurability.WRITE_BEHIND;
+        this.batchSize = Math.max(1, jwtProperties.getRevocationBatchSize());
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, jwtProperties.getRevocationFlushMs()));
+        if (enabled) {
+            flusher = new Thread(this::run, "revocation-write-buffer");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * @return {@code true} si las revocaciones deben pasar por este buffer en lugar de por JPA.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Encola la fila de una revocación ya commiteada (y ya agregada al índice).
+     */
+    public void enqueue(String jti, Instant expiresAt) {
+        Row row = new Row(JtiKey.of(jti), expiresAt);
+        if (running && queue.offer(row)) {
+            return;
+        }
+        // Cola llena (o apagando): se escribe aquí, sin esperar al lote
+        callerRuns.increment();
+        try {
+            insert(List.of(row));
+        } catch (DataAccessException e) {
+            failed.increment();
+            log.error("Revocation {} could not be written: {}", jti, e.getMessage());
+        }
+    }
+
+    // =================================================================================
+    // HILO DE ESCRITURA
+    // =================================================================================
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                List<Row> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Espera la primera fila y junta más hasta llenar el lote o agotar la ventana de flush.
+     */
+    private List<Row> nextBatch() throws InterruptedException {
+        List<Row> batch = new ArrayList<>(batchSize);
+        Row first = queue.poll(flushNanos, TimeUnit.NANOSECONDS);
+        if (first == null || first == WAKE_UP) {
+            return batch;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            batch.removeIf(row -> row == WAKE_UP);
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                break;
+            }
+            Row next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null || next == WAKE_UP) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void flush(List<Row> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insert(batch);
+                batches.increment();
+                return;
+            } catch (DataAccessException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    failed.add(batch.size());
+                    log.error("Dropping {} revocation rows after {} attempts: {}", batch.size(), attempt, e.getMessage());
+                    return;
+                }
+                log.warn("Revocation batch of {} rows failed (attempt {}): {}", batch.size(), attempt, e.getMessage());
+                TimeUnit.NANOSECONDS.sleep(flushNanos * attempt);
+            }
+        }
+    }
+
+    private void insert(List<Row> rows) {
+        Instant now = Instant.now();
+        List<Row> active = rows.stream().filter(row -> row.expiresAt().isAfter(now)).toList();
+        if (active.isEmpty()) {
+            return;
+        }
+        // Misma representación que Hibernate para Instant en MySQL: DATETIME en UTC
+        jdbcTemplate.batchUpdate(INSERT_SQL, active, active.size(), (ps, row) -> {
+            ps.setBytes(1, JtiKey.toBytes(row.jti()));
+            ps.setObject(2, LocalDateTime.ofInstant(row.expiresAt(), ZoneOffset.UTC));
+        });
+        written.add(active.size());
+    }
+
+    /**
+     * Al apagar, se vacía la cola antes de cerrar el pool de conexiones.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        if (flusher == null) {
+            return;
+        }
+        queue.offer(WAKE_UP); // No esperar la ventana de flush completa
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        if (flusher.isAlive()) {
+            log.warn("Revocation write buffer stopped with {} pending rows", queue.size());
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "revocation-write-buffer";
+    }
+
+    @Override
+    public Map<String, Long> metrics() {
+        return Map.of(
+                "queued", (long) queue.size(),
+                "written", written.sum(),
+                "batches", batches.sum(),
+                "caller-runs", callerRuns.sum(),
+                "failed", failed.sum()
+        );
+    }
+
+    private record Row(UUID jti, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,170 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import com.ejemplos.jwt.infrastructure.metrics.MetricsSource;
+import com.ejemplos.jwt.infrastructure.persistence.repository.SpringDataUserRepository;
+import com.ejemplos.jwt.infrastructure.persistence.repository.SpringDataUserRepository.UserCutoff;
+import com.ejemplos.jwt.infrastructure.security.jwt.JwtProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cortes de sesión en memoria: ID de usuario → "sus tokens emitidos antes de este instante son inválidos".
+ * <p>
+ * <strong>Problema:</strong> al cambiar el rol o la contraseña se revocaban los Refresh Tokens y, como mucho,
+ * el Access Token del request actual. Los demás Access Tokens del usuario (otros dispositivos) seguían
+ * válidos hasta expirar, y listarlos en la Lista Negra serían muchas filas.
+ * </p>
+ * <p>
+ * <strong>Funcionamiento:</strong>
+ * <ul>
+ * <li>La fuente durable es la columna {@code users.tokens_valid_after}. Solo se cargan los cortes que
+ * todavía pueden afectar a algún token (más recientes que la vida máxima de un token).</li>
+ * <li>Cada request cuesta una lectura del Map (y la mayoría de los usuarios ni siquiera está en él).</li>
+ * <li>Los cortes nuevos llegan por el fanout de revocaciones; el Map solo avanza (se queda con el más reciente),
+ * así que el orden de llegada de los eventos y de la recarga no importa.</li>
+ * <li>{@code jwt.tokens-valid-after} es el corte global de emergencia (ej: filtración de la llave de firma).</li>
+ * </ul>
+ * </p>
+ */
+@Component
+@Slf4j
+public class TokenCutoffRegistry implements MetricsSource {
+
+    private final SpringDataUserRepository springDataUserRepository;
+    private final Duration maxTokenLifetime;
+    private final long globalCutoffMillis;
+
+    /** ID de usuario → corte en milisegundos epoch. */
+    private final Map<Long, Long> cutoffs = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public TokenCutoffRegistry(SpringDataUserRepository springDataUserRepository, JwtProperties jwtProperties) {
+        this.springDataUserRepository = springDataUserRepository;
+        this.maxTokenLifetime = Duration.ofSeconds(Math.max(
+                jwtProperties.getAccessTokenExpirationSeconds(), jwtProperties.getRefreshTokenExpirationSeconds()));
+        this.globalCutoffMillis = StringUtils.hasText(jwtProperties.getTokensValidAfter())
+                ? Instant.parse(jwtProperties.getTokensValidAfter()).toEpochMilli()
+                : Long.MIN_VALUE;
+    }
+
+    // =================================================================================
+    // CONSULTAS
+    // =================================================================================
+
+    /** Indica si los cortes ya se cargaron desde la BD y el registro puede responder solo. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Corte global: no depende de la BD, vale desde el arranque. */
+    public boolean isGloballyCutOff(long issuedAtMillis) {
+        if (issuedAtMillis < globalCutoffMillis) {
+            rejected.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consulta en memoria. Solo es completa si {@link #isReady()}; antes responde con los cortes
+     * recibidos hasta el momento (lo que usa la política {@code FAIL_OPEN}).
+     */
+    public boolean isCutOff(Long userId, long issuedAtMillis) {
+        Long cutoff = cutoffs.get(userId);
+        if (cutoff != null && issuedAtMillis < cutoff) {
+            rejected.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code true} si {@code validAfter} es un corte que el registro todavía no conoce y que aún importa.
+     */
+    public boolean isNewer(Long userId, Instant validAfter) {
+        if (validAfter.plus(maxTokenLifetime).isBefore(Instant.now())) {
+            return false;
+        }
+        Long known = cutoffs.get(userId);
+        return known == null || known < validAfter.toEpochMilli();
+    }
+
+    /** Hasta cuándo un corte puede afectar a algún token. */
+    public Instant relevantUntil(Instant validAfter) {
+        return validAfter.plus(maxTokenLifetime);
+    }
+
+    // =================================================================================
+    // ESCRITURA Y RECARGA
+    // =================================================================================
+
+    /**
+     * Registra un corte ya persistido (local o recibido de otro nodo). Un corte más viejo que el conocido se ignora.
+     */
+    public void update(Long userId, Instant validAfter) {
+        cutoffs.merge(userId, validAfter.toEpochMilli(), Math::max);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void loadOnStartup() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.error("Token cutoffs could not be loaded, falling back to the database: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation-index-rebuild-ms:3600000}",
+            initialDelayString = "${jwt.revocation-index-rebuild-ms:3600000}")
+    void scheduledReload() {
+        loadOnStartup();
+    }
+
+    /**
+     * Vuelve a leer los cortes vigentes de la BD y los incorpora al Map.
+     */
+    public void reload() {
+        List<UserCutoff> active = springDataUserRepository.findByTokensValidAfterAfter(Instant.now().minus(maxTokenLifetime));
+        for (UserCutoff cutoff : active) {
+            update(cutoff.getId(), cutoff.getTokensValidAfter());
+        }
+        ready = true;
+        log.info("Token cutoffs loaded: {} users with active cutoffs", active.size());
+    }
+
+    /**
+     * Olvida los cortes que ya no pueden afectar a ningún token vigente.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    void evictExpired() {
+        long oldest = Instant.now().minus(maxTokenLifetime).toEpochMilli();
+        cutoffs.values().removeIf(cutoff -> cutoff < oldest);
+    }
+
+    @Override
+    public String metricsName() {
+        return "token-cutoffs";
+    }
+
+    @Override
+    public Map<String, Long> metrics() {
+        return Map.of(
+                "ready", ready ? 1L : 0L,
+                "users", (long) cutoffs.size(),
+                "rejected", rejected.sum()
+        );
+    }
+}
@@ -0,0 +1,44 @@
+package com.ejemplos.jwt.infrastructure.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Huella SHA-256 de un token crudo: clave de las cachés en memoria y columna de búsqueda de los Refresh Tokens.
+ * <p>
+ * Guardamos los 256 bits como cuatro {@code long} en lugar del String original:
+ * la clave ocupa siempre lo mismo (sin importar el largo del JWT), su {@code equals}
+ * es una comparación de 4 números y no retenemos el token en claro en el heap.
+ * </p>
+ * <p>
+ * Vive fuera de {@code security.jwt} porque no depende del formato del token: la usan tanto
+ * la capa JWT como la persistencia y las cachés, sin que ninguna dependa de la otra.
+ * </p>
+ */
+public record TokenDigest(long h0, long h1, long h2, long h3) {
+
+    // MessageDigest no es thread-safe: mantenemos una instancia por hilo
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    /**
+     * Calcula la huella de un token.
+     */
+    public static TokenDigest of(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer buffer = ByteBuffer.wrap(hash);
+        return new TokenDigest(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+
+    /** Los 32 bytes de la huella, tal como se guardan en una columna {@code BINARY(32)}. */
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(32).putLong(h0).putLong(h1).putLong(h2).putLong(h3).array();
+    }
+}
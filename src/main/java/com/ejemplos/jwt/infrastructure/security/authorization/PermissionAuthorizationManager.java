@@ -0,0 +1,63 @@
+package com.ejemplos.jwt.infrastructure.security.authorization;
+
+import com.ejemplos.jwt.application.ports.out.VerifiedToken;
+import com.ejemplos.jwt.domain.enums.Permission;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Decide el acceso a los métodos anotados con {@link RequiresPermission}.
+ * <p>
+ * La máscara requerida se calcula una sola vez por método (caché por {@link Method});
+ * en cada llamada solo se hace un AND contra la máscara del {@link VerifiedToken}
+ * que el filtro JWT dejó como credencial.
+ * </p>
+ */
+public class PermissionAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final Map<Method, Long> requiredMasks = new ConcurrentHashMap<>();
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        long required = requiredMasks.computeIfAbsent(invocation.getMethod(),
+                method -> requiredMask(method, invocation.getThis()));
+
+        Authentication auth = authentication.get();
+        if (auth != null && auth.isAuthenticated() && auth.getCredentials() instanceof VerifiedToken token) {
+            return token.hasPermissions(required) ? GRANTED : DENIED;
+        }
+        return DENIED;
+    }
+
+    /**
+     * Spring Security 6 todavía declara {@code check} como el método abstracto; solo delega en {@link #authorize}.
+     */
+    @Override
+    @Deprecated
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return (AuthorizationDecision) authorize(authentication, invocation);
+    }
+
+    private static long requiredMask(Method method, Object target) {
+        RequiresPermission annotation = AnnotatedElementUtils.findMergedAnnotation(method, RequiresPermission.class);
+        if (annotation == null && target != null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(target.getClass(), RequiresPermission.class);
+        }
+        if (annotation == null || annotation.value().length == 0) {
+            throw new IllegalStateException("@RequiresPermission without permissions on " + method);
+        }
+        return Permission.maskOf(annotation.value());
+    }
+}
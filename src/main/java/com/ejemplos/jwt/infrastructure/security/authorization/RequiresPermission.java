@@ -0,0 +1,25 @@
+package com.ejemplos.jwt.infrastructure.security.authorization;
+
+import com.ejemplos.jwt.domain.enums.Permission;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Restringe un endpoint a los usuarios cuyo token incluya TODOS los permisos indicados.
+ * <p>
+ * Alternativa a {@code @PreAuthorize("hasRole(...)")}: no evalúa SpEL ni recorre authorities,
+ * solo compara la máscara de bits del token con la del método (calculada una vez).
+ * </p>
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresPermission {
+
+    /** Permisos requeridos (se exigen todos). */
+    Permission[] value();
+}
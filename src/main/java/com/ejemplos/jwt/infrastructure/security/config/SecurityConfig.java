@@ -1,9 +1,19 @@
 package com.ejemplos.jwt.infrastructure.security.config;
 
+import com.ejemplos.jwt.infrastructure.security.authorization.PermissionAuthorizationManager;
+import com.ejemplos.jwt.infrastructure.security.authorization.RequiresPermission;
 import com.ejemplos.jwt.infrastructure.security.jwt.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -70,6 +80,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/public/**").permitAll()
                         .requestMatchers("/error").permitAll()
 
+                        // Llaves públicas para verificación local (JWKS)
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
+
                         // Documentación (Swagger)
                         .requestMatchers("/v3/api-docs/**").permitAll()
                         .requestMatchers("/swagger-ui/**").permitAll()
@@ -110,6 +123,20 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * Interceptor de {@code @RequiresPermission}: autorización por máscara de bits, sin SpEL.
+     * Se registra como advisor de infraestructura, igual que los de {@code @PreAuthorize}.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresPermissionAuthorization() {
+        Pointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(null, RequiresPermission.class, true))
+                .union(new AnnotationMatchingPointcut(RequiresPermission.class, true));
+        var interceptor = new AuthorizationManagerBeforeMethodInterceptor(pointcut, new PermissionAuthorizationManager());
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+
     /** Bean global para encriptación de contraseñas. */
     @Bean
     public PasswordEncoder passwordEncoder() {
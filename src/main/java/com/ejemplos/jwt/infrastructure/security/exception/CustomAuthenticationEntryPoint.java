@@ -1,10 +1,12 @@
 package com.ejemplos.jwt.infrastructure.security.exception;
 
+import com.ejemplos.jwt.infrastructure.security.jwt.JwtAuthenticationFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
@@ -21,6 +23,10 @@ import java.net.URI;
  * Se ejecuta cuando un usuario anónimo intenta acceder a una ruta protegida.
  * Devuelve una respuesta JSON estándar (ProblemDetail RFC 7807) en lugar de redirigir a un HTML.
  * </p>
+ * <p>
+ * Si el token no se autenticó porque la Lista Negra no respondió, la respuesta es 503 (con {@code Retry-After}):
+ * el token puede ser válido y el cliente no debería descartarlo.
+ * </p>
  */
 @Component
 @RequiredArgsConstructor
@@ -30,6 +36,19 @@ public class CustomAuthenticationEntryPoint implements AuthenticationEntryPoint
 
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException) throws IOException, ServletException {
+        if (request.getAttribute(JwtAuthenticationFilter.REVOCATION_UNAVAILABLE_ATTRIBUTE) != null) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+            ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, "Token could not be verified, try again");
+            problemDetail.setTitle("Service Unavailable");
+            problemDetail.setInstance(URI.create(request.getRequestURI()));
+
+            objectMapper.writeValue(response.getOutputStream(), problemDetail);
+            return;
+        }
+
         response.setStatus(HttpStatus.UNAUTHORIZED.value());
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
 
@@ -0,0 +1,30 @@
+package com.ejemplos.jwt.infrastructure.security.id;
+
+import com.ejemplos.jwt.application.ports.out.SecretTokenGenerator;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Secretos de 256 bits de {@link SecureRandom}, en Base64URL sin padding (43 caracteres).
+ * <p>
+ * Para tokens al portador no sirve un ULID: sus primeros 48 bits son la hora de emisión
+ * (adivinable) y solo quedan 80 aleatorios. Aquí los 256 bits son aleatorios.
+ * </p>
+ */
+@Component
+public class SecureRandomSecretTokenGenerator implements SecretTokenGenerator {
+
+    public static final int SECRET_BYTES = 32;
+    public static final int SECRET_LENGTH = 43;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Override
+    public String nextSecret() {
+        byte[] random = new byte[SECRET_BYTES];
+        RANDOM.nextBytes(random);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+    }
+}
@@ -0,0 +1,108 @@
+package com.ejemplos.jwt.infrastructure.security.id;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Conversión entre la forma texto de un ULID (26 caracteres Crockford Base32)
+ * y su forma binaria (16 bytes, big-endian).
+ * <p>
+ * La forma binaria es la que viaja en los tokens compactos y la que sirve de clave de 128 bits;
+ * la forma texto sigue siendo la "oficial" (la que se guarda y se compara como JTI).
+ * </p>
+ */
+public final class Ulid {
+
+    public static final int TEXT_LENGTH = 26;
+    public static final int BINARY_LENGTH = 16;
+
+    private static final byte[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < CROCKFORD.length; i++) {
+            DECODE[CROCKFORD[i]] = (byte) i;
+            DECODE[Character.toLowerCase(CROCKFORD[i])] = (byte) i;
+        }
+    }
+
+    private Ulid() {
+    }
+
+    /**
+     * Indica si el texto es un ULID canónico (el primer carácter solo puede usar 3 bits).
+     */
+    public static boolean isUlid(String text) {
+        if (text == null || text.length() != TEXT_LENGTH || text.charAt(0) > '7') {
+            return false;
+        }
+        for (int i = 0; i < TEXT_LENGTH; i++) {
+            char c = text.charAt(i);
+            if (c >= 128 || DECODE[c] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Escribe los 16 bytes del ULID en {@code out[offset..offset+16)}.
+     *
+     * @throws IllegalArgumentException si el texto no es un ULID.
+     */
+    public static void toBytes(String ulid, byte[] out, int offset) {
+        if (!isUlid(ulid)) {
+            throw new IllegalArgumentException("Not a ULID: " + ulid);
+        }
+        // 26 caracteres * 5 bits = 130 bits; los 2 bits más altos son siempre 0 (ver isUlid)
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < TEXT_LENGTH; i++) {
+            int value = DECODE[ulid.charAt(i)];
+            msb = (msb << 5) | (lsb >>> 59);
+            lsb = (lsb << 5) | value;
+        }
+        for (int i = 7; i >= 0; i--) {
+            out[offset + i] = (byte) msb;
+            msb >>>= 8;
+            out[offset + 8 + i] = (byte) lsb;
+            lsb >>>= 8;
+        }
+    }
+
+    /**
+     * Milisegundos epoch de emisión: los primeros 10 caracteres (48 bits) del ULID.
+     *
+     * @throws IllegalArgumentException si el texto no es un ULID.
+     */
+    public static long timestamp(String ulid) {
+        if (!isUlid(ulid)) {
+            throw new IllegalArgumentException("Not a ULID: " + ulid);
+        }
+        long millis = 0;
+        for (int i = 0; i < 10; i++) {
+            millis = (millis << 5) | DECODE[ulid.charAt(i)];
+        }
+        return millis;
+    }
+
+    /**
+     * Forma texto de 16 bytes binarios.
+     */
+    public static String fromBytes(byte[] bytes, int offset) {
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (bytes[offset + i] & 0xFF);
+            lsb = (lsb << 8) | (bytes[offset + 8 + i] & 0xFF);
+        }
+        byte[] out = new byte[TEXT_LENGTH];
+        for (int i = TEXT_LENGTH - 1; i >= 0; i--) {
+            out[i] = CROCKFORD[(int) (lsb & 0x1F)];
+            lsb = (lsb >>> 5) | (msb << 59);
+            msb >>>= 5;
+        }
+        return new String(out, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,449 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import com.ejemplos.jwt.application.ports.out.VerifiedToken;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Decodificador "rápido" para los tokens que emite esta misma aplicación.
+ * <p>
+ * <strong>¿Por qué existe?</strong> jjwt (con jjwt-jackson) convierte cada token en un {@code Claims}
+ * genérico: un Map con valores "boxeados" y búsquedas por String. Pero nuestros tokens tienen
+ * una forma fija (header {@code {"kid":"...","alg":"HSxxx"}} + claims sub/iss/jti/uid/role/type/iat/exp),
+ * así que podemos leerlos directo a un {@link VerifiedToken}, sin Map ni árbol de Jackson.
+ * También entiende el perfil compacto ({@link CompactClaims}: r/t numéricos y JTI binario).
+ * </p>
+ * <p>
+ * <strong>Contrato:</strong> este decodificador solo acelera el camino feliz.
+ * Ante CUALQUIER cosa inesperada (otro header, un claim desconocido, escapes JSON, firma
+ * inválida, token expirado...) devuelve {@code null} y el llamador debe usar jjwt,
+ * que es quien produce las excepciones y los mensajes de error "oficiales".
+ * </p>
+ * <p>
+ * Los buffers de trabajo y la instancia de {@link Mac} se reutilizan por hilo, de modo que
+ * un token válido solo aloja los Strings del resultado.
+ * </p>
+ */
+public class AccessTokenDecoder {
+
+    /** Tokens más largos que esto no son nuestros: se delegan a jjwt. */
+    private static final int MAX_TOKEN_LENGTH = 4096;
+
+    private static final byte[] DECODE_TABLE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE_TABLE, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE_TABLE[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    // Nombres de los claims que sabemos leer (comparados byte a byte, sin crear Strings)
+    private static final byte[] SUB = bytes("sub");
+    private static final byte[] ISS = bytes("iss");
+    private static final byte[] JTI = bytes("jti");
+    private static final byte[] UID = bytes("uid");
+    private static final byte[] ROLE = bytes("role");
+    private static final byte[] TYPE = bytes("type");
+    private static final byte[] IAT = bytes("iat");
+    private static final byte[] EXP = bytes("exp");
+    private static final byte[] ROLE_CODE = bytes(CompactClaims.ROLE);
+    private static final byte[] TYPE_CODE = bytes(CompactClaims.TYPE);
+    private static final byte[] PERM = bytes("perm");
+    private static final byte[] PERM_CODE = bytes(CompactClaims.PERMISSIONS);
+
+    private final String expectedHeader;
+    private final ThreadLocal<Scratch> scratch;
+
+    public AccessTokenDecoder(SecretKey secretKey) {
+        this(secretKey, null);
+    }
+
+    /**
+     * @param keyId {@code kid} que llevan en el header los tokens firmados con esta llave
+     *              ({@code null} para tokens sin kid).
+     */
+    public AccessTokenDecoder(SecretKey secretKey, String keyId) {
+        this.expectedHeader = encodedHeader(secretKey, keyId);
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(secretKey));
+    }
+
+    /**
+     * Intenta verificar y leer el token por el camino rápido.
+     *
+     * @return el token verificado, o {@code null} si hay que delegar en jjwt.
+     */
+    public VerifiedToken decode(String token) {
+        int length = token.length();
+        if (length > MAX_TOKEN_LENGTH) {
+            return null;
+        }
+
+        // 1. Header: debe ser EXACTAMENTE el que emitimos (comparación sin decodificar)
+        int headerEnd = expectedHeader.length();
+        if (length <= headerEnd || token.charAt(headerEnd) != '.' || !token.startsWith(expectedHeader)) {
+            return null;
+        }
+        int payloadEnd = token.indexOf('.', headerEnd + 1);
+        if (payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            return null;
+        }
+
+        Scratch s = scratch.get();
+
+        // 2. Firma: HMAC sobre los bytes ASCII de "header.payload"
+        byte[] input = s.input;
+        for (int i = 0; i < payloadEnd; i++) {
+            char c = token.charAt(i);
+            if (c >= 128) {
+                return null;
+            }
+            input[i] = (byte) c;
+        }
+        int signatureLength = decodeBase64Url(token, payloadEnd + 1, length, s.signature);
+        if (signatureLength != s.mac.getMacLength()) {
+            return null;
+        }
+        try {
+            s.mac.update(input, 0, payloadEnd);
+            s.mac.doFinal(s.expectedSignature, 0);
+        } catch (GeneralSecurityException e) {
+            s.mac.reset();
+            return null;
+        }
+        if (!constantTimeEquals(s.expectedSignature, s.signature, signatureLength)) {
+            return null;
+        }
+
+        // 3. Payload: JSON plano con los claims conocidos
+        int payloadLength = decodeBase64Url(token, headerEnd + 1, payloadEnd, s.payload);
+        if (payloadLength < 0) {
+            return null;
+        }
+        VerifiedToken verified = new PayloadReader(s.payload, payloadLength).read();
+        if (verified == null) {
+            return null;
+        }
+
+        // 4. Expiración: si venció, que jjwt lance la excepción correspondiente
+        if (!Instant.now().isBefore(verified.expiresAt())) {
+            return null;
+        }
+        return verified;
+    }
+
+    // =================================================================================
+    // HELPERS
+    // =================================================================================
+
+    /**
+     * Decodifica Base64URL (sin padding) directo sobre un buffer reutilizable.
+     *
+     * @return cantidad de bytes escritos, o -1 si el texto no es Base64URL válido o no entra.
+     */
+    private static int decodeBase64Url(String text, int from, int to, byte[] out) {
+        int chars = to - from;
+        if (chars % 4 == 1 || (chars * 3) / 4 > out.length) {
+            return -1;
+        }
+        int written = 0;
+        int buffer = 0;
+        int bits = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            int value = c < 128 ? DECODE_TABLE[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            buffer = (buffer << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[written++] = (byte) (buffer >> bits);
+            }
+        }
+        return written;
+    }
+
+    private static boolean constantTimeEquals(byte[] a, byte[] b, int length) {
+        int diff = 0;
+        for (int i = 0; i < length; i++) {
+            diff |= a[i] ^ b[i];
+        }
+        return diff == 0;
+    }
+
+    /**
+     * Header JWS en Base64URL, con el mismo orden de campos que produce jjwt ({@code kid} antes que {@code alg}).
+     */
+    static String encodedHeader(SecretKey secretKey, String keyId) {
+        String alg = "\"alg\":\"" + jwsAlgorithmFor(secretKey.getAlgorithm()) + "\"";
+        String header = keyId == null ? "{" + alg + "}" : "{\"kid\":\"" + keyId + "\"," + alg + "}";
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(header.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static String jwsAlgorithmFor(String jcaAlgorithm) {
+        return switch (jcaAlgorithm) {
+            case "HmacSHA256" -> "HS256";
+            case "HmacSHA384" -> "HS384";
+            case "HmacSHA512" -> "HS512";
+            default -> throw new IllegalArgumentException("Unsupported HMAC algorithm: " + jcaAlgorithm);
+        };
+    }
+
+    private static byte[] bytes(String ascii) {
+        return ascii.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Buffers y {@link Mac} propios de cada hilo.
+     */
+    private static final class Scratch {
+        private final Mac mac;
+        private final byte[] input = new byte[MAX_TOKEN_LENGTH];
+        private final byte[] payload = new byte[MAX_TOKEN_LENGTH];
+        private final byte[] signature = new byte[64];
+        private final byte[] expectedSignature = new byte[64];
+
+        private Scratch(SecretKey secretKey) {
+            try {
+                this.mac = Mac.getInstance(secretKey.getAlgorithm());
+                this.mac.init(secretKey);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialize " + secretKey.getAlgorithm(), e);
+            }
+        }
+    }
+
+    /**
+     * Lector JSON mínimo: solo acepta un objeto plano con nuestros claims,
+     * valores String sin escapes y números enteros. Cualquier otra cosa devuelve {@code null}.
+     */
+    private static final class PayloadReader {
+        private final byte[] json;
+        private final int end;
+        private int pos;
+
+        private String sub;
+        private String jti;
+        private String role;
+        private String type;
+        private long uid = Long.MIN_VALUE;
+        private long iat = Long.MIN_VALUE;
+        private long exp = Long.MIN_VALUE;
+        private long roleCode = Long.MIN_VALUE;
+        private long typeCode = Long.MIN_VALUE;
+        private long permissions = Long.MIN_VALUE;
+        private int seen;
+
+        private PayloadReader(byte[] json, int length) {
+            this.json = json;
+            this.end = length;
+        }
+
+        private VerifiedToken read() {
+            skipWhitespace();
+            if (!consume('{')) {
+                return null;
+            }
+            skipWhitespace();
+            if (consume('}')) {
+                return null;
+            }
+            do {
+                skipWhitespace();
+                if (!readMember()) {
+                    return null;
+                }
+                skipWhitespace();
+            } while (consume(','));
+            if (!consume('}')) {
+                return null;
+            }
+            skipWhitespace();
+            if (pos != end || sub == null || jti == null || exp == Long.MIN_VALUE) {
+                return null;
+            }
+            if (typeCode == Long.MIN_VALUE && (seen & 2048) != 0) {
+                return null; // 'p' solo existe en el perfil compacto
+            }
+            if (typeCode != Long.MIN_VALUE && !readCompactProfile()) {
+                return null;
+            }
+            if (type == null) {
+                return null;
+            }
+            Long userId = uid == Long.MIN_VALUE ? null : uid;
+            Instant issuedAt = iat == Long.MIN_VALUE ? Instant.EPOCH : Instant.ofEpochSecond(iat);
+            Instant expiresAt = Instant.ofEpochSecond(exp);
+            if (permissions == Long.MIN_VALUE) {
+                return new VerifiedToken(jti, userId, sub, role, issuedAt, expiresAt, type); // Token previo al claim de permisos
+            }
+            return new VerifiedToken(jti, userId, sub, role, issuedAt, expiresAt, type, permissions);
+        }
+
+        /**
+         * Traduce los claims del perfil compacto. No se admiten perfiles mezclados.
+         */
+        private boolean readCompactProfile() {
+            if (type != null || role != null || (seen & (2 | 1024)) != 0 || jti.length() != CompactClaims.JTI_LENGTH) {
+                return false;
+            }
+            type = CompactClaims.typeName(typeCode);
+            if (roleCode != Long.MIN_VALUE) {
+                role = CompactClaims.roleName(roleCode);
+                if (role == null) {
+                    return false;
+                }
+            }
+            try {
+                jti = CompactClaims.decodeJti(jti);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            return type != null;
+        }
+
+        private boolean readMember() {
+            int keyStart = pos + 1;
+            int keyEnd = scanString();
+            if (keyEnd < 0) {
+                return false;
+            }
+            skipWhitespace();
+            if (!consume(':')) {
+                return false;
+            }
+            skipWhitespace();
+
+            int bit;
+            if (keyIs(keyStart, keyEnd, SUB)) {
+                bit = 1;
+                sub = readString();
+            } else if (keyIs(keyStart, keyEnd, ISS)) {
+                bit = 2;
+                if (readString() == null) {
+                    return false;
+                }
+            } else if (keyIs(keyStart, keyEnd, JTI)) {
+                bit = 4;
+                jti = readString();
+            } else if (keyIs(keyStart, keyEnd, ROLE)) {
+                bit = 8;
+                role = readString();
+            } else if (keyIs(keyStart, keyEnd, TYPE)) {
+                bit = 16;
+                type = readString();
+            } else if (keyIs(keyStart, keyEnd, UID)) {
+                bit = 32;
+                uid = readLong();
+            } else if (keyIs(keyStart, keyEnd, IAT)) {
+                bit = 64;
+                iat = readLong();
+                if (iat == Long.MIN_VALUE) {
+                    return false;
+                }
+            } else if (keyIs(keyStart, keyEnd, EXP)) {
+                bit = 128;
+                exp = readLong();
+            } else if (keyIs(keyStart, keyEnd, ROLE_CODE)) {
+                bit = 256;
+                roleCode = readLong();
+            } else if (keyIs(keyStart, keyEnd, TYPE_CODE)) {
+                bit = 512;
+                typeCode = readLong();
+            } else if (keyIs(keyStart, keyEnd, PERM)) {
+                bit = 1024;
+                permissions = readLong();
+            } else if (keyIs(keyStart, keyEnd, PERM_CODE)) {
+                bit = 2048;
+                permissions = readLong();
+            } else {
+                return false; // Claim desconocido: que lo procese jjwt
+            }
+
+            if ((seen & bit) != 0) {
+                return false; // Claim duplicado
+            }
+            seen |= bit;
+            return (bit != 1 || sub != null)
+                    && (bit != 4 || jti != null)
+                    && (bit != 8 || role != null)
+                    && (bit != 16 || type != null)
+                    && (bit != 32 || uid != Long.MIN_VALUE)
+                    && (bit != 128 || exp != Long.MIN_VALUE)
+                    && (bit != 256 || roleCode != Long.MIN_VALUE)
+                    && (bit != 512 || typeCode != Long.MIN_VALUE)
+                    && (bit < 1024 || (permissions >= 0 && (seen & (1024 | 2048)) != (1024 | 2048)));
+        }
+
+        /**
+         * Avanza sobre un String JSON sin escapes.
+         *
+         * @return la posición de la comilla de cierre, o -1 si no es un String simple.
+         */
+        private int scanString() {
+            if (!consume('"')) {
+                return -1;
+            }
+            while (pos < end) {
+                byte b = json[pos];
+                if (b == '"') {
+                    return pos++;
+                }
+                if (b == '\\' || (b >= 0 && b < 0x20)) {
+                    return -1;
+                }
+                pos++;
+            }
+            return -1;
+        }
+
+        private String readString() {
+            int start = pos + 1;
+            int close = scanString();
+            return close < 0 ? null : new String(json, start, close - start, StandardCharsets.UTF_8);
+        }
+
+        private long readLong() {
+            boolean negative = consume('-');
+            int start = pos;
+            long value = 0;
+            while (pos < end && json[pos] >= '0' && json[pos] <= '9') {
+                if (pos - start >= 18) {
+                    return Long.MIN_VALUE;
+                }
+                value = value * 10 + (json[pos++] - '0');
+            }
+            if (pos == start || (pos < end && (json[pos] == '.' || json[pos] == 'e' || json[pos] == 'E'))) {
+                return Long.MIN_VALUE;
+            }
+            return negative ? -value : value;
+        }
+
+        private boolean keyIs(int start, int end, byte[] name) {
+            return Arrays.equals(json, start, end, name, 0, name.length);
+        }
+
+        private boolean consume(char c) {
+            if (pos < end && json[pos] == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (pos < end && (json[pos] == ' ' || json[pos] == '\n' || json[pos] == '\r' || json[pos] == '\t')) {
+                pos++;
+            }
+        }
+    }
+}
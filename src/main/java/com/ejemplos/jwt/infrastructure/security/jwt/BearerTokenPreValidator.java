@@ -0,0 +1,180 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import com.ejemplos.jwt.infrastructure.cache.TimingWheel;
+import com.ejemplos.jwt.infrastructure.metrics.MetricsSource;
+import com.ejemplos.jwt.infrastructure.security.TokenDigest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Etapa de pre-validación barata, ANTES de cualquier operación criptográfica.
+ * <p>
+ * <strong>Problema:</strong> los bots envían headers {@code Authorization: Bearer ...} con basura.
+ * Sin este filtro previo, cada uno pasa por el parseo completo de jjwt, la construcción de
+ * una excepción (con su stack trace) y una línea de log.
+ * </p>
+ * <p>
+ * <strong>Dos niveles:</strong>
+ * <ol>
+ * <li><strong>Estructura:</strong> largo máximo, exactamente 3 segmentos no vacíos, alfabeto Base64URL
+ * y un header (alg/kid) que esté en la lista de headers que nosotros emitimos. Sin alocar memoria.</li>
+ * <li><strong>Caché negativa:</strong> huellas de tokens bien formados que ya fallaron la verificación
+ * (firma falsa, expirados, revocados). Un reintento del mismo token se descarta sin volver a verificarlo.
+ * Cada huella vence en una {@link TimingWheel}, sin recorrer la caché para purgarla.</li>
+ * </ol>
+ * </p>
+ */
+@Component
+public class BearerTokenPreValidator implements MetricsSource {
+
+    private final JwtTokenProviderAdapter jwtTokenProviderAdapter;
+    private final int maxTokenLength;
+    private final int rejectedCacheMaxSize;
+    private final long rejectedCacheTtlMillis;
+
+    private final Map<TokenDigest, Rejection> recentlyRejected = new ConcurrentHashMap<>();
+    private final TimingWheel<TokenDigest> expirations = new TimingWheel<>(1_000, recentlyRejected::remove);
+
+    private final LongAdder malformed = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public BearerTokenPreValidator(JwtTokenProviderAdapter jwtTokenProviderAdapter, JwtProperties jwtProperties) {
+        this.jwtTokenProviderAdapter = jwtTokenProviderAdapter;
+        this.maxTokenLength = jwtProperties.getMaxTokenLength();
+        this.rejectedCacheMaxSize = jwtProperties.getRejectedCacheMaxSize();
+        this.rejectedCacheTtlMillis = jwtProperties.getRejectedCacheTtlSeconds() * 1000;
+    }
+
+    /**
+     * Comprueba la forma del token sin decodificarlo ni verificar su firma.
+     *
+     * @return {@code false} si el token es basura con seguridad.
+     */
+    public boolean isWellFormed(String token) {
+        int length = token.length();
+        if (length == 0 || length > maxTokenLength || !hasAcceptedHeader(token)) {
+            malformed.increment();
+            return false;
+        }
+
+        int dots = 0;
+        char previous = '.';
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (previous == '.') {
+                    malformed.increment();
+                    return false; // Segmento vacío
+                }
+                dots++;
+            } else if (!isBase64Url(c)) {
+                malformed.increment();
+                return false;
+            }
+            previous = c;
+        }
+        if (dots != 2 || previous == '.') {
+            malformed.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Indica si este mismo token ya fue rechazado hace poco.
+     */
+    public boolean isRecentlyRejected(TokenDigest digest) {
+        Rejection rejection = recentlyRejected.get(digest);
+        if (rejection == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() >= rejection.expiresAtMillis()) {
+            return false; // Venció dentro del tick en curso: la rueda lo desaloja enseguida
+        }
+        shortCircuited.increment();
+        return true;
+    }
+
+    /**
+     * Registra un token que falló la verificación completa.
+     * Solo debe llamarse ante rechazos definitivos (no ante errores transitorios de infraestructura).
+     */
+    public void markRejected(TokenDigest digest) {
+        rejected.increment();
+        if (rejectedCacheMaxSize <= 0) {
+            return;
+        }
+        if (recentlyRejected.size() >= rejectedCacheMaxSize) {
+            makeRoom();
+        }
+        long expiresAt = System.currentTimeMillis() + rejectedCacheTtlMillis;
+        Rejection previous = recentlyRejected.put(digest, new Rejection(expiresAt, expirations.schedule(digest, expiresAt)));
+        if (previous != null) {
+            expirations.cancel(previous.timeout());
+        }
+    }
+
+    /**
+     * Caché llena de huellas vigentes (las vencidas ya las sacó la rueda): se desalojan arbitrarias.
+     */
+    private void makeRoom() {
+        Iterator<Rejection> it = recentlyRejected.values().iterator();
+        while (recentlyRejected.size() >= rejectedCacheMaxSize && it.hasNext()) {
+            expirations.cancel(it.next().timeout());
+            it.remove();
+        }
+    }
+
+    /**
+     * Avanza la rueda de vencimientos de la caché negativa.
+     */
+    @Scheduled(fixedDelay = 1_000)
+    void evictExpired() {
+        expirations.advanceTo(System.currentTimeMillis());
+    }
+
+    /**
+     * El header (ya codificado) debe coincidir con alguno de los que emitimos.
+     * Compararlo codificado evita decodificar JSON para descartar un token ajeno.
+     */
+    private boolean hasAcceptedHeader(String token) {
+        List<String> acceptedHeaders = jwtTokenProviderAdapter.getAcceptedHeaders();
+        for (String header : acceptedHeaders) {
+            if (token.length() > header.length()
+                    && token.charAt(header.length()) == '.'
+                    && token.startsWith(header)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBase64Url(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+    }
+
+    @Override
+    public String metricsName() {
+        return "bearer-token-pre-validator";
+    }
+
+    @Override
+    public Map<String, Long> metrics() {
+        return Map.of(
+                "malformed", malformed.sum(),
+                "short-circuited", shortCircuited.sum(),
+                "rejected", rejected.sum(),
+                "negative-cache-size", (long) recentlyRejected.size()
+        );
+    }
+
+    private record Rejection(long expiresAtMillis, TimingWheel.Timeout<TokenDigest> timeout) {
+    }
+}
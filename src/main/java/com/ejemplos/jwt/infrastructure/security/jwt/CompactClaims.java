@@ -0,0 +1,73 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import com.ejemplos.jwt.infrastructure.security.id.Ulid;
+
+import java.util.Base64;
+
+/**
+ * Perfil "compacto" de claims para los Access Tokens ({@code jwt.compact-access-tokens=true}).
+ * <p>
+ * El Access Token viaja en CADA request, así que cada byte cuenta:
+ * <ul>
+ * <li>Sin {@code iss}: siempre es el mismo y el {@code kid}/la firma ya identifican al emisor.</li>
+ * <li>{@code role} → {@code r}, {@code type} → {@code t} y {@code perm} → {@code p}, con códigos numéricos.</li>
+ * <li>{@code jti}: los 16 bytes del ULID en Base64URL (22 caracteres en vez de 26 o 36).</li>
+ * </ul>
+ * Al leerlo se normaliza al mismo {@code VerifiedToken} que el perfil clásico
+ * (con el JTI en su forma texto), así que ambos perfiles conviven durante la migración.
+ * </p>
+ */
+final class CompactClaims {
+
+    static final String ROLE = "r";
+    static final String TYPE = "t";
+    static final String PERMISSIONS = "p";
+
+    /** Largo en Base64URL (sin padding) de un JTI binario de 16 bytes. */
+    static final int JTI_LENGTH = 22;
+
+    private CompactClaims() {
+    }
+
+    static int roleCode(String role) {
+        return switch (role) {
+            case "ADMIN" -> 1;
+            case "CLIENT" -> 2;
+            default -> throw new IllegalArgumentException("No compact code for role " + role);
+        };
+    }
+
+    /** @return el nombre del rol, o {@code null} si el código no existe. */
+    static String roleName(long code) {
+        return code == 1 ? "ADMIN" : code == 2 ? "CLIENT" : null;
+    }
+
+    static int typeCode(String type) {
+        return switch (type) {
+            case "ACCESS" -> 1;
+            case "REFRESH" -> 2;
+            default -> throw new IllegalArgumentException("No compact code for type " + type);
+        };
+    }
+
+    /** @return el tipo de token, o {@code null} si el código no existe. */
+    static String typeName(long code) {
+        return code == 1 ? "ACCESS" : code == 2 ? "REFRESH" : null;
+    }
+
+    static String encodeJti(String ulid) {
+        byte[] bytes = new byte[Ulid.BINARY_LENGTH];
+        Ulid.toBytes(ulid, bytes, 0);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * @throws IllegalArgumentException si no es un JTI binario válido.
+     */
+    static String decodeJti(String compactJti) {
+        if (compactJti == null || compactJti.length() != JTI_LENGTH) {
+            throw new IllegalArgumentException("Invalid compact jti");
+        }
+        return Ulid.fromBytes(Base64.getUrlDecoder().decode(compactJti), 0);
+    }
+}
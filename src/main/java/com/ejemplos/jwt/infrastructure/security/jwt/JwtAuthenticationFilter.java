@@ -1,6 +1,8 @@
 package com.ejemplos.jwt.infrastructure.security.jwt;
 
-import com.ejemplos.jwt.application.ports.out.JwtTokenProviderPort;
+import com.ejemplos.jwt.application.ports.out.VerifiedToken;
+import com.ejemplos.jwt.domain.exception.personalized.RevocationCheckUnavailableException;
+import com.ejemplos.jwt.infrastructure.security.TokenDigest;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,6 +15,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 /**
  * Filtro que intercepta CADA petición HTTP para buscar un token JWT.
@@ -20,11 +23,17 @@ import java.io.IOException;
  * <strong>Funcionamiento:</strong>
  * <ol>
  * <li>Busca el header "Authorization: Bearer ...".</li>
+ * <li>Descarta sin criptografía los tokens malformados o rechazados hace poco ({@link BearerTokenPreValidator}).</li>
  * <li>Si existe y es válido, extrae el usuario y sus roles.</li>
  * <li>Crea una sesión temporal en el {@link SecurityContextHolder} solo para este request.</li>
  * </ol>
  * Si no hay token, deja pasar la petición (Spring Security decidirá luego si rechazarla o no según la URL).
  * </p>
+ * <p>
+ * Si la Lista Negra no se pudo consultar (política {@code FAIL_CLOSED}), el request sigue sin autenticar y se
+ * marca con {@link #REVOCATION_UNAVAILABLE_ATTRIBUTE} para que la respuesta sea 503 y no 401. El token
+ * no entra en la caché negativa: no fue rechazado, y el cliente puede reintentar con él.
+ * </p>
  */
 @Component
 @RequiredArgsConstructor
@@ -33,7 +42,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final String AUTH_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
 
+    /** Atributo del request presente cuando no se pudo verificar la revocación del token. */
+    public static final String REVOCATION_UNAVAILABLE_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".REVOCATION_UNAVAILABLE";
+
     private final JwtTokenProviderAdapter jwtTokenProviderAdapter;
+    private final BearerTokenPreValidator bearerTokenPreValidator;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -47,15 +60,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = authHeader.substring(BEARER_PREFIX.length());
 
-        // 2. ¿Es válido? (Firma, Expiración, Blacklist)
-        if (!jwtTokenProviderAdapter.isAccessTokenValid(token)) {
+        // 2. Rechazo barato: basura o un token que ya falló hace poco (sin excepciones ni logs)
+        if (!bearerTokenPreValidator.isWellFormed(token)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        TokenDigest digest = TokenDigest.of(token);
+        if (bearerTokenPreValidator.isRecentlyRejected(digest)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // 3. ¿Es válido? (Firma, Expiración, Blacklist)
+        // Se parsea UNA sola vez: el resultado viaja como credencial de la Authentication
+        Optional<VerifiedToken> verifiedToken;
+        try {
+            verifiedToken = jwtTokenProviderAdapter.verifyAccessToken(token, digest);
+        } catch (RevocationCheckUnavailableException e) {
+            request.setAttribute(REVOCATION_UNAVAILABLE_ATTRIBUTE, e.getMessage());
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (verifiedToken.isEmpty()) {
+            bearerTokenPreValidator.markRejected(digest);
             filterChain.doFilter(request, response);
             return;
         }
 
-        // 3. Autenticar en el contexto
+        // 4. Autenticar en el contexto
         if (SecurityContextHolder.getContext().getAuthentication() == null) {
-            var authentication = jwtTokenProviderAdapter.getAuthentication(token);
+            var authentication = jwtTokenProviderAdapter.getAuthentication(verifiedToken.get());
 
             if (authentication instanceof AbstractAuthenticationToken authToken) {
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
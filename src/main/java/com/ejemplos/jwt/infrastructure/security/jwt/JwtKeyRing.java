@@ -0,0 +1,264 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * Anillo de llaves HMAC indexado por {@code kid}, con rotación sin reinicios.
+ * <p>
+ * <strong>Problema:</strong> con una sola llave, rotarla obliga a reiniciar todos los nodos a la vez
+ * e invalida de golpe todos los tokens vivos (estampida contra {@code /api/auth/refresh}).
+ * </p>
+ * <p>
+ * <strong>Funcionamiento:</strong>
+ * <ul>
+ * <li>Una llave <strong>activa</strong> firma los tokens nuevos y estampa su {@code kid} en el header.</li>
+ * <li>Las demás llaves (las que se están retirando) solo verifican, hasta que expiren sus tokens.</li>
+ * <li>La llave para verificar se busca en O(1) por el header del token (cada {@code kid} tiene un header único).</li>
+ * <li>Si se configura {@code jwt.key-ring-file}, el archivo se vigila y se recarga en caliente.</li>
+ * </ul>
+ * Formato del archivo (java.util.Properties):
+ * <pre>
+ * active=2026-10
+ * key.2026-10=&lt;secreto nuevo&gt;
+ * key.2026-04=&lt;secreto anterior, solo verifica&gt;
+ * </pre>
+ * Rotación recomendada en varios nodos: (1) agregar la llave nueva sin activarla, (2) cuando todos
+ * la cargaron, cambiar {@code active}, (3) quitar la anterior cuando expiren sus Refresh Tokens.
+ * </p>
+ * <p>
+ * {@code jwt.secret-key} (si está definido) sigue aceptándose como llave sin {@code kid}, para
+ * los tokens emitidos antes de usar el anillo. Sin archivo, es la llave activa, como siempre.
+ * </p>
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+
+    private static final String ACTIVE_PROPERTY = "active";
+    private static final String KEY_PREFIX = "key.";
+    private static final Pattern KID_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final JwtProperties jwtProperties;
+    private final VerifiedClaimsCache verifiedClaimsCache;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private WatchService watchService;
+
+    public JwtKeyRing(JwtProperties jwtProperties, VerifiedClaimsCache verifiedClaimsCache) {
+        this.jwtProperties = jwtProperties;
+        this.verifiedClaimsCache = verifiedClaimsCache;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        if (jwtProperties.getSignatureAlgorithm().isAsymmetric()) {
+            return; // El anillo es solo para HMAC
+        }
+        this.snapshot = load();
+
+        if (StringUtils.hasText(jwtProperties.getKeyRingFile())) {
+            startWatching(Path.of(jwtProperties.getKeyRingFile()).toAbsolutePath());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    // =================================================================================
+    // CONSULTAS
+    // =================================================================================
+
+    /** Llave con la que se firman los tokens nuevos. */
+    public SigningKey active() {
+        return snapshot.active;
+    }
+
+    /**
+     * Llave que corresponde al header del token (búsqueda O(1) por {@code kid}).
+     *
+     * @return la llave, o {@code null} si el header no es de ninguna llave del anillo.
+     */
+    public SigningKey forToken(String token) {
+        int dot = token.indexOf('.');
+        return dot < 0 ? null : snapshot.byHeader.get(token.substring(0, dot));
+    }
+
+    /**
+     * Llave de verificación para un {@code kid} ({@code null} = tokens previos al anillo).
+     *
+     * @return la llave, o {@code null} si no está (o ya no está) en el anillo.
+     */
+    public SecretKey verificationKey(String kid) {
+        SigningKey key = snapshot.byKid.get(kid);
+        return key == null ? null : key.secretKey();
+    }
+
+    /** Headers (codificados) de todas las llaves vigentes. */
+    public List<String> acceptedHeaders() {
+        return snapshot.acceptedHeaders;
+    }
+
+    // =================================================================================
+    // CARGA Y RECARGA
+    // =================================================================================
+
+    /**
+     * Vuelve a leer el archivo. Si es inválido, se conserva el anillo anterior.
+     */
+    void reload() {
+        try {
+            Snapshot previous = snapshot;
+            Snapshot next = load();
+            this.snapshot = next;
+
+            // Si se retiró alguna llave, sus tokens ya verificados no deben seguir sirviéndose desde la caché
+            if (!next.byKid.keySet().containsAll(previous.byKid.keySet())) {
+                verifiedClaimsCache.clear();
+            }
+            log.info("JWT key ring reloaded: active={}, kids={}", next.active.keyId(), next.byKid.keySet());
+        } catch (RuntimeException | IOException e) {
+            log.error("JWT key ring reload failed, keeping previous keys: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot load() throws IOException {
+        Map<String, SigningKey> byKid = new HashMap<>();
+        SigningKey legacy = null;
+        if (StringUtils.hasText(jwtProperties.getSecretKey())) {
+            legacy = SigningKey.of(null, jwtProperties.getSecretKey());
+            byKid.put(null, legacy);
+        }
+
+        if (!StringUtils.hasText(jwtProperties.getKeyRingFile())) {
+            if (legacy == null) {
+                throw new IllegalStateException("Either jwt.secret-key or jwt.key-ring-file must be configured");
+            }
+            return Snapshot.of(legacy, byKid);
+        }
+
+        Properties file = new Properties();
+        try (Reader reader = Files.newBufferedReader(Path.of(jwtProperties.getKeyRingFile()), StandardCharsets.UTF_8)) {
+            file.load(reader);
+        }
+        for (String name : file.stringPropertyNames()) {
+            if (name.startsWith(KEY_PREFIX)) {
+                String kid = name.substring(KEY_PREFIX.length());
+                if (!KID_PATTERN.matcher(kid).matches()) {
+                    throw new IllegalStateException("Invalid kid in key ring: '" + kid + "'");
+                }
+                byKid.put(kid, SigningKey.of(kid, file.getProperty(name).trim()));
+            }
+        }
+
+        SigningKey active = byKid.get(file.getProperty(ACTIVE_PROPERTY, "").trim());
+        if (active == null || active.keyId() == null) {
+            throw new IllegalStateException("Key ring 'active' must reference one of its key.<kid> entries");
+        }
+        return Snapshot.of(active, byKid);
+    }
+
+    private void startWatching(Path file) throws IOException {
+        this.watchService = file.getFileSystem().newWatchService();
+        file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread watcher = new Thread(() -> watch(file), "jwt-key-ring-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch(Path file) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (file.getFileName().equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Apagado de la aplicación
+        }
+    }
+
+    // =================================================================================
+    // MODELO
+    // =================================================================================
+
+    /**
+     * Una llave del anillo con su motor de firma y su decodificador ya preparados.
+     *
+     * @param keyId         {@code kid} del header ({@code null} para la llave previa al anillo).
+     * @param encodedHeader Header JWS en Base64URL que llevan los tokens de esta llave.
+     */
+    public record SigningKey(String keyId, SecretKey secretKey, String encodedHeader,
+                             TokenMinter minter, AccessTokenDecoder decoder) {
+
+        static SigningKey of(String keyId, String secret) {
+            SecretKey secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+            return new SigningKey(
+                    keyId,
+                    secretKey,
+                    AccessTokenDecoder.encodedHeader(secretKey, keyId),
+                    new TokenMinter(secretKey, JwtTokenProviderAdapter.ISSUER, keyId),
+                    new AccessTokenDecoder(secretKey, keyId)
+            );
+        }
+    }
+
+    /**
+     * Estado inmutable del anillo; se reemplaza entero en cada recarga (lecturas sin locks).
+     */
+    private record Snapshot(SigningKey active, Map<String, SigningKey> byKid,
+                            Map<String, SigningKey> byHeader, List<String> acceptedHeaders) {
+
+        private static final Snapshot EMPTY = new Snapshot(null, Map.of(), Map.of(), List.of());
+
+        private static Snapshot of(SigningKey active, Map<String, SigningKey> byKid) {
+            Map<String, SigningKey> byHeader = new HashMap<>();
+            List<String> headers = new ArrayList<>();
+            headers.add(active.encodedHeader()); // La activa primero: es la más frecuente
+            for (SigningKey key : byKid.values()) {
+                byHeader.put(key.encodedHeader(), key);
+                if (key != active) {
+                    headers.add(key.encodedHeader());
+                }
+            }
+            return new Snapshot(active, Collections.unmodifiableMap(byKid), byHeader, List.copyOf(headers));
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.ejemplos.jwt.infrastructure.security.jwt;
 
+import com.ejemplos.jwt.infrastructure.persistence.revocation.RevocationDurability;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.RevocationFallback;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -20,4 +22,85 @@ public class JwtProperties {
     private String secretKey;
     private long accessTokenExpirationSeconds;
     private long refreshTokenExpirationSeconds;
+
+    /** Formato de los Refresh Tokens: JWT (firmados), OPAQUE (aleatorios) o MIGRATION (emite opacos, acepta ambos). */
+    private RefreshTokenFormat refreshTokenFormat = RefreshTokenFormat.JWT;
+
+    /** Ventana en la que un Refresh Token recién rotado devuelve el mismo par en lugar de disparar el reuso (0 = deshabilitada). */
+    private long refreshGraceWindowMs = 5_000;
+
+    /** Máximo de rotaciones recordadas para la ventana de gracia. */
+    private int refreshGraceCacheMaxSize = 10_000;
+
+    /** Máximo de tokens verificados que se mantienen en caché (0 = caché deshabilitada). */
+    private int claimsCacheMaxSize = 10_000;
+
+    /** Largo máximo aceptado para un Bearer token; lo que supere esto se descarta sin verificar. */
+    private int maxTokenLength = 2048;
+
+    /** Máximo de huellas de tokens rechazados que se recuerdan (0 = caché negativa deshabilitada). */
+    private int rejectedCacheMaxSize = 10_000;
+
+    /** Cuánto tiempo se recuerda un token rechazado. */
+    private long rejectedCacheTtlSeconds = 300;
+
+    /** Emite los Access Tokens con el perfil compacto (claims cortos, códigos numéricos, JTI binario). */
+    private boolean compactAccessTokens = false;
+
+    /** Archivo con el anillo de llaves HMAC ({@code active=<kid>}, {@code key.<kid>=<secreto>}); se recarga en caliente. */
+    private String keyRingFile;
+
+    /** Modo de firma: HS (HMAC con secret-key), EDDSA o ES256. */
+    private JwtSignatureAlgorithm signatureAlgorithm = JwtSignatureAlgorithm.HS;
+
+    /** Llave privada PKCS#8 en PEM (solo modos asimétricos). */
+    private String privateKeyPath;
+
+    /** Llave pública X.509 en PEM (solo modos asimétricos). */
+    private String publicKeyPath;
+
+    /** 'kid' publicado en el JWKS y en el header de los tokens. Si falta, se usa el thumbprint RFC 7638. */
+    private String keyId;
+
+    /** Max-age del JWKS para caches HTTP y verificadores externos. */
+    private long jwksCacheSeconds = 3600;
+
+    /** Revocaciones para las que se dimensiona el filtro de Bloom del índice en memoria de la Lista Negra. */
+    private int revocationIndexExpectedEntries = 100_000;
+
+    /** Archivo local donde se vuelca el índice de revocaciones para arrancar sin leer toda la tabla (vacío = deshabilitado). */
+    private String revocationSnapshotFile;
+
+    /**
+     * Desde cuándo todos los JTI emitidos son ULID (ISO-8601). El arranque desde snapshot relee la BD por rango de
+     * clave ULID, así que solo se usa si esa ventana empieza después de esta fecha (vacío = siempre se lee la tabla entera).
+     */
+    private String ulidJtiSince;
+
+    /** Cuándo queda durable en MySQL una revocación: SYNC (en la transacción del request) o WRITE_BEHIND (en lotes). */
+    private RevocationDurability revocationDurability = RevocationDurability.SYNC;
+
+    /** Filas por lote JDBC en modo WRITE_BEHIND. */
+    private int revocationBatchSize = 500;
+
+    /** Espera máxima de una revocación en el buffer antes de escribirse (modo WRITE_BEHIND). */
+    private long revocationFlushMs = 200;
+
+    /** Qué responder si MySQL no contesta una consulta de revocación: FAIL_CLOSED (503) o FAIL_OPEN (lo que se sabe en memoria). */
+    private RevocationFallback revocationFallback = RevocationFallback.FAIL_CLOSED;
+
+    /** Plazo máximo de una consulta de revocación a MySQL. */
+    private long revocationDbTimeoutMs = 250;
+
+    /** Fallos seguidos de MySQL que abren el circuito de las consultas de revocación. */
+    private int revocationBreakerFailures = 5;
+
+    /** Tiempo que el circuito queda abierto antes de dejar pasar una consulta de prueba. */
+    private long revocationBreakerOpenMs = 10_000;
+
+    /** Vida restante por debajo de la cual un Access Token se valida sin consultar la Lista Negra ni los cortes (0 = siempre se consulta). */
+    private long statelessValidationThresholdSeconds = 0;
+
+    /** Corte global de emergencia (ISO-8601): todo token emitido antes es inválido (vacío = deshabilitado). */
+    private String tokensValidAfter;
 }
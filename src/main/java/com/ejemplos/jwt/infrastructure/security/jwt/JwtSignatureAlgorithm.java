@@ -0,0 +1,42 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+/**
+ * Modos de firma soportados para los JWT que emitimos.
+ * <p>
+ * <strong>HS</strong> (por defecto): HMAC con {@code jwt.secret-key}. Rápido, pero solo quien conoce
+ * el secreto puede verificar.<br>
+ * <strong>EDDSA / ES256</strong>: firma asimétrica. La llave pública se publica en
+ * {@code /.well-known/jwks.json} y otros servicios verifican localmente, sin compartir secretos.
+ * </p>
+ */
+public enum JwtSignatureAlgorithm {
+
+    HS(null, null),
+    EDDSA(Jwts.SIG.EdDSA, "EdDSA"),
+    ES256(Jwts.SIG.ES256, "EC");
+
+    private final SignatureAlgorithm jwsAlgorithm;
+    private final String keyFactoryAlgorithm;
+
+    JwtSignatureAlgorithm(SignatureAlgorithm jwsAlgorithm, String keyFactoryAlgorithm) {
+        this.jwsAlgorithm = jwsAlgorithm;
+        this.keyFactoryAlgorithm = keyFactoryAlgorithm;
+    }
+
+    public boolean isAsymmetric() {
+        return jwsAlgorithm != null;
+    }
+
+    /** Algoritmo JWS de jjwt (solo modos asimétricos). */
+    public SignatureAlgorithm jwsAlgorithm() {
+        return jwsAlgorithm;
+    }
+
+    /** Nombre para {@link java.security.KeyFactory} al leer las llaves PEM (solo modos asimétricos). */
+    public String keyFactoryAlgorithm() {
+        return keyFactoryAlgorithm;
+    }
+}
@@ -2,12 +2,26 @@ package com.ejemplos.jwt.infrastructure.security.jwt;
 
 import com.ejemplos.jwt.application.ports.out.GeneratedToken;
 import com.ejemplos.jwt.application.ports.out.JwtTokenProviderPort;
+import com.ejemplos.jwt.application.ports.out.SecretTokenGenerator;
+import com.ejemplos.jwt.application.ports.out.TokenIdGenerator;
+import com.ejemplos.jwt.application.ports.out.VerifiedToken;
+import com.ejemplos.jwt.domain.enums.UserRole;
 import com.ejemplos.jwt.domain.model.User;
 import com.ejemplos.jwt.domain.repository.RevokedTokenRepository;
+import com.ejemplos.jwt.domain.repository.TokenCutoffRepository;
+import com.ejemplos.jwt.infrastructure.metrics.MetricsSource;
+import com.ejemplos.jwt.infrastructure.security.TokenDigest;
+import com.ejemplos.jwt.infrastructure.security.id.SecureRandomSecretTokenGenerator;
+import com.ejemplos.jwt.infrastructure.security.id.Ulid;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,69 +29,177 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.PublicKey;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.UUID;
-import java.util.function.Function;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 /**
  * Implementación concreta del proveedor de JWT usando la librería 'jjwt'.
  * <p>
  * Responsabilidades:
- * 1. Generar tokens firmados (HMAC-SHA).
+ * 1. Generar tokens firmados (HMAC-SHA por defecto, o EdDSA/ES256 si se configura {@code jwt.signature-algorithm}).
  * 2. Parsear y validar tokens entrantes.
  * 3. Extraer claims (datos) del token.
  * 4. Convertir un token válido en un objeto Authentication de Spring.
  * </p>
+ * <p>
+ * <strong>Validación sin estado cerca de la expiración</strong> ({@code jwt.stateless-validation-threshold-seconds}):
+ * a un Access Token al que le quedan menos segundos que el umbral no se le consulta la Lista Negra ni el corte
+ * de sesión; el riesgo que cubre la consulta dura menos que eso. Con un umbral mayor o igual a la vida del
+ * Access Token, la validación es totalmente sin estado. El logout tampoco persiste la revocación de esos tokens
+ * ({@link #isRevocationRequired(Instant)}).
+ * </p>
+ * <p>
+ * <strong>Refresh Tokens opacos</strong> ({@code jwt.refresh-token-format}, ver {@link RefreshTokenFormat}): en lugar
+ * de firmar un JWT se emiten 256 bits aleatorios. Al refrescar solo se revisa su forma; la tabla
+ * {@code refresh_tokens} decide todo lo demás.
+ * </p>
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class JwtTokenProviderAdapter implements JwtTokenProviderPort {
+public class JwtTokenProviderAdapter implements JwtTokenProviderPort, MetricsSource {
+
+    static final String ISSUER = "jwt-ejemplo";
+
+    /** 32 bytes en Base64URL sin padding ({@link SecureRandomSecretTokenGenerator}). */
+    private static final int OPAQUE_REFRESH_TOKEN_LENGTH = SecureRandomSecretTokenGenerator.SECRET_LENGTH;
+
+    private static final Map<String, List<SimpleGrantedAuthority>> ROLE_AUTHORITIES = Arrays.stream(UserRole.values())
+            .collect(Collectors.toUnmodifiableMap(Enum::name,
+                    role -> List.of(new SimpleGrantedAuthority("ROLE_" + role.name()))));
 
     private final JwtProperties jwtProperties;
     private final RevokedTokenRepository revokedTokenRepository;
+    private final TokenCutoffRepository tokenCutoffRepository;
+    private final VerifiedClaimsCache verifiedClaimsCache;
+    private final JwtKeyRing jwtKeyRing;
+    private final TokenIdGenerator tokenIdGenerator;
+    private final SecretTokenGenerator secretTokenGenerator;
+
+    private JwtParser jwtParser;
+    private List<String> acceptedHeaders;
 
-    private SecretKey secretKey;
+    // Solo en modo asimétrico (EdDSA / ES256)
+    private JwtSignatureAlgorithm signatureAlgorithm;
+    private PrivateKey privateKey;
+    private String keyId;
+    private String jwksJson = "{\"keys\":[]}";
+
+    private final LongAdder revocationChecks = new LongAdder();
+    private final LongAdder revocationChecksSkipped = new LongAdder();
+    private final LongAdder revocationsNotPersisted = new LongAdder();
+    private final LongAdder opaqueRefreshAccepted = new LongAdder();
+    private final LongAdder jwtRefreshAccepted = new LongAdder();
 
     /**
-     * Inicializa la llave criptográfica al arrancar la aplicación.
+     * Prepara la verificación al arrancar la aplicación.
+     * <p>
+     * En modo HMAC las llaves viven en el {@link JwtKeyRing} (que puede rotarlas en caliente):
+     * el {@link JwtParser} no guarda ninguna llave, sino que la pide al anillo según el {@code kid}
+     * del header. El parser es inmutable y thread-safe, así que se construye una sola vez.
+     * </p>
      * <p>
-     * Convierte el 'secret-key' de texto plano (definido en application.yml)
-     * en una estructura de llave {@link SecretKey} optimizada para el algoritmo HMAC-SHA.
+     * En modo asimétrico se leen las llaves PEM configuradas y se prepara (ya serializado)
+     * el JWKS con la llave pública. El {@link TokenMinter} y el {@link AccessTokenDecoder} son
+     * específicos de HMAC, así que en ese modo firma y verificación pasan por jjwt
+     * (y el anillo de llaves no se usa).
      * </p>
      */
     @PostConstruct
-    private void init() {
-        this.secretKey = Keys.hmacShaKeyFor(jwtProperties.getSecretKey().getBytes(StandardCharsets.UTF_8));
+    void init() {
+        this.signatureAlgorithm = jwtProperties.getSignatureAlgorithm();
+        if (signatureAlgorithm.isAsymmetric()) {
+            initAsymmetric();
+            return;
+        }
+
+        this.jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        SecretKey key = jwtKeyRing.verificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    private void initAsymmetric() {
+        String keyFactoryAlgorithm = signatureAlgorithm.keyFactoryAlgorithm();
+        this.privateKey = PemKeyLoader.readPrivateKey(jwtProperties.getPrivateKeyPath(), keyFactoryAlgorithm);
+        PublicKey publicKey = PemKeyLoader.readPublicKey(jwtProperties.getPublicKeyPath(), keyFactoryAlgorithm);
+
+        var jwkBuilder = Jwks.builder()
+                .key(publicKey)
+                .algorithm(signatureAlgorithm.jwsAlgorithm().getId())
+                .publicKeyUse("sig");
+        PublicJwk<PublicKey> jwk = StringUtils.hasText(jwtProperties.getKeyId())
+                ? jwkBuilder.id(jwtProperties.getKeyId()).build()
+                : jwkBuilder.idFromThumbprint().build();
+        this.keyId = jwk.getId();
+        this.jwksJson = "{\"keys\":[" + Jwks.json(jwk) + "]}";
+
+        this.jwtParser = Jwts.parser()
+                .verifyWith(publicKey)
+                .build();
+
+        // El header es siempre el mismo ({"kid":..., "alg":...}): lo tomamos de un token de prueba
+        String probe = sign("probe", "probe", null, null, null, "ACCESS", 0, 1);
+        this.acceptedHeaders = List.of(probe.substring(0, probe.indexOf('.')));
+        log.info("JWT signing with {} (kid={})", signatureAlgorithm.jwsAlgorithm().getId(), keyId);
     }
 
     // =================================================================================
     // GENERACIÓN DE TOKENS
     // =================================================================================
 
+    /**
+     * Genera un Access Token.
+     * <p>
+     * La firma la hace el {@link TokenMinter} (header y claims constantes precodificados,
+     * {@code Mac} reutilizado por hilo); el resultado es idéntico en formato al de {@code Jwts.builder()}.
+     * Con {@code jwt.compact-access-tokens} se emite el perfil compacto ({@link CompactClaims}).
+     * </p>
+     */
     @Override
     public String generateAccessToken(User user) {
         Instant now = Instant.now();
         Instant expiry = now.plusSeconds(jwtProperties.getAccessTokenExpirationSeconds());
+        String jti = tokenIdGenerator.nextId();     // JTI: ID único para poder revocarlo individualmente
+
+        // El perfil compacto necesita un JTI binario (ULID); con otro generador se usa el clásico
+        if (jwtProperties.isCompactAccessTokens() && Ulid.isUlid(jti)) {
+            return signCompact(user.getEmail(), jti, user.getId(), user.getRole().name(),
+                    user.getRole().getPermissions(), now.getEpochSecond(), expiry.getEpochSecond());
+        }
 
         // El Access Token lleva datos útiles (Claims) para evitar ir a la BD en cada request
-        return Jwts.builder()
-                .subject(user.getEmail())
-                .issuer("jwt-ejemplo")
-                .id(UUID.randomUUID().toString())           // JTI: ID único para poder revocarlo individualmente
-                .claim("uid", user.getId())
-                .claim("role", user.getRole().name())    // Guardamos el rol para autorización rápida
-                .claim("type", "ACCESS")
-                .issuedAt(Date.from(now))
-                .expiration(Date.from(expiry))
-                .signWith(secretKey)
-                .compact();
+        return sign(
+                user.getEmail(),
+                jti,
+                user.getId(),
+                user.getRole().name(),          // Guardamos el rol para autorización rápida
+                user.getRole().getPermissions(), // Y sus permisos como máscara de bits (chequeo O(1))
+                "ACCESS",
+                now.getEpochSecond(),
+                expiry.getEpochSecond()
+        );
     }
 
     @Override
@@ -85,21 +207,76 @@ public class JwtTokenProviderAdapter implements JwtTokenProviderPort {
         Instant now = Instant.now();
         Instant expiry = now.plusSeconds(jwtProperties.getRefreshTokenExpirationSeconds());
 
+        if (jwtProperties.getRefreshTokenFormat().issuesOpaque()) {
+            return new GeneratedToken(secretTokenGenerator.nextSecret(), expiry);
+        }
+
         // El Refresh Token es de larga duración y lleva la mínima información posible
-        String tokenString = Jwts.builder()
-                .subject(user.getEmail())
-                .issuer("jwt-ejemplo")
-                .id(UUID.randomUUID().toString())
-                .claim("uid", user.getId())
-                .claim("type", "REFRESH")
-                .issuedAt(Date.from(now))
-                .expiration(Date.from(expiry))
-                .signWith(secretKey)
-                .compact();
+        String tokenString = sign(
+                user.getEmail(),
+                tokenIdGenerator.nextId(),
+                user.getId(),
+                null,
+                null,
+                "REFRESH",
+                now.getEpochSecond(),
+                expiry.getEpochSecond()
+        );
 
         return new GeneratedToken(tokenString, expiry);
     }
 
+    /**
+     * Firma los claims con el modo configurado.
+     * <p>
+     * HMAC usa el {@link TokenMinter} de la llave activa del anillo; EdDSA/ES256 usan {@code Jwts.builder()} con el mismo
+     * orden de claims e incluyen el {@code kid} en el header para que los verificadores
+     * externos encuentren la llave en el JWKS.
+     * </p>
+     */
+    private String sign(String subject, String jti, Long uid, String role, Long permissions, String type,
+                        long issuedAt, long expiration) {
+        if (!signatureAlgorithm.isAsymmetric()) {
+            return jwtKeyRing.active().minter().mint(subject, jti, uid, role, permissions, type, issuedAt, expiration);
+        }
+        return Jwts.builder()
+                .header().keyId(keyId).and()
+                .subject(subject)
+                .issuer(ISSUER)
+                .id(jti)
+                .claim("uid", uid)
+                .claim("role", role)
+                .claim("perm", permissions)
+                .claim("type", type)
+                .issuedAt(new Date(issuedAt * 1000))
+                .expiration(new Date(expiration * 1000))
+                .signWith(privateKey, signatureAlgorithm.jwsAlgorithm())
+                .compact();
+    }
+
+    private String signCompact(String subject, String jti, Long uid, String role, long permissions,
+                               long issuedAt, long expiration) {
+        int roleCode = CompactClaims.roleCode(role);
+        int typeCode = CompactClaims.typeCode("ACCESS");
+        if (!signatureAlgorithm.isAsymmetric()) {
+            byte[] jtiBytes = new byte[Ulid.BINARY_LENGTH];
+            Ulid.toBytes(jti, jtiBytes, 0);
+            return jwtKeyRing.active().minter().mintCompact(subject, jtiBytes, uid, roleCode, permissions, typeCode, issuedAt, expiration);
+        }
+        return Jwts.builder()
+                .header().keyId(keyId).and()
+                .subject(subject)
+                .id(CompactClaims.encodeJti(jti))
+                .claim("uid", uid)
+                .claim(CompactClaims.ROLE, roleCode)
+                .claim(CompactClaims.PERMISSIONS, permissions)
+                .claim(CompactClaims.TYPE, typeCode)
+                .issuedAt(new Date(issuedAt * 1000))
+                .expiration(new Date(expiration * 1000))
+                .signWith(privateKey, signatureAlgorithm.jwsAlgorithm())
+                .compact();
+    }
+
     // =================================================================================
     // VALIDACIÓN
     // =================================================================================
@@ -107,52 +284,116 @@ public class JwtTokenProviderAdapter implements JwtTokenProviderPort {
     /**
      * Valida un Access Token entrante.
      * <p>
-     * Realiza 3 comprobaciones críticas:
+     * Realiza 4 comprobaciones críticas:
      * 1. <strong>Firma:</strong> ¿Fue generado por nosotros? (Matemáticas)
      * 2. <strong>Expiración:</strong> ¿Sigue vigente? (Tiempo)
      * 3. <strong>Blacklist:</strong> ¿Fue revocado explícitamente? (Negocio)
+     * 4. <strong>Corte de sesión:</strong> ¿Se emitió antes del último corte de su usuario (o del global)?
      * </p>
+     * Las comprobaciones 3 y 4 se omiten si al token le queda menos vida que el umbral sin estado.
+     * Devuelve el token ya parseado para que nadie tenga que volver a leerlo.
      */
     @Override
-    public boolean isAccessTokenValid(String token) {
+    public Optional<VerifiedToken> verifyAccessToken(String token) {
+        return verifyAccessToken(token, TokenDigest.of(token));
+    }
+
+    /**
+     * Variante para quien ya calculó la huella del token (ej: el filtro, que la usa también
+     * para la caché negativa del {@link BearerTokenPreValidator}).
+     */
+    public Optional<VerifiedToken> verifyAccessToken(String token, TokenDigest digest) {
         try {
-            Claims claims = getAllClaims(token);
+            VerifiedToken verified = verify(token, digest);
 
-            String type = claims.get("type", String.class);
-            if (!"ACCESS".equals(type)) {
-                log.warn("Token rejected: Expected type ACCESS but found {}", type);
-                return false;
+            if (!"ACCESS".equals(verified.type())) {
+                log.warn("Token rejected: Expected type ACCESS but found {}", verified.type());
+                return Optional.empty();
             }
 
-            String jti = claims.getId();
-            if (revokedTokenRepository.isRevoked(jti)) {
-                log.warn("Access Token rejected: JTI {} is revoked", jti);
-                return false;
+            if (isWithinStatelessThreshold(verified.expiresAt())) {
+                revocationChecksSkipped.increment();
+                return Optional.of(verified);
             }
-            return true;
+            revocationChecks.increment();
+
+            if (revokedTokenRepository.isRevoked(verified.jti())) {
+                log.warn("Access Token rejected: JTI {} is revoked", verified.jti());
+                return Optional.empty();
+            }
+
+            if (tokenCutoffRepository.isIssuedBeforeCutoff(verified.uid(), issuedAtOf(verified))) {
+                log.warn("Access Token rejected: JTI {} was issued before the session cutoff of user {}", verified.jti(), verified.uid());
+                return Optional.empty();
+            }
+            return Optional.of(verified);
         } catch (JwtException | IllegalArgumentException e) {
             log.debug("Invalid Access JWT token: {}", e.getMessage());
-            return false;
+            return Optional.empty();
         }
     }
 
     /**
      * Valida un Refresh Token entrante.
+     * <p>
+     * Un token opaco solo se revisa por forma: su dueño, expiración y revocación están en la tabla, que
+     * el servicio consulta a continuación. Un JWT se verifica completo, si el formato configurado aún lo acepta.
+     * </p>
      */
     @Override
     public boolean isRefreshTokenValid(String token) {
+        RefreshTokenFormat format = jwtProperties.getRefreshTokenFormat();
+        if (token == null) {
+            return false;
+        }
+        if (isOpaqueRefreshToken(token)) {
+            if (!format.acceptsOpaque()) {
+                log.debug("Opaque Refresh Token rejected: format {} only accepts JWT", format);
+                return false;
+            }
+            opaqueRefreshAccepted.increment();
+            return true;
+        }
+        if (!format.acceptsJwt()) {
+            log.debug("JWT Refresh Token rejected: format {} only accepts opaque tokens", format);
+            return false;
+        }
+        if (!isValidRefreshJwt(token)) {
+            return false;
+        }
+        jwtRefreshAccepted.increment();
+        return true;
+    }
+
+    private static boolean isOpaqueRefreshToken(String token) {
+        if (token.length() != OPAQUE_REFRESH_TOKEN_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < OPAQUE_REFRESH_TOKEN_LENGTH; i++) {
+            char c = token.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isValidRefreshJwt(String token) {
         try {
-            Claims claims = getAllClaims(token);
+            VerifiedToken verified = verify(token, TokenDigest.of(token));
+
+            if (!"REFRESH".equals(verified.type())) {
+                log.warn("Refresh Token rejected: Expected type REFRESH but found {}", verified.type());
+                return false;
+            }
 
-            String type = claims.get("type", String.class);
-            if (!"REFRESH".equals(type)) {
-                log.warn("Refresh Token rejected: Expected type REFRESH but found {}", type);
+            if (revokedTokenRepository.isRevoked(verified.jti())) {
+                log.warn("Refresh Token rejected: JTI {} is revoked", verified.jti());
                 return false;
             }
 
-            String jti = claims.getId();
-            if (revokedTokenRepository.isRevoked(jti)) {
-                log.warn("Refresh Token rejected: JTI {} is revoked", jti);
+            if (tokenCutoffRepository.isIssuedBeforeCutoff(verified.uid(), issuedAtOf(verified))) {
+                log.warn("Refresh Token rejected: JTI {} was issued before the session cutoff of user {}", verified.jti(), verified.uid());
                 return false;
             }
             return true;
@@ -167,23 +408,27 @@ public class JwtTokenProviderAdapter implements JwtTokenProviderPort {
     // =================================================================================
 
     /**
-     * Convierte un JWT crudo en un objeto de Autenticación oficial de Spring.
-     * Esto permite usar anotaciones como @PreAuthorize("hasRole('ADMIN')") en los controladores.
+     * Convierte un token ya verificado en un objeto de Autenticación oficial de Spring.
+     * <p>
+     * El {@link VerifiedToken} viaja como credencial: quien necesite el JTI, la expiración
+     * (logout, cambio de rol) o la máscara de permisos ({@code @RequiresPermission}) lo lee
+     * de aquí sin volver a parsear el JWT.
+     * </p>
+     * <p>
+     * La authority {@code ROLE_xxx} se mantiene por compatibilidad con {@code hasRole(...)};
+     * las listas son constantes por rol, no se construyen en cada request.
+     * </p>
      */
-    public Authentication getAuthentication(String token) {
-        Claims claims = getAllClaims(token);
-        String username = claims.getSubject();
-        String role = claims.get("role", String.class);     // Extraemos el claim personalizado
-
-        // Convertimos el rol (String) en una Authority de Spring
-        List<SimpleGrantedAuthority> authorities = Collections.singletonList(
-                new SimpleGrantedAuthority("ROLE_" + role)
-        );
+    public Authentication getAuthentication(VerifiedToken verifiedToken) {
+        List<SimpleGrantedAuthority> authorities = ROLE_AUTHORITIES.get(verifiedToken.role());
+        if (authorities == null) {
+            authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + verifiedToken.role()));
+        }
 
         // Creamos un User interno de Spring (UserDetails) mínimo
-        var principal = new org.springframework.security.core.userdetails.User(username, "", authorities);
+        var principal = new org.springframework.security.core.userdetails.User(verifiedToken.subject(), "", authorities);
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        return new UsernamePasswordAuthenticationToken(principal, verifiedToken, authorities);
     }
 
     // =================================================================================
@@ -191,33 +436,134 @@ public class JwtTokenProviderAdapter implements JwtTokenProviderPort {
     // =================================================================================
 
     /**
-     * Método genérico para extraer cualquier dato del token de forma segura.
+     * Verifica la firma y devuelve los datos del token.
+     * <p>
+     * Si el mismo token ya fue verificado antes (y no expiró), se devuelve el resultado
+     * de la {@link VerifiedClaimsCache} sin volver a parsear ni recalcular el HMAC.
+     * Si no, se intenta el {@link AccessTokenDecoder} de la llave indicada por el header (camino rápido)
+     * y, ante cualquier duda, se delega en jjwt.
+     * </p>
      */
-    public <T> T getClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaims(token);
-        return claimsResolver.apply(claims);
+    private VerifiedToken verify(String token, TokenDigest digest) {
+        VerifiedToken cached = verifiedClaimsCache.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        VerifiedToken verified = null;
+        if (!signatureAlgorithm.isAsymmetric()) {
+            JwtKeyRing.SigningKey key = jwtKeyRing.forToken(token);
+            if (key != null) {
+                verified = key.decoder().decode(token);
+            }
+        }
+        if (verified == null) {
+            Claims claims = jwtParser
+                    .parseSignedClaims(token)
+                    .getPayload();
+            verified = toVerifiedToken(claims);
+        }
+
+        verifiedClaimsCache.put(digest, verified);
+        return verified;
+    }
+
+    private VerifiedToken toVerifiedToken(Claims claims) {
+        Integer typeCode = claims.get(CompactClaims.TYPE, Integer.class);
+        if (typeCode != null) {
+            Integer roleCode = claims.get(CompactClaims.ROLE, Integer.class);
+            String type = CompactClaims.typeName(typeCode);
+            String role = roleCode != null ? CompactClaims.roleName(roleCode) : null;
+            if (type == null || (roleCode != null && role == null) || claims.containsKey("type")) {
+                throw new IllegalArgumentException("Invalid compact token profile");
+            }
+            return toVerifiedToken(
+                    CompactClaims.decodeJti(claims.getId()),
+                    claims,
+                    role,
+                    type,
+                    claims.get(CompactClaims.PERMISSIONS, Long.class)
+            );
+        }
+        return toVerifiedToken(
+                claims.getId(),
+                claims,
+                claims.get("role", String.class),
+                claims.get("type", String.class),
+                claims.get("perm", Long.class)
+        );
+    }
+
+    private VerifiedToken toVerifiedToken(String jti, Claims claims, String role, String type, Long permissions) {
+        Long uid = claims.get("uid", Long.class);
+        Instant issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : Instant.EPOCH;
+        Instant expiresAt = claims.getExpiration().toInstant();
+        if (permissions == null) {
+            // Token previo al claim de permisos: se derivan del rol
+            return new VerifiedToken(jti, uid, claims.getSubject(), role, issuedAt, expiresAt, type);
+        }
+        return new VerifiedToken(jti, uid, claims.getSubject(), role, issuedAt, expiresAt, type, permissions);
+    }
+
+    /**
+     * Momento de emisión para comparar con los cortes de sesión.
+     * <p>
+     * El {@code iat} tiene resolución de segundos: un login inmediatamente posterior al corte caería en el mismo
+     * segundo. Los JTI ULID llevan el instante de emisión en milisegundos (y están firmados), así que se usa ese.
+     * </p>
+     */
+    private static Instant issuedAtOf(VerifiedToken verified) {
+        return Ulid.isUlid(verified.jti()) ? Instant.ofEpochMilli(Ulid.timestamp(verified.jti())) : verified.issuedAt();
+    }
+
+    /**
+     * Headers (codificados en Base64URL) que emitimos. Lo que no empiece por uno de ellos
+     * no es nuestro y se puede descartar sin tocar la criptografía.
+     */
+    public List<String> getAcceptedHeaders() {
+        return signatureAlgorithm.isAsymmetric() ? acceptedHeaders : jwtKeyRing.acceptedHeaders();
     }
 
-    private Claims getAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * JWKS (RFC 7517) ya serializado con las llaves públicas de verificación.
+     * En modo HMAC está vacío: un secreto simétrico jamás se publica.
+     */
+    public String getJwksJson() {
+        return jwksJson;
     }
 
+    /**
+     * Revocar un token al que le queda menos vida que el umbral sin estado no sirve: la validación
+     * ya no consultaría la Lista Negra.
+     */
     @Override
-    public String getUsernameFromToken(String token) {
-        return getClaim(token, Claims::getSubject);
+    public boolean isRevocationRequired(Instant expiresAt) {
+        if (isWithinStatelessThreshold(expiresAt)) {
+            revocationsNotPersisted.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isWithinStatelessThreshold(Instant expiresAt) {
+        long thresholdSeconds = jwtProperties.getStatelessValidationThresholdSeconds();
+        return thresholdSeconds > 0
+                && expiresAt.toEpochMilli() - System.currentTimeMillis() < thresholdSeconds * 1000;
     }
 
     @Override
-    public String getJtiFromToken(String token) {
-        return getClaim(token, Claims::getId);
+    public String metricsName() {
+        return "token-validation";
     }
 
     @Override
-    public Instant getExpirationFromToken(String token) {
-        return getClaim(token, Claims::getExpiration).toInstant();
+    public Map<String, Long> metrics() {
+        return Map.of(
+                "revocation-checks", revocationChecks.sum(),
+                "revocation-checks-skipped", revocationChecksSkipped.sum(),
+                "revocations-not-persisted", revocationsNotPersisted.sum(),
+                "refresh-opaque-accepted", opaqueRefreshAccepted.sum(),
+                "refresh-jwt-accepted", jwtRefreshAccepted.sum()
+        );
     }
-}
\ No newline at end of file
+}
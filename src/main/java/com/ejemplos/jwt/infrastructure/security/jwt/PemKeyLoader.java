@@ -0,0 +1,60 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * Lee llaves en formato PEM estándar (las que genera {@code openssl}):
+ * privada en PKCS#8 ({@code BEGIN PRIVATE KEY}) y pública en X.509 ({@code BEGIN PUBLIC KEY}).
+ */
+final class PemKeyLoader {
+
+    private PemKeyLoader() {
+    }
+
+    static PrivateKey readPrivateKey(String path, String keyFactoryAlgorithm) {
+        byte[] der = readPem(path, "PRIVATE KEY");
+        try {
+            return KeyFactory.getInstance(keyFactoryAlgorithm).generatePrivate(new PKCS8EncodedKeySpec(der));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid " + keyFactoryAlgorithm + " private key: " + path, e);
+        }
+    }
+
+    static PublicKey readPublicKey(String path, String keyFactoryAlgorithm) {
+        byte[] der = readPem(path, "PUBLIC KEY");
+        try {
+            return KeyFactory.getInstance(keyFactoryAlgorithm).generatePublic(new X509EncodedKeySpec(der));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid " + keyFactoryAlgorithm + " public key: " + path, e);
+        }
+    }
+
+    private static byte[] readPem(String path, String type) {
+        if (path == null || path.isBlank()) {
+            throw new IllegalStateException("Missing PEM path for " + type);
+        }
+        String pem;
+        try {
+            pem = Files.readString(Path.of(path));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + type + " from " + path, e);
+        }
+        String begin = "-----BEGIN " + type + "-----";
+        String end = "-----END " + type + "-----";
+        int from = pem.indexOf(begin);
+        int to = pem.indexOf(end);
+        if (from < 0 || to < from) {
+            throw new IllegalStateException("Expected a '" + begin + "' block in " + path);
+        }
+        return Base64.getMimeDecoder().decode(pem.substring(from + begin.length(), to));
+    }
+}
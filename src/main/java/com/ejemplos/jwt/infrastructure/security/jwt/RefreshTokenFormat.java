@@ -0,0 +1,31 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+/**
+ * Formato de los Refresh Tokens que emitimos y aceptamos.
+ * <p>
+ * <strong>JWT</strong> (por defecto): token firmado; al refrescar se verifica la firma y se consulta la Lista Negra
+ * antes de ir a la tabla {@code refresh_tokens}.<br>
+ * <strong>MIGRATION</strong>: se emiten opacos, pero se siguen aceptando los JWT ya entregados. Se deja así hasta que
+ * vence el último JWT ({@code jwt.refresh-token-expiration-seconds} después del cambio).<br>
+ * <strong>OPAQUE</strong>: 256 bits aleatorios en Base64URL. No se firman ni se parsean: todo su estado
+ * (dueño, expiración, revocación) vive en la tabla, que ya se consulta en cada refresco.
+ * </p>
+ */
+public enum RefreshTokenFormat {
+
+    JWT,
+    MIGRATION,
+    OPAQUE;
+
+    public boolean issuesOpaque() {
+        return this != JWT;
+    }
+
+    public boolean acceptsJwt() {
+        return this != OPAQUE;
+    }
+
+    public boolean acceptsOpaque() {
+        return this != JWT;
+    }
+}
@@ -0,0 +1,326 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * Motor de emisión de JWT firmados con HMAC, pensado para ráfagas de login.
+ * <p>
+ * <strong>¿Qué evita respecto a {@code Jwts.builder()}?</strong>
+ * <ul>
+ * <li>Reconstruir y serializar el header en cada token: se guarda ya codificado en Base64URL.</li>
+ * <li>Re-serializar claims constantes ({@code iss}, {@code type}): son fragmentos de bytes precalculados.</li>
+ * <li>Crear un {@link Mac} nuevo por token: cada hilo reutiliza el suyo.</li>
+ * <li>Pasar por un Map y Jackson: el payload se escribe directo en un buffer reutilizable.</li>
+ * </ul>
+ * El resultado es un JWS compacto estándar (mismo header, mismo orden de claims que jjwt),
+ * así que jjwt y el {@link AccessTokenDecoder} lo verifican igual que antes.
+ * </p>
+ */
+public class TokenMinter {
+
+    private static final byte[] BASE64_URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] encodedHeader;
+    private final byte[] issuerAndJtiFragment;
+    private final ThreadLocal<Scratch> scratch;
+
+    private static final byte[] SUB_FRAGMENT = ascii("{\"sub\":\"");
+    private static final byte[] UID_FRAGMENT = ascii("\",\"uid\":");
+    private static final byte[] ROLE_FRAGMENT = ascii(",\"role\":\"");
+    private static final byte[] ROLE_END_FRAGMENT = ascii("\"");
+    private static final byte[] PERMISSIONS_FRAGMENT = ascii(",\"perm\":");
+    private static final byte[] JTI_END_FRAGMENT = ascii("\"");
+    private static final byte[] IAT_FRAGMENT = ascii(",\"iat\":");
+    private static final byte[] EXP_FRAGMENT = ascii(",\"exp\":");
+    private static final byte[] END_FRAGMENT = ascii("}");
+
+    // Perfil compacto (ver CompactClaims)
+    private static final byte[] COMPACT_JTI_FRAGMENT = ascii("\",\"jti\":\"");
+    private static final byte[] COMPACT_UID_FRAGMENT = ascii(",\"uid\":");
+    private static final byte[] COMPACT_ROLE_FRAGMENT = ascii(",\"r\":");
+    private static final byte[] COMPACT_PERMISSIONS_FRAGMENT = ascii(",\"p\":");
+    private static final byte[] COMPACT_TYPE_FRAGMENT = ascii(",\"t\":");
+
+    public TokenMinter(SecretKey secretKey, String issuer) {
+        this(secretKey, issuer, null);
+    }
+
+    /**
+     * @param keyId {@code kid} a estampar en el header ({@code null} para omitirlo).
+     */
+    public TokenMinter(SecretKey secretKey, String issuer, String keyId) {
+        this.encodedHeader = (AccessTokenDecoder.encodedHeader(secretKey, keyId) + ".")
+                .getBytes(StandardCharsets.US_ASCII);
+        this.issuerAndJtiFragment = ("\",\"iss\":\"" + issuer + "\",\"jti\":\"").getBytes(StandardCharsets.UTF_8);
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(secretKey));
+    }
+
+    /**
+     * Emite un token firmado.
+     *
+     * @param subject    Email del usuario (claim {@code sub}).
+     * @param jti        ID único del token.
+     * @param uid        ID del usuario (se omite si es {@code null}, igual que jjwt).
+     * @param role       Rol del usuario (se omite si es {@code null}, ej: Refresh Tokens).
+     * @param type       Tipo de token: "ACCESS" o "REFRESH".
+     * @param issuedAt   Fecha de emisión en segundos epoch.
+     * @param expiration Fecha de expiración en segundos epoch.
+     */
+    public String mint(String subject, String jti, Long uid, String role, String type, long issuedAt, long expiration) {
+        return mint(subject, jti, uid, role, null, type, issuedAt, expiration);
+    }
+
+    /**
+     * Igual que {@link #mint(String, String, Long, String, String, long, long)}, con la máscara
+     * de permisos ({@code perm}, se omite si es {@code null}).
+     */
+    public String mint(String subject, String jti, Long uid, String role, Long permissions, String type,
+                       long issuedAt, long expiration) {
+        Scratch s = scratch.get();
+
+        // 1. Payload JSON (mismo orden que Jwts.builder(): sub, iss, jti, uid, role, perm, type, iat, exp)
+        Buffer json = s.json.reset();
+        json.put(SUB_FRAGMENT).putJsonString(subject)
+                .put(issuerAndJtiFragment).putJsonString(jti);
+        if (uid != null) {
+            json.put(UID_FRAGMENT).putLong(uid);
+        } else {
+            json.put(JTI_END_FRAGMENT);
+        }
+        if (role != null) {
+            json.put(ROLE_FRAGMENT).putJsonString(role).put(ROLE_END_FRAGMENT);
+        }
+        if (permissions != null) {
+            json.put(PERMISSIONS_FRAGMENT).putLong(permissions);
+        }
+        json.put(typeFragment(type))
+                .put(IAT_FRAGMENT).putLong(issuedAt)
+                .put(EXP_FRAGMENT).putLong(expiration)
+                .put(END_FRAGMENT);
+
+        // 2. "header.payload" en Base64URL y firma HMAC sobre esos bytes
+        return sign(s, json);
+    }
+
+    /**
+     * Emite un token con el perfil compacto: sin {@code iss}, rol y tipo numéricos y JTI binario.
+     *
+     * @param jti      Los 16 bytes del JTI (ULID).
+     * @param roleCode    Código del rol, o negativo para omitirlo.
+     * @param permissions Máscara de permisos, o negativo para omitirla.
+     * @param typeCode    Código del tipo de token.
+     */
+    public String mintCompact(String subject, byte[] jti, Long uid, int roleCode, long permissions, int typeCode,
+                              long issuedAt, long expiration) {
+        Scratch s = scratch.get();
+
+        Buffer json = s.json.reset();
+        json.put(SUB_FRAGMENT).putJsonString(subject)
+                .put(COMPACT_JTI_FRAGMENT).putBase64Url(jti, jti.length).put(JTI_END_FRAGMENT);
+        if (uid != null) {
+            json.put(COMPACT_UID_FRAGMENT).putLong(uid);
+        }
+        if (roleCode >= 0) {
+            json.put(COMPACT_ROLE_FRAGMENT).putLong(roleCode);
+        }
+        if (permissions >= 0) {
+            json.put(COMPACT_PERMISSIONS_FRAGMENT).putLong(permissions);
+        }
+        json.put(COMPACT_TYPE_FRAGMENT).putLong(typeCode)
+                .put(IAT_FRAGMENT).putLong(issuedAt)
+                .put(EXP_FRAGMENT).putLong(expiration)
+                .put(END_FRAGMENT);
+
+        return sign(s, json);
+    }
+
+    private String sign(Scratch s, Buffer json) {
+        Buffer out = s.out.reset();
+        out.put(encodedHeader);
+        out.putBase64Url(json.bytes, json.length);
+
+        try {
+            s.mac.update(out.bytes, 0, out.length);
+            s.mac.doFinal(s.signature, 0);
+        } catch (GeneralSecurityException e) {
+            s.mac.reset();
+            throw new IllegalStateException("Cannot sign token", e);
+        }
+        out.putByte('.');
+        out.putBase64Url(s.signature, s.mac.getMacLength());
+
+        return new String(out.bytes, 0, out.length, StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] typeFragment(String type) {
+        return switch (type) {
+            case "ACCESS" -> TypeFragments.ACCESS;
+            case "REFRESH" -> TypeFragments.REFRESH;
+            default -> ascii(",\"type\":\"" + type + "\"");
+        };
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class TypeFragments {
+        private static final byte[] ACCESS = ascii(",\"type\":\"ACCESS\"");
+        private static final byte[] REFRESH = ascii(",\"type\":\"REFRESH\"");
+    }
+
+    /**
+     * Estado reutilizable de cada hilo: {@link Mac} inicializado y buffers de trabajo.
+     */
+    private static final class Scratch {
+        private final Mac mac;
+        private final Buffer json = new Buffer(512);
+        private final Buffer out = new Buffer(1024);
+        private final byte[] signature = new byte[64];
+
+        private Scratch(SecretKey secretKey) {
+            try {
+                this.mac = Mac.getInstance(secretKey.getAlgorithm());
+                this.mac.init(secretKey);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialize " + secretKey.getAlgorithm(), e);
+            }
+        }
+    }
+
+    /**
+     * Buffer de bytes creciente (solo crece si un email extraordinariamente largo no entra).
+     */
+    private static final class Buffer {
+        private byte[] bytes;
+        private int length;
+
+        private Buffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        private Buffer reset() {
+            length = 0;
+            return this;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                byte[] bigger = new byte[Math.max(bytes.length * 2, length + extra)];
+                System.arraycopy(bytes, 0, bigger, 0, length);
+                bytes = bigger;
+            }
+        }
+
+        private Buffer putByte(int b) {
+            ensure(1);
+            bytes[length++] = (byte) b;
+            return this;
+        }
+
+        private Buffer put(byte[] fragment) {
+            ensure(fragment.length);
+            System.arraycopy(fragment, 0, bytes, length, fragment.length);
+            length += fragment.length;
+            return this;
+        }
+
+        private Buffer putLong(long value) {
+            if (value == 0) {
+                return putByte('0');
+            }
+            if (value < 0) {
+                if (value == Long.MIN_VALUE) {
+                    return put(ascii(Long.toString(value)));
+                }
+                putByte('-');
+                value = -value;
+            }
+            int digits = 0;
+            for (long v = value; v > 0; v /= 10) {
+                digits++;
+            }
+            ensure(digits);
+            for (int i = length + digits - 1; i >= length; i--) {
+                bytes[i] = (byte) ('0' + (value % 10));
+                value /= 10;
+            }
+            length += digits;
+            return this;
+        }
+
+        /**
+         * Escribe el contenido de un String JSON (sin comillas) en UTF-8, escapando lo necesario.
+         */
+        private Buffer putJsonString(String text) {
+            ensure(text.length() * 6);
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    bytes[length++] = '\\';
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x20) {
+                    bytes[length++] = '\\';
+                    bytes[length++] = 'u';
+                    bytes[length++] = '0';
+                    bytes[length++] = '0';
+                    bytes[length++] = HEX[c >> 4];
+                    bytes[length++] = HEX[c & 0xF];
+                } else if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[length++] = (byte) (0xC0 | (c >> 6));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, text.charAt(++i));
+                    bytes[length++] = (byte) (0xF0 | (cp >> 18));
+                    bytes[length++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    bytes[length++] = '?'; // Surrogate huérfano: mismo reemplazo que String.getBytes(UTF_8)
+                } else {
+                    bytes[length++] = (byte) (0xE0 | (c >> 12));
+                    bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Codifica {@code src[0..srcLength)} en Base64URL sin padding al final del buffer.
+         */
+        private Buffer putBase64Url(byte[] src, int srcLength) {
+            ensure((srcLength * 4 + 2) / 3);
+            int i = 0;
+            while (i + 3 <= srcLength) {
+                int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+                bytes[length++] = BASE64_URL[(bits >>> 18) & 0x3F];
+                bytes[length++] = BASE64_URL[(bits >>> 12) & 0x3F];
+                bytes[length++] = BASE64_URL[(bits >>> 6) & 0x3F];
+                bytes[length++] = BASE64_URL[bits & 0x3F];
+                i += 3;
+            }
+            int remaining = srcLength - i;
+            if (remaining == 1) {
+                int bits = (src[i] & 0xFF) << 16;
+                bytes[length++] = BASE64_URL[(bits >>> 18) & 0x3F];
+                bytes[length++] = BASE64_URL[(bits >>> 12) & 0x3F];
+            } else if (remaining == 2) {
+                int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8;
+                bytes[length++] = BASE64_URL[(bits >>> 18) & 0x3F];
+                bytes[length++] = BASE64_URL[(bits >>> 12) & 0x3F];
+                bytes[length++] = BASE64_URL[(bits >>> 6) & 0x3F];
+            }
+            return this;
+        }
+    }
+}
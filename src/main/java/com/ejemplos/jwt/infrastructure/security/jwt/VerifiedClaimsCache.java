@@ -0,0 +1,154 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import com.ejemplos.jwt.application.ports.out.VerifiedToken;
+import com.ejemplos.jwt.infrastructure.cache.TimingWheel;
+import com.ejemplos.jwt.infrastructure.metrics.MetricsSource;
+import com.ejemplos.jwt.infrastructure.security.TokenDigest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché acotada de tokens cuya firma ya fue verificada ({@link VerifiedToken}).
+ * <p>
+ * <strong>¿Por qué?</strong> Un cliente SPA envía el mismo Access Token cientos de veces
+ * durante sus 15 minutos de vida. Verificar el HMAC y deserializar el JSON en cada request
+ * es trabajo repetido: si ya comprobamos una vez que el token es auténtico, su contenido no cambia.
+ * </p>
+ * <p>
+ * <strong>Reglas:</strong>
+ * <ul>
+ * <li>La clave es la huella SHA-256 del token ({@link TokenDigest}), nunca el token en claro.</li>
+ * <li>Cada entrada muere en el {@code exp} del token: una {@link TimingWheel} la desaloja en ese tick
+ * (la lectura igual compara el {@code exp}, porque la rueda puede ir hasta un tick atrasada).</li>
+ * <li>El tamaño está acotado por {@code jwt.claims-cache-max-size}; al llenarse se desalojan
+ * entradas arbitrarias (las vencidas ya no están: no hace falta recorrer el Map buscándolas).</li>
+ * </ul>
+ * La caché NO reemplaza la consulta a la Blacklist: un token revocado sigue siendo auténtico,
+ * así que esa comprobación se hace siempre fuera de aquí.
+ * </p>
+ */
+@Component
+public class VerifiedClaimsCache implements MetricsSource {
+
+    private final Map<TokenDigest, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final TimingWheel<TokenDigest> expirations = new TimingWheel<>(1_000, this::expire);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedClaimsCache(JwtProperties jwtProperties) {
+        this.maxSize = jwtProperties.getClaimsCacheMaxSize();
+    }
+
+    /**
+     * Busca el resultado ya verificado de un token.
+     *
+     * @return el token verificado, o {@code null} si no está en caché (o venció).
+     */
+    public VerifiedToken get(TokenDigest digest) {
+        if (maxSize <= 0) {
+            misses.increment();
+            return null;
+        }
+        Entry entry = entries.get(digest);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            // Venció dentro del tick en curso (la rueda todavía no pasó): el token ya no sirve
+            if (entries.remove(digest, entry)) {
+                expirations.cancel(entry.timeout());
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.token();
+    }
+
+    /**
+     * Guarda un token cuya firma acaba de ser verificada.
+     */
+    public void put(TokenDigest digest, VerifiedToken token) {
+        if (maxSize <= 0 || token.expiresAt() == null) {
+            return;
+        }
+        long expiresAtMillis = token.expiresAt().toEpochMilli();
+        if (entries.size() >= maxSize) {
+            makeRoom();
+        }
+        Entry previous = entries.put(digest, new Entry(token, expiresAtMillis, expirations.schedule(digest, expiresAtMillis)));
+        if (previous != null) {
+            expirations.cancel(previous.timeout());
+        }
+    }
+
+    /**
+     * Desaloja entradas arbitrarias hasta bajar del límite.
+     */
+    private void makeRoom() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() >= maxSize && it.hasNext()) {
+            expirations.cancel(it.next().timeout());
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Avanza la rueda de vencimientos: desaloja lo que venció en el último segundo.
+     */
+    @Scheduled(fixedDelay = 1_000)
+    void evictExpired() {
+        expirations.advanceTo(System.currentTimeMillis());
+    }
+
+    private void expire(TokenDigest digest) {
+        if (entries.remove(digest) != null) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Vacía la caché (ej: al retirar una llave de firma, sus tokens dejan de ser válidos).
+     */
+    public void clear() {
+        evictions.add(entries.size());
+        entries.clear();
+        expirations.clear();
+    }
+
+    public long size() {
+        return entries.size();
+    }
+
+    @Override
+    public String metricsName() {
+        return "verified-claims-cache";
+    }
+
+    @Override
+    public Map<String, Long> metrics() {
+        return Map.of(
+                "size", size(),
+                "hits", hits.sum(),
+                "misses", misses.sum(),
+                "evictions", evictions.sum()
+        );
+    }
+
+    private record Entry(VerifiedToken token, long expiresAtMillis, TimingWheel.Timeout<TokenDigest> timeout) {
+        boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+}
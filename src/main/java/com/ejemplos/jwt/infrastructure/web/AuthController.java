@@ -1,7 +1,7 @@
 package com.ejemplos.jwt.infrastructure.web;
 
 import com.ejemplos.jwt.application.ports.in.*;
-import com.ejemplos.jwt.application.ports.out.JwtTokenProviderPort;
+import com.ejemplos.jwt.application.ports.out.VerifiedToken;
 import com.ejemplos.jwt.infrastructure.web.dto.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -18,8 +18,6 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.Instant;
-
 /**
  * Controlador REST para la gestión de la identidad y sesiones.
  * <p>
@@ -36,7 +34,6 @@ public class AuthController {
     private final LoginUseCase loginUseCase;
     private final RegisterUseCase registerUseCase;
     private final RefreshTokenUseCase refreshTokenUseCase;
-    private final JwtTokenProviderPort jwtTokenProviderPort;
     private final LogoutUseCase logoutUseCase;
     private final RequestRecoveryUseCase requestRecoveryUseCase;
     private final ResetPasswordUseCase resetPasswordUseCase;
@@ -117,16 +114,13 @@ public class AuthController {
 
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        String accessToken = (String) authentication.getCredentials();
-
-        String jti = jwtTokenProviderPort.getJtiFromToken(accessToken);
-        Instant expiration = jwtTokenProviderPort.getExpirationFromToken(accessToken);
-        String email = authentication.getName();
+        // El filtro ya verificó y parseó el Access Token: leemos sus datos sin re-parsear
+        VerifiedToken accessToken = (VerifiedToken) authentication.getCredentials();
 
         LogoutCommand command = new LogoutCommand(
-                jti,
-                email,
-                expiration,
+                accessToken.jti(),
+                authentication.getName(),
+                accessToken.expiresAt(),
                 request.refreshToken()
         );
 
@@ -174,13 +168,8 @@ public class AuthController {
             @ApiResponse(responseCode = "404", description = "Usuario no encontrado en la base de datos (Token desincronizado).", content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
         }
     )
-    public ResponseEntity<Void> switchMyRole(Authentication authentication, @RequestHeader("Authorization") String authHeader) {
-        changeRoleUseCase.changeRole(
-                new ChangeRoleCommand(
-                    authentication.getName(),
-                    authHeader.replace("Bearer ", "")
-                )
-        );
+    public ResponseEntity<Void> switchMyRole(Authentication authentication) {
+        changeRoleUseCase.changeRole(new ChangeRoleCommand(authentication.getName()));
         return ResponseEntity.ok().build();
     }
 }
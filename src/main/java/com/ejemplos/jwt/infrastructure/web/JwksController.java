@@ -0,0 +1,56 @@
+package com.ejemplos.jwt.infrastructure.web;
+
+import com.ejemplos.jwt.infrastructure.security.jwt.JwtProperties;
+import com.ejemplos.jwt.infrastructure.security.jwt.JwtTokenProviderAdapter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publica las llaves públicas de verificación en formato JWKS (RFC 7517).
+ * <p>
+ * Con firma asimétrica (EdDSA / ES256), los demás servicios descargan este documento una vez,
+ * lo cachean según {@code Cache-Control} y verifican nuestros tokens localmente,
+ * sin llamar a este servicio en cada request. El cuerpo se serializa una sola vez al arrancar.
+ * </p>
+ */
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Llaves públicas", description = "JWKS para verificación local de tokens")
+public class JwksController {
+
+    private final JwtTokenProviderAdapter jwtTokenProviderAdapter;
+    private final JwtProperties jwtProperties;
+
+    private String body;
+    private String eTag;
+    private CacheControl cacheControl;
+
+    @PostConstruct
+    void init() {
+        this.body = jwtTokenProviderAdapter.getJwksJson();
+        this.eTag = "\"" + DigestUtils.md5DigestAsHex(body.getBytes(StandardCharsets.UTF_8)) + "\"";
+        this.cacheControl = CacheControl.maxAge(jwtProperties.getJwksCacheSeconds(), TimeUnit.SECONDS).cachePublic();
+    }
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "JWKS", description = "Llaves públicas para verificar los tokens emitidos. Vacío en modo HMAC.")
+    public ResponseEntity<String> jwks(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        if (eTag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(body);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ejemplos.jwt.infrastructure.web;
+
+import com.ejemplos.jwt.domain.enums.Permission;
+import com.ejemplos.jwt.infrastructure.metrics.MetricsSource;
+import com.ejemplos.jwt.infrastructure.security.authorization.RequiresPermission;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Controlador de administración que expone los contadores internos de la infraestructura.
+ * <p>
+ * Agrega todos los {@link MetricsSource} registrados en el contexto (cachés de tokens, etc.)
+ * para poder observar su efectividad (hits/misses/evictions) sin herramientas externas.
+ * </p>
+ */
+@RestController
+@RequestMapping("api/admin/metrics")
+@RequiredArgsConstructor
+@Tag(name = "Administración", description = "Contadores internos de la infraestructura de seguridad")
+@SecurityRequirement(name = "bearerAuth")
+public class MetricsController {
+
+    private final List<MetricsSource> metricsSources;
+
+    @GetMapping
+    @RequiresPermission(Permission.METRICS_READ)
+    @Operation(summary = "Contadores internos", description = "Devuelve los contadores de cada componente instrumentado. Requiere el permiso METRICS_READ.")
+    public Map<String, Map<String, Long>> metrics() {
+        Map<String, Map<String, Long>> result = new TreeMap<>();
+        for (MetricsSource source : metricsSources) {
+            result.put(source.metricsName(), new TreeMap<>(source.metrics()));
+        }
+        return result;
+    }
+}
@@ -1,5 +1,7 @@
 package com.ejemplos.jwt.infrastructure.web;
 
+import com.ejemplos.jwt.domain.enums.Permission;
+import com.ejemplos.jwt.infrastructure.security.authorization.RequiresPermission;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -7,16 +9,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.ProblemDetail;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
- * Controlador de ejemplo protegido por Roles.
+ * Controlador de ejemplo protegido por Permisos.
  * <p>
- * Demuestra el uso de la anotación {@code @PreAuthorize} para restringir el acceso
- * basándose en los 'Authorities' cargados en el token JWT.
+ * Demuestra el uso de la anotación {@link RequiresPermission} para restringir el acceso
+ * basándose en la máscara de permisos cargada en el token JWT (cada rol agrupa sus permisos,
+ * ver {@link com.ejemplos.jwt.domain.enums.UserRole}).
  * </p>
  */
 @RestController
@@ -26,10 +28,10 @@ import org.springframework.web.bind.annotation.RestController;
 public class UserController {
 
     @GetMapping("/admin")
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresPermission(Permission.USERS_ADMIN_AREA)
     @Operation(
             summary = "Endpoint solo para Administradores",
-            description = "Requiere que el usuario tenga el rol 'ADMIN' en su JWT.",
+            description = "Requiere el permiso USERS_ADMIN_AREA en su JWT (incluido en el rol 'ADMIN').",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Acceso permitido"),
                     @ApiResponse(responseCode = "403", description = "Forbidden: Tienes token válido pero NO eres ADMIN", content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
@@ -40,10 +42,10 @@ public class UserController {
     }
 
     @GetMapping("/client")
-    @PreAuthorize("hasRole('CLIENT')")
+    @RequiresPermission(Permission.USERS_CLIENT_AREA)
     @Operation(
             summary = "Endpoint solo para Clientes",
-            description = "Requiere que el usuario tenga el rol 'CLIENT' en su JWT.",
+            description = "Requiere el permiso USERS_CLIENT_AREA en su JWT (incluido en el rol 'CLIENT').",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Acceso permitido"),
                     @ApiResponse(responseCode = "403", description = "Forbidden: Tienes token válido pero NO eres CLIENT", content = @Content(schema = @Schema(implementation = ProblemDetail.class)))
@@ -54,10 +56,10 @@ public class UserController {
     }
 
     @GetMapping("/common")
-    @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
+    @RequiresPermission(Permission.USERS_COMMON_AREA)
     @Operation(
             summary = "Endpoint común",
-            description = "Accesible para cualquier usuario autenticado con rol ADMIN o CLIENT."
+            description = "Requiere el permiso USERS_COMMON_AREA (incluido en los roles ADMIN y CLIENT)."
     )
     public String commonEndpoint() {
         return "If you see this, then you are an administrator or a client.";
@@ -11,7 +11,7 @@ import jakarta.validation.constraints.Size;
  * </p>
  */
 public record ResetPasswordRequest(
-        @Schema(description = "El token UUID recibido por correo", example = "550e8400-e29b-41d4-a716-446655440000")
+        @Schema(description = "El token recibido por correo", example = "01JA8Z6Q9X4M7T2C5V0N3B8K1R")
         @NotBlank(message = "The refresh token must not be blank")
         String token,
 
@@ -3,6 +3,7 @@ package com.ejemplos.jwt.infrastructure.web.exception;
 import com.ejemplos.jwt.domain.exception.generic.BadRequestException;
 import com.ejemplos.jwt.domain.exception.generic.ConflictException;
 import com.ejemplos.jwt.domain.exception.generic.ResourceNotFound;
+import com.ejemplos.jwt.domain.exception.generic.ServiceUnavailableException;
 import com.ejemplos.jwt.domain.exception.generic.UnauthorizedException;
 import com.ejemplos.jwt.domain.exception.personalized.SecurityBreachException;
 import org.springframework.http.*;
@@ -62,6 +63,16 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return problem;
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleServiceUnavailable(ServiceUnavailableException e) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        problem.setTitle("Service Unavailable");
+        problem.setType(URI.create(ERROR_URI_BASE + "service-unavailable"));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(problem);
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ProblemDetail handleDomainException(BadCredentialsException e) {
         ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.UNAUTHORIZED, "Invalid email or password");
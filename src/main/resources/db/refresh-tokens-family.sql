@@ -0,0 +1,20 @@
+-- =====================================================================================
+-- Migración: familias de Refresh Tokens ('refresh_tokens.family_id', UUID en BINARY(16))
+-- =====================================================================================
+-- Solo hace falta en bases existentes con JPA_DDL_AUTO=none/validate.
+-- Cada login abre una familia y las rotaciones la heredan; el reuso revoca solo esa familia.
+-- Los tokens que ya existen no tienen cadena reconstruible (se guarda la huella del sucesor,
+-- pero no de qué login nació), así que se agrupan en una familia por usuario derivada de su id:
+-- para ellos, el reuso sigue cerrando todas las sesiones del usuario, como antes. Desaparecen
+-- solas cuando vencen los tokens (jwt.refresh-token-expiration-seconds).
+-- =====================================================================================
+
+ALTER TABLE refresh_tokens
+    ADD COLUMN family_id BINARY(16) NULL;
+
+UPDATE refresh_tokens
+SET family_id = UNHEX(LPAD(HEX(user_id), 32, '0'));
+
+ALTER TABLE refresh_tokens
+    MODIFY COLUMN family_id BINARY(16) NOT NULL,
+    ADD INDEX idx_refresh_tokens_family_id (family_id);
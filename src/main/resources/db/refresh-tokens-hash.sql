@@ -0,0 +1,25 @@
+-- =====================================================================================
+-- Migración: 'refresh_tokens.token' (JWT en claro, varchar(512)) -> SHA-256 en BINARY(32)
+-- =====================================================================================
+-- Solo hace falta en bases existentes con JPA_DDL_AUTO=none/validate.
+-- La huella es la misma que TokenDigest.of(): SHA-256 de los bytes ASCII del token.
+-- 'replaced_by' pasa a ser la huella del sucesor (SHA2(NULL) es NULL).
+-- Los tokens en claro desaparecen de la tabla: las sesiones existentes siguen funcionando,
+-- porque el cliente presenta el token y se busca por su huella.
+-- =====================================================================================
+
+ALTER TABLE refresh_tokens
+    ADD COLUMN token_hash       BINARY(32) NULL,
+    ADD COLUMN replaced_by_hash BINARY(32) NULL;
+
+UPDATE refresh_tokens
+SET token_hash       = UNHEX(SHA2(token, 256)),
+    replaced_by_hash = UNHEX(SHA2(replaced_by, 256));
+
+-- Borrar 'token' borra también su índice único (el ancho)
+ALTER TABLE refresh_tokens
+    DROP COLUMN token,
+    DROP COLUMN replaced_by,
+    RENAME COLUMN replaced_by_hash TO replaced_by,
+    MODIFY COLUMN token_hash BINARY(32) NOT NULL,
+    ADD CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash);
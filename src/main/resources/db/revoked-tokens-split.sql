@@ -0,0 +1,79 @@
+-- =====================================================================================
+-- Migración: 'revoked_tokens' (jti varchar + auditoría) -> tabla caliente + tabla fría
+-- =====================================================================================
+-- Solo hace falta en bases existentes con JPA_DDL_AUTO=none/validate (con 'create' Hibernate
+-- crea las tablas nuevas desde las entidades). Requiere MySQL 8 (UUID_TO_BIN).
+--
+-- Orden recomendado:
+--   1. Ejecutar este script.
+--   2. Desplegar la versión nueva.
+--   3. Tras una vida de Access Token sin incidentes, borrar 'revoked_tokens_legacy'.
+--
+-- La conversión jti -> BINARY(16) es la misma que JtiKey.of():
+--   ULID (26 caracteres Crockford Base32) -> sus 16 bytes
+--   UUID                                  -> UUID_TO_BIN(jti) (sin reordenar)
+--   cualquier otro texto                  -> primeros 16 bytes de SHA-256(jti)
+-- =====================================================================================
+
+RENAME TABLE revoked_tokens TO revoked_tokens_legacy;
+
+CREATE TABLE revoked_tokens (
+    jti        BINARY(16)   NOT NULL,
+    expires_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (jti)
+) ENGINE = InnoDB;
+
+CREATE TABLE revoked_token_audit (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    jti        VARCHAR(255) NOT NULL,
+    subject    VARCHAR(255),
+    reason     VARCHAR(255),
+    expires_at DATETIME(6)  NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+DELIMITER //
+
+CREATE FUNCTION jti_to_bin(jti VARCHAR(255)) RETURNS BINARY(16) DETERMINISTIC
+BEGIN
+    -- 26 x 5 bits = 130 bits: cabe sin pérdida en DECIMAL(40,0)
+    DECLARE value DECIMAL(40, 0) DEFAULT 0;
+    DECLARE digit INT;
+    DECLARE i INT DEFAULT 1;
+
+    IF UPPER(jti) REGEXP BINARY '^[0-7][0-9A-HJKMNP-TV-Z]{25}$' THEN
+        WHILE i <= 26 DO
+            SET digit = LOCATE(BINARY SUBSTRING(UPPER(jti), i, 1), BINARY '0123456789ABCDEFGHJKMNPQRSTVWXYZ') - 1;
+            SET value = value * 32 + digit;
+            SET i = i + 1;
+        END WHILE;
+        -- División exacta (múltiplo de 2^64): '/' sobre DECIMAL redondea y FLOOR podría pasarse
+        RETURN CONCAT(
+            UNHEX(LPAD(CONV(CAST((value - MOD(value, 18446744073709551616)) / 18446744073709551616 AS UNSIGNED), 10, 16), 16, '0')),
+            UNHEX(LPAD(CONV(CAST(MOD(value, 18446744073709551616) AS UNSIGNED), 10, 16), 16, '0'))
+        );
+    END IF;
+
+    IF jti REGEXP '^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$' THEN
+        RETURN UUID_TO_BIN(jti);
+    END IF;
+
+    RETURN UNHEX(LEFT(SHA2(jti, 256), 32));
+END //
+
+DELIMITER ;
+
+-- Solo lo que todavía importa (lo expirado ya es inválido por sí mismo).
+-- El día de holgura cubre la zona horaria con la que se hayan guardado los DATETIME.
+INSERT IGNORE INTO revoked_tokens (jti, expires_at)
+SELECT jti_to_bin(jti), expires_at
+FROM revoked_tokens_legacy
+WHERE expires_at > UTC_TIMESTAMP(6) - INTERVAL 1 DAY;
+
+-- La auditoría se copia completa
+INSERT INTO revoked_token_audit (jti, subject, reason, expires_at, created_at)
+SELECT jti, subject, reason, expires_at, created_at
+FROM revoked_tokens_legacy;
+
+DROP FUNCTION jti_to_bin;
@@ -0,0 +1,12 @@
+-- =====================================================================================
+-- Migración: corte de sesión por usuario ('users.tokens_valid_after')
+-- =====================================================================================
+-- Solo hace falta en bases existentes con JPA_DDL_AUTO=none/validate.
+-- NULL = el usuario no tiene corte. El índice sirve a la carga del registro en memoria
+-- (solo se leen los cortes que todavía pueden afectar a algún token).
+-- =====================================================================================
+
+ALTER TABLE users
+    ADD COLUMN tokens_valid_after DATETIME(6) NULL;
+
+CREATE INDEX idx_users_tokens_valid_after ON users (tokens_valid_after);
@@ -1,6 +1,7 @@
 package com.ejemplos.jwt.application.service;
 
 import com.ejemplos.jwt.application.ports.in.LogoutCommand;
+import com.ejemplos.jwt.application.ports.out.JwtTokenProviderPort;
 import com.ejemplos.jwt.domain.exception.personalized.InvalidTokenException;
 import com.ejemplos.jwt.domain.model.RefreshToken;
 import com.ejemplos.jwt.domain.model.RevokedToken;
@@ -18,6 +19,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,6 +32,9 @@ class LogoutServiceTest {
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Mock
+    private JwtTokenProviderPort jwtTokenProviderPort;
+
     @InjectMocks
     private LogoutService logoutService;
 
@@ -42,6 +47,7 @@ class LogoutServiceTest {
 
         RefreshToken existingToken = RefreshToken.create(1L, refreshToken, Instant.now().plusSeconds(3600));
         when(refreshTokenRepository.findByToken(refreshToken)).thenReturn(Optional.of(existingToken));
+        when(jwtTokenProviderPort.isRevocationRequired(command.expiration())).thenReturn(true);
 
         // ACT
         logoutService.logout(command);
@@ -52,6 +58,25 @@ class LogoutServiceTest {
         verify(refreshTokenRepository).save(any(RefreshToken.class));
     }
 
+    @Test
+    @DisplayName("Should not blacklist an access token that expires within the stateless threshold")
+    void shouldSkipRevocationNearExpiry() {
+        // ARRANGE
+        String refreshToken = "refreshToken";
+        LogoutCommand command = new LogoutCommand("jti_123", "test@demo.com", Instant.now().plusSeconds(3), refreshToken);
+
+        RefreshToken existingToken = RefreshToken.create(1L, refreshToken, Instant.now().plusSeconds(3600));
+        when(refreshTokenRepository.findByToken(refreshToken)).thenReturn(Optional.of(existingToken));
+        when(jwtTokenProviderPort.isRevocationRequired(command.expiration())).thenReturn(false);
+
+        // ACT
+        logoutService.logout(command);
+
+        // ASSERT: el Refresh Token se revoca igual
+        verify(revokedTokenRepository, never()).save(any());
+        verify(refreshTokenRepository).save(any(RefreshToken.class));
+    }
+
     @Test
     @DisplayName("Should throw exception if refresh token does not exist")
     void shouldThrowIfRefreshTokenNotFound() {
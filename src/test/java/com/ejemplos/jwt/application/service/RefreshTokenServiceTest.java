@@ -3,11 +3,13 @@ package com.ejemplos.jwt.application.service;
 import com.ejemplos.jwt.application.ports.in.RefreshTokenResult;
 import com.ejemplos.jwt.application.ports.out.GeneratedToken;
 import com.ejemplos.jwt.application.ports.out.JwtTokenProviderPort;
+import com.ejemplos.jwt.application.ports.out.RefreshResultCache;
 import com.ejemplos.jwt.domain.exception.personalized.InvalidTokenException;
 import com.ejemplos.jwt.domain.exception.personalized.SecurityBreachException;
 import com.ejemplos.jwt.domain.model.RefreshToken;
 import com.ejemplos.jwt.domain.model.User;
 import com.ejemplos.jwt.domain.repository.RefreshTokenRepository;
+import com.ejemplos.jwt.domain.repository.TokenCutoffRepository;
 import com.ejemplos.jwt.domain.repository.UserRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -34,6 +36,12 @@ class RefreshTokenServiceTest {
     @Mock
     private JwtTokenProviderPort jwtTokenProviderPort;
 
+    @Mock
+    private TokenCutoffRepository tokenCutoffRepository;
+
+    @Mock
+    private RefreshResultCache refreshResultCache;
+
     @InjectMocks
     private RefreshTokenService refreshTokenService;
 
@@ -53,6 +61,7 @@ class RefreshTokenServiceTest {
 
         when(jwtTokenProviderPort.generateAccessToken(user)).thenReturn("newAccessToken");
         when(jwtTokenProviderPort.generateRefreshToken(user)).thenReturn(new GeneratedToken("newRefreshToken", Instant.now().plusSeconds(3600)));
+        when(refreshTokenRepository.rotate(eq(oldToken), any(RefreshToken.class))).thenReturn(true);
 
         // ACT
         RefreshTokenResult result = refreshTokenService.refresh(oldRefreshToken);
@@ -64,11 +73,14 @@ class RefreshTokenServiceTest {
         assertTrue(oldToken.isRevoked());
         assertEquals("newRefreshToken", oldToken.getReplacedBy());
 
-        verify(refreshTokenRepository, times(2)).save(any(RefreshToken.class));
+        verify(refreshTokenRepository).rotate(eq(oldToken), argThat(successor ->
+                successor.getToken().equals("newRefreshToken") && successor.getFamilyId().equals(oldToken.getFamilyId())));
+        verify(refreshTokenRepository, never()).save(any());
+        verify(refreshResultCache).remember(oldRefreshToken, result);
     }
 
     @Test
-    @DisplayName("Security Breach: Should revoke all tokens if reused")
+    @DisplayName("Security Breach: Should revoke the token's family if reused")
     void shouldDetectTokenReuse() {
         // ARRANGE
         String stolenRefreshToken = "stolenRefreshToken";
@@ -85,7 +97,8 @@ class RefreshTokenServiceTest {
                 refreshTokenService.refresh(stolenRefreshToken)
         );
 
-        verify(refreshTokenRepository).revokeAllTokens(userId);
+        verify(refreshTokenRepository).revokeFamily(stolenToken.getFamilyId());
+        verify(refreshTokenRepository, never()).revokeAllTokens(any());
     }
 
     @Test
@@ -103,4 +116,100 @@ class RefreshTokenServiceTest {
                 refreshTokenService.refresh(expiredRefreshToken)
         );
     }
+
+    @Test
+    @DisplayName("Session Cutoff: Should reject a stored token created before the user's cutoff")
+    void shouldRejectTokenCreatedBeforeCutoff() {
+        // ARRANGE: token opaco, sin fecha de emisión propia; cuenta la de su fila
+        String opaqueRefreshToken = "q2Xy3v9QbL0m7wZp4RkT1sUaHcJdEfGiNoP5rV6t8Yw";
+        RefreshToken storedToken = RefreshToken.create(1L, opaqueRefreshToken, Instant.now().plusSeconds(3600));
+
+        when(jwtTokenProviderPort.isRefreshTokenValid(opaqueRefreshToken)).thenReturn(true);
+        when(refreshTokenRepository.findByToken(opaqueRefreshToken)).thenReturn(Optional.of(storedToken));
+        when(tokenCutoffRepository.isIssuedBeforeCutoff(1L, storedToken.getCreatedAt())).thenReturn(true);
+
+        // ACT & ASSERT
+        assertThrows(InvalidTokenException.class, () ->
+                refreshTokenService.refresh(opaqueRefreshToken)
+        );
+        verify(jwtTokenProviderPort, never()).generateRefreshToken(any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Grace Window: A just-rotated token should get the same pair back without a breach")
+    void shouldReturnSamePairWithinGraceWindow() {
+        // ARRANGE: otra pestaña ya rotó el token hace un instante
+        String rotatedRefreshToken = "rotatedRefreshToken";
+        RefreshToken rotatedToken = RefreshToken.create(1L, rotatedRefreshToken, Instant.now().plusSeconds(3600));
+        rotatedToken.rotate("newRefreshToken");
+        RefreshTokenResult firstTab = new RefreshTokenResult("newAccessToken", "newRefreshToken");
+
+        when(jwtTokenProviderPort.isRefreshTokenValid(rotatedRefreshToken)).thenReturn(true);
+        when(refreshTokenRepository.findByToken(rotatedRefreshToken)).thenReturn(Optional.of(rotatedToken));
+        when(refreshResultCache.recall(rotatedRefreshToken)).thenReturn(Optional.of(firstTab));
+        when(refreshTokenRepository.findByToken("newRefreshToken"))
+                .thenReturn(Optional.of(RefreshToken.create(1L, "newRefreshToken", Instant.now().plusSeconds(3600))));
+
+        // ACT
+        RefreshTokenResult secondTab = refreshTokenService.refresh(rotatedRefreshToken);
+
+        // ASSERT
+        assertSame(firstTab, secondTab);
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+        verify(refreshTokenRepository, never()).save(any());
+        verify(jwtTokenProviderPort, never()).generateRefreshToken(any());
+    }
+
+    @Test
+    @DisplayName("Grace Window: A cached pair whose successor was already revoked should be treated as reuse")
+    void shouldDetectReuseWhenCachedSuccessorIsRevoked() {
+        // ARRANGE: la primera pestaña rotó el token y después cerró la sesión (el sucesor ya no vale)
+        String rotatedRefreshToken = "rotatedRefreshToken";
+        RefreshToken rotatedToken = RefreshToken.create(1L, rotatedRefreshToken, Instant.now().plusSeconds(3600));
+        rotatedToken.rotate("newRefreshToken");
+        RefreshToken successor = RefreshToken.create(1L, "newRefreshToken", Instant.now().plusSeconds(3600));
+        successor.revoke();
+
+        when(jwtTokenProviderPort.isRefreshTokenValid(rotatedRefreshToken)).thenReturn(true);
+        when(refreshTokenRepository.findByToken(rotatedRefreshToken)).thenReturn(Optional.of(rotatedToken));
+        when(refreshResultCache.recall(rotatedRefreshToken))
+                .thenReturn(Optional.of(new RefreshTokenResult("newAccessToken", "newRefreshToken")));
+        when(refreshTokenRepository.findByToken("newRefreshToken")).thenReturn(Optional.of(successor));
+
+        // ACT & ASSERT
+        assertThrows(SecurityBreachException.class, () ->
+                refreshTokenService.refresh(rotatedRefreshToken)
+        );
+        verify(refreshTokenRepository).revokeFamily(rotatedToken.getFamilyId());
+    }
+
+    @Test
+    @DisplayName("Concurrency: The request that loses the conditional update should not revoke the family")
+    void shouldNotTreatConcurrentRotationAsBreach() {
+        // ARRANGE: ambas peticiones vieron el token vivo; la otra ganó el UPDATE condicional
+        String refreshTokenValue = "sharedRefreshToken";
+        Long userId = 1L;
+        RefreshToken sharedToken = RefreshToken.create(userId, refreshTokenValue, Instant.now().plusSeconds(3600));
+        User user = new User(userId, "Luca", "Test", "luca@test.com", "pass", null, true, null, null);
+        RefreshTokenResult winner = new RefreshTokenResult("winnerAccessToken", "winnerRefreshToken");
+
+        when(jwtTokenProviderPort.isRefreshTokenValid(refreshTokenValue)).thenReturn(true);
+        when(refreshTokenRepository.findByToken(refreshTokenValue)).thenReturn(Optional.of(sharedToken));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(jwtTokenProviderPort.generateAccessToken(user)).thenReturn("loserAccessToken");
+        when(jwtTokenProviderPort.generateRefreshToken(user)).thenReturn(new GeneratedToken("loserRefreshToken", Instant.now().plusSeconds(3600)));
+        when(refreshTokenRepository.rotate(eq(sharedToken), any(RefreshToken.class))).thenReturn(false);
+        when(refreshResultCache.recall(refreshTokenValue)).thenReturn(Optional.of(winner));
+        when(refreshTokenRepository.findByToken("winnerRefreshToken"))
+                .thenReturn(Optional.of(RefreshToken.create(userId, "winnerRefreshToken", Instant.now().plusSeconds(3600))));
+
+        // ACT
+        RefreshTokenResult result = refreshTokenService.refresh(refreshTokenValue);
+
+        // ASSERT
+        assertSame(winner, result, "Recibe el par de la petición ganadora");
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+        verify(refreshResultCache, never()).remember(any(), any());
+    }
 }
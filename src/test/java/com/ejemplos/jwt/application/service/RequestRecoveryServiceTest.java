@@ -1,6 +1,7 @@
 package com.ejemplos.jwt.application.service;
 
 import com.ejemplos.jwt.application.ports.out.EmailNotificationPort;
+import com.ejemplos.jwt.application.ports.out.SecretTokenGenerator;
 import com.ejemplos.jwt.domain.exception.personalized.UserNotFoundException;
 import com.ejemplos.jwt.domain.model.RecoveryToken;
 import com.ejemplos.jwt.domain.model.User;
@@ -31,6 +32,9 @@ class RequestRecoveryServiceTest {
     @Mock
     private EmailNotificationPort emailNotificationPort;
 
+    @Mock
+    private SecretTokenGenerator secretTokenGenerator;
+
     @InjectMocks
     private RequestRecoveryService requestRecoveryService;
 
@@ -42,6 +46,7 @@ class RequestRecoveryServiceTest {
         User user = User.create("Test", "Demo", email, "testPassword");
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(secretTokenGenerator.nextSecret()).thenReturn("q2Xy3v9QbL0m7wZp4RkT1sUaHcJdEfGiNoP5rV6t8Yw");
 
         // ACT
         requestRecoveryService.requestRecovery(email);
@@ -49,7 +54,7 @@ class RequestRecoveryServiceTest {
         // ASSERT
         verify(recoveryTokenRepository).save(any(RecoveryToken.class));
 
-        verify(emailNotificationPort).sendRecoveryEmail(eq(email), anyString());
+        verify(emailNotificationPort).sendRecoveryEmail(email, "https://miapp.com/recover?token=q2Xy3v9QbL0m7wZp4RkT1sUaHcJdEfGiNoP5rV6t8Yw");
     }
 
     @Test
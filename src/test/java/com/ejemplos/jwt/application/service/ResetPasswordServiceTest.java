@@ -18,6 +18,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.Instant;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
@@ -60,6 +61,7 @@ class ResetPasswordServiceTest {
 
         // ASSERT
         verify(userRepository).save(argThat(u -> u.getPassword().equals("newHashedPassword")));
+        assertNotNull(user.getTokensValidAfter(), "Los Access Tokens vigentes también quedan invalidados");
 
         verify(recoveryTokenRepository).save(argThat(t -> t.isUsed()));
 
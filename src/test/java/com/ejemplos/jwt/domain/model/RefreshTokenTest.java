@@ -128,4 +128,21 @@ class RefreshTokenTest {
         assertThat(isValid).isFalse();
         assertThat(refreshToken.isExpired()).isTrue();
     }
+
+    @Test
+    @DisplayName("Domain: The successor should inherit the family of the token it replaces")
+    void shouldInheritFamilyOnRotation() {
+        // GIVEN
+        RefreshToken login = RefreshToken.create(1L, "first-refresh-token", Instant.now().plusSeconds(600));
+        RefreshToken otherLogin = RefreshToken.create(1L, "other-device-token", Instant.now().plusSeconds(600));
+
+        // WHEN
+        RefreshToken successor = login.successor("second-refresh-token", Instant.now().plusSeconds(600));
+
+        // THEN
+        assertThat(successor.getFamilyId()).isEqualTo(login.getFamilyId());
+        assertThat(successor.getUserId()).isEqualTo(1L);
+        assertThat(successor.isValid()).isTrue();
+        assertThat(otherLogin.getFamilyId()).isNotEqualTo(login.getFamilyId());
+    }
 }
@@ -0,0 +1,75 @@
+package com.ejemplos.jwt.infrastructure.cache;
+
+import com.ejemplos.jwt.application.ports.in.RefreshTokenResult;
+import com.ejemplos.jwt.infrastructure.security.jwt.JwtProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryRefreshResultCacheTest {
+
+    @Test
+    @DisplayName("Should return the same pair for a rotated token only within the grace window")
+    void shouldRecallWithinGraceWindow() throws Exception {
+        // ARRANGE
+        InMemoryRefreshResultCache cache = new InMemoryRefreshResultCache(properties(500));
+        RefreshTokenResult pair = new RefreshTokenResult("access", "successor");
+
+        // ACT
+        cache.remember("rotated", pair);
+
+        // ASSERT
+        assertSame(pair, cache.recall("rotated").orElseThrow());
+        assertTrue(cache.recall("other").isEmpty());
+        Thread.sleep(600);
+        assertTrue(cache.recall("rotated").isEmpty(), "Fuera de la ventana vuelve la detección de reuso");
+        cache.evictExpired();
+        assertEquals(0L, cache.metrics().get("size"));
+        assertEquals(1L, cache.metrics().get("hits"));
+    }
+
+    @Test
+    @DisplayName("Should publish the pair before commit and withdraw it if the rotation rolls back")
+    void shouldPublishBeforeCommitAndForgetOnRollback() {
+        // ARRANGE
+        InMemoryRefreshResultCache cache = new InMemoryRefreshResultCache(properties(5_000));
+        RefreshTokenResult pair = new RefreshTokenResult("access", "successor");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // ACT
+            cache.remember("rotated", pair);
+
+            // ASSERT: visible para quien espera el lock de la fila, aunque aún no haya commit
+            assertSame(pair, cache.recall("rotated").orElseThrow());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertTrue(cache.recall("rotated").isEmpty(), "La rotación no ocurrió");
+            assertEquals(0L, cache.metrics().get("size"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should remember nothing when the grace window is disabled")
+    void shouldDoNothingWhenDisabled() {
+        // ARRANGE
+        InMemoryRefreshResultCache cache = new InMemoryRefreshResultCache(properties(0));
+
+        // ACT
+        cache.remember("rotated", new RefreshTokenResult("access", "successor"));
+
+        // ASSERT
+        assertTrue(cache.recall("rotated").isEmpty());
+        assertEquals(0L, cache.metrics().get("remembered"));
+    }
+
+    private static JwtProperties properties(long graceWindowMs) {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setRefreshGraceWindowMs(graceWindowMs);
+        return jwtProperties;
+    }
+}
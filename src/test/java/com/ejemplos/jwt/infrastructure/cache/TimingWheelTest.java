@@ -0,0 +1,159 @@
+package com.ejemplos.jwt.infrastructure.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long START = 1_760_000_000_000L;
+    private static final long TICK = 1_000;
+
+    @Test
+    @DisplayName("Should expire every entry in the tick of its deadline, across all levels and beyond the horizon")
+    void shouldExpireExactlyOnTheDeadlineTick() {
+        // ARRANGE: 2 niveles = 4096 ticks de alcance; hay vencimientos más allá para forzar el re-estacionamiento
+        long[] deadlines = {1, 63, 64, 65, 127, 4_095, 4_096, 4_097, 10_000, 20_000};
+        long[] expiredAt = new long[deadlines.length];
+        long[] now = {START};
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK, 2, START, key -> expiredAt[key] = now[0]);
+        for (int i = 0; i < deadlines.length; i++) {
+            wheel.schedule(i, START + deadlines[i] * TICK - 300); // Deadline dentro del tick: se redondea hacia arriba
+        }
+
+        // ACT
+        for (int t = 1; t <= 20_001; t++) {
+            now[0] = START + t * TICK;
+            wheel.advanceTo(now[0]);
+        }
+
+        // ASSERT
+        for (int i = 0; i < deadlines.length; i++) {
+            assertEquals(START + deadlines[i] * TICK, expiredAt[i], "Entrada con deadline " + deadlines[i]);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should evict millions of entries never early and at most one tick late")
+    void shouldEvictMillionsOfEntries() {
+        // ARRANGE: 2M entradas repartidas en 2 horas (el rango de vida de un Access Token y algo más)
+        int entries = 2_000_000;
+        long[] expiresAt = new long[entries];
+        long[] now = {START};
+        long[] worstLatenessMillis = {0};
+        int[] early = {0};
+        int[] expired = {0};
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK, 4, START, key -> {
+            long lateness = now[0] - expiresAt[key];
+            if (lateness < 0) {
+                early[0]++;
+            }
+            worstLatenessMillis[0] = Math.max(worstLatenessMillis[0], lateness);
+            expired[0]++;
+        });
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < entries; i++) {
+            expiresAt[i] = START + random.nextLong(1, 7_200_000);
+            wheel.schedule(i, expiresAt[i]);
+        }
+        assertEquals(entries, wheel.size());
+
+        // ACT: un tick por segundo, como el @Scheduled de producción
+        long begin = System.nanoTime();
+        for (long t = START + TICK; t <= START + 7_200_000 + TICK; t += TICK) {
+            now[0] = t;
+            wheel.advanceTo(t);
+        }
+        long elapsedMillis = (System.nanoTime() - begin) / 1_000_000;
+
+        // ASSERT
+        assertEquals(entries, expired[0]);
+        assertEquals(0, early[0], "Ninguna entrada puede desalojarse antes de su vencimiento");
+        assertTrue(worstLatenessMillis[0] < TICK, "Retraso máximo: " + worstLatenessMillis[0] + "ms");
+        assertEquals(0, wheel.size());
+        assertTrue(elapsedMillis < 10_000, "Desalojar 2M entradas tomó " + elapsedMillis + "ms");
+    }
+
+    @Test
+    @DisplayName("Should not fire cancelled entries and should fire overdue ones on the next tick")
+    void shouldHonourCancellationAndOverdueEntries() {
+        // ARRANGE
+        List<String> fired = new ArrayList<>();
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 4, START, fired::add);
+        TimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", START + 5 * TICK);
+        wheel.schedule("kept", START + 5 * TICK);
+        wheel.schedule("overdue", START - 60_000);
+
+        // ACT
+        boolean first = wheel.cancel(cancelled);
+        boolean second = wheel.cancel(cancelled);
+        int expiredFirstTick = wheel.advanceTo(START + TICK);
+        wheel.advanceTo(START + 10 * TICK);
+
+        // ASSERT
+        assertTrue(first);
+        assertFalse(second, "Cancelar es idempotente");
+        assertEquals(1, expiredFirstTick);
+        assertEquals(List.of("overdue", "kept"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should fire every kept entry exactly once while threads schedule and cancel during advances")
+    void shouldScheduleAndCancelWithoutLockingTheAdvance() throws Exception {
+        // ARRANGE: 4 hilos registran (y cancelan la mitad) mientras otro avanza el reloj
+        int threads = 4;
+        int perThread = 50_000;
+        AtomicIntegerArray fired = new AtomicIntegerArray(threads * perThread);
+        AtomicLong now = new AtomicLong(START);
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK, 4, START, fired::incrementAndGet);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            producers.add(pool.submit(() -> {
+                go.await();
+                for (int i = 0; i < perThread; i++) {
+                    TimingWheel.Timeout<Integer> timeout = wheel.schedule(base + i, now.get() + (i % 300) * TICK);
+                    if (i % 2 == 1) {
+                        assertTrue(wheel.cancel(timeout));
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // ACT
+        go.countDown();
+        while (producers.stream().anyMatch(f -> !f.isDone())) {
+            wheel.advanceTo(now.addAndGet(TICK));
+        }
+        for (Future<?> producer : producers) {
+            producer.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        wheel.advanceTo(now.get() + 400 * TICK);
+
+        // ASSERT
+        for (int key = 0; key < threads * perThread; key++) {
+            int expected = (key % perThread) % 2 == 0 ? 1 : 0;
+            assertEquals(expected, fired.get(key), "Entrada " + key);
+        }
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,108 @@
+package com.ejemplos.jwt.infrastructure.persistence.adapter;
+
+import com.ejemplos.jwt.domain.model.RefreshToken;
+import com.ejemplos.jwt.infrastructure.persistence.entity.RefreshTokenEntity;
+import com.ejemplos.jwt.infrastructure.persistence.entity.UserEntity;
+import com.ejemplos.jwt.infrastructure.persistence.mapper.RefreshTokenMapperImpl;
+import com.ejemplos.jwt.infrastructure.persistence.repository.SpringDataRefreshTokenRepository;
+import com.ejemplos.jwt.infrastructure.security.TokenDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenRepositoryAdapterTest {
+
+    @Mock
+    private SpringDataRefreshTokenRepository springDataRefreshTokenRepository;
+
+    private RefreshTokenRepositoryAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        adapter = new RefreshTokenRepositoryAdapter(springDataRefreshTokenRepository, new RefreshTokenMapperImpl());
+    }
+
+    @Test
+    @DisplayName("Should store only the SHA-256 digest of a new refresh token")
+    void shouldStoreDigestOnly() {
+        // ARRANGE
+        RefreshToken refreshToken = RefreshToken.create(7L, "eyJhbGciOi.refresh.token", Instant.now().plusSeconds(3600));
+        when(springDataRefreshTokenRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // ACT
+        RefreshToken saved = adapter.save(refreshToken);
+
+        // ASSERT
+        ArgumentCaptor<RefreshTokenEntity> entity = ArgumentCaptor.forClass(RefreshTokenEntity.class);
+        verify(springDataRefreshTokenRepository).save(entity.capture());
+        assertArrayEquals(TokenDigest.of("eyJhbGciOi.refresh.token").toBytes(), entity.getValue().getTokenHash());
+        assertEquals(32, entity.getValue().getTokenHash().length);
+        assertEquals(7L, entity.getValue().getUser().getId());
+        assertEquals(refreshToken.getFamilyId(), entity.getValue().getFamilyId());
+        assertEquals("eyJhbGciOi.refresh.token", saved.getToken(), "El dominio conserva el token en claro");
+    }
+
+    @Test
+    @DisplayName("Should look up by digest and update the state of a rotated token in place")
+    void shouldFindByDigestAndUpdateState() {
+        // ARRANGE
+        RefreshTokenEntity stored = RefreshTokenEntity.builder()
+                .id(42L)
+                .tokenHash(TokenDigest.of("old.refresh.token").toBytes())
+                .createdAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .user(UserEntity.builder().id(7L).build())
+                .build();
+        when(springDataRefreshTokenRepository.findByTokenHash(aryEq(TokenDigest.of("old.refresh.token").toBytes())))
+                .thenReturn(Optional.of(stored));
+
+        // ACT
+        RefreshToken found = adapter.findByToken("old.refresh.token").orElseThrow();
+        found.rotate("new.refresh.token");
+        adapter.save(found);
+
+        // ASSERT
+        assertEquals(42L, found.getId());
+        assertEquals("old.refresh.token", found.getToken());
+        verify(springDataRefreshTokenRepository).updateState(eq(42L), eq(true), aryEq(TokenDigest.of("new.refresh.token").toBytes()));
+        verify(springDataRefreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should insert the successor only when the conditional update revoked the token")
+    void shouldRotateWithConditionalUpdate() {
+        // ARRANGE
+        RefreshToken current = RefreshToken.create(7L, "current.refresh.token", Instant.now().plusSeconds(3600));
+        RefreshToken successor = current.successor("next.refresh.token", Instant.now().plusSeconds(3600));
+        current.rotate(successor.getToken());
+        byte[] currentHash = TokenDigest.of("current.refresh.token").toBytes();
+        byte[] successorHash = TokenDigest.of("next.refresh.token").toBytes();
+        when(springDataRefreshTokenRepository.revokeIfActive(aryEq(currentHash), aryEq(successorHash))).thenReturn(1, 0);
+
+        // ACT
+        boolean won = adapter.rotate(current, successor);
+        boolean lost = adapter.rotate(current, successor);
+
+        // ASSERT
+        assertTrue(won);
+        assertFalse(lost, "Otra petición ya lo rotó");
+        ArgumentCaptor<RefreshTokenEntity> inserted = ArgumentCaptor.forClass(RefreshTokenEntity.class);
+        verify(springDataRefreshTokenRepository, times(1)).save(inserted.capture());
+        assertArrayEquals(successorHash, inserted.getValue().getTokenHash());
+        assertEquals(current.getFamilyId(), inserted.getValue().getFamilyId());
+        verify(springDataRefreshTokenRepository, never()).updateState(any(), anyBoolean(), any());
+    }
+}
@@ -0,0 +1,134 @@
+package com.ejemplos.jwt.infrastructure.persistence.adapter;
+
+import com.ejemplos.jwt.domain.model.RevokedToken;
+import com.ejemplos.jwt.infrastructure.messaging.publisher.RevocationPublisher;
+import com.ejemplos.jwt.infrastructure.persistence.repository.SpringDataRevokedTokenRepository;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.JtiKey;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.RevocationAuditWriter;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.RevocationDbGuard;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.RevocationIndex;
+import com.ejemplos.jwt.infrastructure.persistence.revocation.RevocationWriteBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RevokedTokenRepositoryAdapterTest {
+
+    @Mock
+    private SpringDataRevokedTokenRepository springDataRevokedTokenRepository;
+
+    @Mock
+    private RevocationIndex revocationIndex;
+
+    @Mock
+    private RevocationPublisher revocationPublisher;
+
+    @Mock
+    private RevocationAuditWriter revocationAuditWriter;
+
+    @Mock
+    private RevocationWriteBuffer revocationWriteBuffer;
+
+    @Mock
+    private RevocationDbGuard revocationDbGuard;
+
+    @InjectMocks
+    private RevokedTokenRepositoryAdapter adapter;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should index, broadcast and audit a revocation only after its transaction commits")
+    void shouldPropagateAfterCommit() {
+        // ARRANGE
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        RevokedToken revokedToken = RevokedToken.revoke("jti_123", "test@demo.com", "User logout", expiresAt);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // ACT
+        adapter.save(revokedToken);
+
+        // ASSERT: nada sale antes del commit (un rollback no debe dejar rastro)
+        verify(springDataRevokedTokenRepository).insertIgnore(any(), any());
+        verifyNoInteractions(revocationIndex, revocationPublisher, revocationAuditWriter);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(revocationIndex).add("jti_123", expiresAt);
+        verify(revocationPublisher).publish("jti_123", expiresAt);
+        verify(revocationAuditWriter).write(revokedToken);
+    }
+
+    @Test
+    @DisplayName("Should insert the hot row directly instead of merging it (no SELECT before the INSERT)")
+    void shouldInsertWithoutMerge() {
+        // ARRANGE
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        RevokedToken revokedToken = RevokedToken.revoke("01JA7ZQ5W3XK2M9T4V6B8C0D1E", "test@demo.com", "User logout", expiresAt);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // ACT
+        adapter.save(revokedToken);
+
+        // ASSERT: la clave asignada haría que save() pase por merge (SELECT + INSERT)
+        verify(springDataRevokedTokenRepository).insertIgnore(
+                aryEq(JtiKey.toBytes(JtiKey.of("01JA7ZQ5W3XK2M9T4V6B8C0D1E"))), eq(expiresAt));
+        verify(springDataRevokedTokenRepository, never()).save(any());
+        verify(springDataRevokedTokenRepository, never()).existsById(any());
+        verify(springDataRevokedTokenRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should skip the per-request insert and enqueue the row at commit in write-behind mode")
+    void shouldEnqueueAfterCommitInWriteBehindMode() {
+        // ARRANGE
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        RevokedToken revokedToken = RevokedToken.revoke("jti_123", "test@demo.com", "User logout", expiresAt);
+        when(revocationWriteBuffer.isEnabled()).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // ACT
+        adapter.save(revokedToken);
+
+        // ASSERT
+        verifyNoInteractions(springDataRevokedTokenRepository, revocationIndex);
+        verify(revocationWriteBuffer, never()).enqueue(any(), any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(revocationIndex).add("jti_123", expiresAt);
+        verify(revocationWriteBuffer).enqueue("jti_123", expiresAt);
+    }
+
+    @Test
+    @DisplayName("Should answer from the index once loaded and from the database before that")
+    void shouldQueryDatabaseOnlyUntilIndexIsReady() {
+        // ARRANGE
+        when(revocationIndex.isReady()).thenReturn(false, true);
+        when(springDataRevokedTokenRepository.existsById(JtiKey.of("jti_123"))).thenReturn(true);
+        when(revocationIndex.contains("jti_123")).thenReturn(true);
+        when(revocationDbGuard.check(any(), any())).thenAnswer(invocation -> invocation.<Supplier<Boolean>>getArgument(0).get());
+
+        // ACT & ASSERT
+        assertTrue(adapter.isRevoked("jti_123"));
+        assertTrue(adapter.isRevoked("jti_123"));
+        verify(springDataRevokedTokenRepository, times(1)).existsById(any());
+    }
+}
@@ -0,0 +1,55 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import com.ejemplos.jwt.infrastructure.security.id.UlidTokenIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JtiKeyTest {
+
+    @Test
+    @DisplayName("Should key ULIDs by their 16 bytes, ordered by issue time")
+    void shouldKeyUlidsByTheirBytes() {
+        // ARRANGE
+        UlidTokenIdGenerator generator = new UlidTokenIdGenerator();
+        Instant before = Instant.now().minusMillis(1);
+        String jti = generator.nextId();
+
+        // ACT
+        UUID key = JtiKey.of(jti);
+
+        // ASSERT
+        assertEquals(jti, JtiKey.text(key), "Ida y vuelta sin pérdida");
+        assertSame(jti, JtiKey.canonical(jti), "Un ULID canónico no aloca");
+        assertEquals(jti, JtiKey.canonical(jti.toLowerCase()));
+        assertTrue(unsignedCompare(JtiKey.lowerBound(before), key) < 0);
+        assertTrue(unsignedCompare(JtiKey.lowerBound(Instant.now().plusSeconds(1)), key) > 0);
+    }
+
+    @Test
+    @DisplayName("Should key legacy UUIDs like MySQL UUID_TO_BIN and anything else by a hash prefix")
+    void shouldKeyLegacyJtis() {
+        // ARRANGE
+        UUID legacy = UUID.randomUUID();
+
+        // ACT
+        UUID uuidKey = JtiKey.of(legacy.toString());
+        UUID otherKey = JtiKey.of("jti_123");
+
+        // ASSERT
+        assertEquals(legacy, uuidKey);
+        assertEquals(otherKey, JtiKey.of("jti_123"));
+        assertNotEquals(otherKey, JtiKey.of("jti_124"));
+        assertEquals(JtiKey.canonical(legacy.toString()), JtiKey.text(uuidKey), "Token y BD llegan a la misma forma canónica");
+    }
+
+    /** Orden de BINARY(16) en MySQL: bytes sin signo. */
+    private static int unsignedCompare(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,103 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH del conjunto exacto fuera del heap con 1M, 10M y 50M revocaciones.
+ * <p>
+ * No corre con los tests. Para ejecutarlo:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/cp.txt
+ * java -XX:MaxDirectMemorySize=4g -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *      org.openjdk.jmh.Main OffHeapRevocationSetBenchmark
+ * </pre>
+ * Con 50M entradas las tablas ocupan ~2.4 GB de memoria directa.
+ * Las claves no se guardan en el heap: la i-ésima se recalcula ({@link #hi}, {@link #lo}),
+ * con la forma de un ULID (timestamp en los bits altos, el resto aleatorio).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx512m", "-XX:MaxDirectMemorySize=4g"})
+public class OffHeapRevocationSetBenchmark {
+
+    private static final long ISSUED_AT = 1_760_000_000_000L;
+
+    @Param({"1000000", "10000000", "50000000"})
+    public int size;
+
+    private OffHeapRevocationSet set;
+    private long now;
+    private long expiresAt;
+    private long probe;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        set = new OffHeapRevocationSet(size);
+        now = System.currentTimeMillis();
+        expiresAt = now + TimeUnit.DAYS.toMillis(1);
+        for (long i = 0; i < size; i++) {
+            set.add(hi(i), lo(i), expiresAt);
+        }
+        next = size;
+    }
+
+    /** Token revocado: la respuesta es "sí". */
+    @Benchmark
+    public boolean containsHit() {
+        long i = nextProbe() % size;
+        return set.contains(hi(i), lo(i), now);
+    }
+
+    /** Token vigente (el caso común cuando el filtro de Bloom da un falso positivo). */
+    @Benchmark
+    public boolean containsMiss() {
+        long i = size + nextProbe() % size;
+        return set.contains(hi(i), lo(i), now);
+    }
+
+    /** Revocación nueva (incluye, amortizado, el crecimiento de las tablas). */
+    @Benchmark
+    public boolean add() {
+        long i = next++;
+        return set.add(hi(i), lo(i), expiresAt);
+    }
+
+    private long nextProbe() {
+        probe = probe * 6364136223846793005L + 1442695040888963407L;
+        return (probe >>> 1);
+    }
+
+    private static long hi(long i) {
+        return ((ISSUED_AT + (i >>> 10)) << 16) | (mix(i) >>> 48);
+    }
+
+    private static long lo(long i) {
+        return mix(i ^ 0x5DEECE66DL);
+    }
+
+    private static long mix(long h) {
+        h *= 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 29;
+        return h;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapRevocationSetTest {
+
+    @Test
+    @DisplayName("Should answer by key and expiration and reject duplicates")
+    void shouldAddRemoveAndExpire() {
+        // ARRANGE
+        OffHeapRevocationSet set = new OffHeapRevocationSet(16);
+        long now = System.currentTimeMillis();
+
+        // ACT
+        boolean first = set.add(1L, 2L, now + 60_000);
+        boolean repeated = set.add(1L, 2L, now + 60_000);
+        set.add(1L, 3L, now - 1);
+        set.add(4L, 5L, now + 60_000);
+        boolean removed = set.remove(4L, 5L);
+
+        // ASSERT
+        assertTrue(first);
+        assertFalse(repeated);
+        assertTrue(set.contains(1L, 2L, now));
+        assertFalse(set.contains(2L, 1L, now), "La clave es de 128 bits: el orden de las mitades importa");
+        assertFalse(set.contains(1L, 3L, now), "Lo vencido no cuenta aunque siga en la tabla");
+        assertFalse(set.contains(4L, 5L, now));
+        assertTrue(removed);
+        assertTrue(set.add(1L, 3L, now + 60_000), "Una clave vencida se puede volver a agregar");
+        assertTrue(set.contains(1L, 3L, now));
+    }
+
+    @Test
+    @DisplayName("Should grow past its initial size and reclaim expired entries on purge")
+    void shouldGrowAndPurge() {
+        // ARRANGE
+        OffHeapRevocationSet set = new OffHeapRevocationSet(16);
+        long now = System.currentTimeMillis();
+        for (long i = 0; i < 100_000; i++) {
+            set.add(i, ~i, i % 2 == 0 ? now + 120_000 : now + 60_000);
+        }
+        long grownBytes = set.offHeapBytes();
+
+        // ACT
+        int purged = set.purgeExpired(now + 90_000);
+
+        // ASSERT
+        assertEquals(50_000, purged);
+        assertEquals(50_000, set.size());
+        assertTrue(set.offHeapBytes() < grownBytes, "La purga reconstruye las tablas más chicas");
+        for (long i = 0; i < 100_000; i++) {
+            assertEquals(i % 2 == 0, set.contains(i, ~i, now + 90_000));
+        }
+        AtomicInteger visited = new AtomicInteger();
+        set.forEach(now + 90_000, (hi, lo, expiresAt) -> {
+            assertEquals(~hi, lo);
+            visited.incrementAndGet();
+        });
+        assertEquals(50_000, visited.get());
+    }
+
+    @Test
+    @DisplayName("Should never lose a key for readers while writers grow the tables")
+    void shouldKeepKeysVisibleDuringConcurrentGrowth() throws Exception {
+        // ARRANGE: las claves [0, 10_000) están antes de que empiecen los escritores
+        OffHeapRevocationSet set = new OffHeapRevocationSet(16);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        for (long i = 0; i < 10_000; i++) {
+            set.add(i, i, expiresAt);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong misses = new AtomicLong();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            started.countDown();
+            while (running.get()) {
+                for (long i = 0; i < 10_000; i++) {
+                    if (!set.contains(i, i, System.currentTimeMillis())) {
+                        misses.incrementAndGet();
+                    }
+                }
+            }
+        });
+        Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            long base = 1_000_000L * (w + 1);
+            writers[w] = new Thread(() -> {
+                for (long i = 0; i < 200_000; i++) {
+                    set.add(base + i, i, expiresAt);
+                }
+            });
+        }
+
+        // ACT
+        reader.start();
+        started.await();
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        running.set(false);
+        reader.join();
+
+        // ASSERT
+        assertEquals(0, misses.get());
+        assertEquals(810_000, set.size());
+    }
+}
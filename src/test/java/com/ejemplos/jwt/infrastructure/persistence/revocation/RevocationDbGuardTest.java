@@ -0,0 +1,108 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import com.ejemplos.jwt.domain.exception.personalized.RevocationCheckUnavailableException;
+import com.ejemplos.jwt.infrastructure.security.jwt.JwtProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationDbGuardTest {
+
+    private final CountDownLatch stalled = new CountDownLatch(1);
+    private RevocationDbGuard guard;
+
+    @AfterEach
+    void tearDown() {
+        stalled.countDown();
+        guard.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should give up on a stalled database at the deadline and fail closed")
+    void shouldFailClosedAtTheDeadline() {
+        // ARRANGE
+        guard = new RevocationDbGuard(properties(RevocationFallback.FAIL_CLOSED, 3));
+
+        // ACT
+        long start = System.nanoTime();
+        RevocationCheckUnavailableException exception = assertThrows(RevocationCheckUnavailableException.class,
+                () -> guard.check(this::stall, () -> false));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // ASSERT
+        assertTrue(elapsedMs < 1_000, "Esperó " + elapsedMs + " ms");
+        assertTrue(exception.getMessage().contains("timed out"));
+        assertEquals(1L, guard.metrics().get("timeouts"));
+        assertEquals(1L, guard.metrics().get("fail-closed"));
+    }
+
+    @Test
+    @DisplayName("Should open the circuit after repeated failures and answer from memory without querying")
+    void shouldOpenCircuitAndFailOpen() {
+        // ARRANGE
+        guard = new RevocationDbGuard(properties(RevocationFallback.FAIL_OPEN, 2));
+        AtomicInteger queries = new AtomicInteger();
+
+        // ACT
+        boolean first = guard.check(() -> fail(queries), () -> true);
+        boolean second = guard.check(() -> fail(queries), () -> false);
+        boolean shortCircuited = guard.check(() -> fail(queries), () -> true);
+
+        // ASSERT
+        assertTrue(first, "FAIL_OPEN responde lo que se sabe en memoria");
+        assertFalse(second);
+        assertTrue(shortCircuited);
+        assertEquals(2, queries.get(), "Con el circuito abierto la BD no se consulta");
+        assertEquals(1L, guard.metrics().get("open"));
+        assertEquals(1L, guard.metrics().get("short-circuited"));
+        assertEquals(3L, guard.metrics().get("fail-open"));
+    }
+
+    @Test
+    @DisplayName("Should let a single probe through after the open window and close on success")
+    void shouldCloseCircuitAfterSuccessfulProbe() throws Exception {
+        // ARRANGE
+        JwtProperties jwtProperties = properties(RevocationFallback.FAIL_CLOSED, 1);
+        jwtProperties.setRevocationBreakerOpenMs(50);
+        guard = new RevocationDbGuard(jwtProperties);
+        assertThrows(RevocationCheckUnavailableException.class, () -> guard.check(() -> fail(new AtomicInteger()), () -> false));
+        assertEquals(1L, guard.metrics().get("open"));
+
+        // ACT
+        Thread.sleep(100);
+        boolean revoked = guard.check(() -> true, () -> false);
+
+        // ASSERT
+        assertTrue(revoked);
+        assertEquals(0L, guard.metrics().get("open"));
+    }
+
+    private Boolean stall() {
+        try {
+            stalled.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private static Boolean fail(AtomicInteger queries) {
+        queries.incrementAndGet();
+        throw new DataAccessResourceFailureException("Connection is not available, request timed out");
+    }
+
+    private static JwtProperties properties(RevocationFallback fallback, int failures) {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setRevocationFallback(fallback);
+        jwtProperties.setRevocationDbTimeoutMs(100);
+        jwtProperties.setRevocationBreakerFailures(failures);
+        jwtProperties.setRevocationBreakerOpenMs(60_000);
+        return jwtProperties;
+    }
+}
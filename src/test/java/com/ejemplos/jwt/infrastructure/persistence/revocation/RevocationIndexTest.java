@@ -0,0 +1,311 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import com.ejemplos.jwt.infrastructure.security.id.UlidTokenIdGenerator;
+import com.ejemplos.jwt.infrastructure.security.jwt.JwtProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RevocationIndexTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @TempDir
+    Path dir;
+
+    /** Tabla 'revoked_tokens' simulada, ordenada como BINARY(16). */
+    private final TreeMap<UUID, Instant> table = new TreeMap<>(
+            (a, b) -> a.getMostSignificantBits() != b.getMostSignificantBits()
+                    ? Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits())
+                    : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits()));
+
+    /** Clave desde la que arrancó cada lectura (primera página de cada carga). */
+    private final List<UUID> loadsFrom = new ArrayList<>();
+    private int pages;
+
+    private RevocationIndex revocationIndex;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setRevocationIndexExpectedEntries(1_000);
+        revocationIndex = new RevocationIndex(jdbcTemplate, jwtProperties);
+
+        Map.Entry<?, ?>[] row = new Map.Entry<?, ?>[1];
+        lenient().when(resultSet.getBytes(1)).thenAnswer(invocation -> JtiKey.toBytes((UUID) row[0].getKey()));
+        lenient().when(resultSet.getObject(2, LocalDateTime.class))
+                .thenAnswer(invocation -> LocalDateTime.ofInstant((Instant) row[0].getValue(), ZoneOffset.UTC));
+        lenient().when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class), any(Object[].class)))
+                .thenAnswer(invocation -> (long) select(invocation.getArgument(2), true, invocation.getArgument(3), Integer.MAX_VALUE).size());
+        lenient().doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            boolean inclusive = sql.contains("jti >= ?");
+            if (inclusive) {
+                loadsFrom.add(fromBytes(invocation.getArgument(2)));
+            }
+            pages++;
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map.Entry<UUID, Instant> entry : select(invocation.getArgument(2), inclusive, invocation.getArgument(3), invocation.getArgument(4))) {
+                row[0] = entry;
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT jti"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should answer from memory after loading the active revocations from the database")
+    void shouldAnswerFromMemoryAfterLoading() {
+        // ARRANGE
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        revoke("jti_revoked", expiresAt);
+        assertFalse(revocationIndex.isReady(), "Sin cargar, el adaptador debe ir a la BD");
+
+        // ACT
+        revocationIndex.rebuild();
+        revocationIndex.add("jti_logout", expiresAt);
+
+        // ASSERT
+        assertTrue(revocationIndex.isReady());
+        assertTrue(revocationIndex.contains("jti_revoked"));
+        assertTrue(revocationIndex.contains("jti_logout"));
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(revocationIndex.contains("jti_live_" + i));
+        }
+        assertTrue(revocationIndex.metrics().get("bloom-negatives") > 950, "Casi todos los 'no' los resuelve el filtro");
+    }
+
+    @Test
+    @DisplayName("Should keep revocations added during a rebuild and drop the expired ones")
+    void shouldKeepConcurrentRevocationsAcrossRebuilds() {
+        // ARRANGE
+        Instant now = Instant.now();
+        revocationIndex.rebuild();
+        revocationIndex.add("jti_not_yet_committed_when_read", now.plusSeconds(900));
+        revocationIndex.add("jti_expired", now.minusSeconds(1));
+
+        // ACT: la lectura de la BD no trae ninguna de las dos
+        revocationIndex.rebuild();
+
+        // ASSERT
+        assertTrue(revocationIndex.contains("jti_not_yet_committed_when_read"));
+        assertFalse(revocationIndex.contains("jti_expired"));
+    }
+
+    @Test
+    @DisplayName("Should deduplicate repeated events and keep the ones received before the first load")
+    void shouldDeduplicateEventsAndBufferThemUntilLoaded() {
+        // ARRANGE
+        Instant expiresAt = Instant.now().plusSeconds(900);
+
+        // ACT: el evento llega (dos veces) antes de que el índice termine de cargarse
+        boolean first = revocationIndex.add("jti_from_other_node", expiresAt);
+        boolean repeated = revocationIndex.add("jti_from_other_node", expiresAt);
+        revocationIndex.rebuild();
+        boolean afterLoad = revocationIndex.add("jti_from_other_node", expiresAt);
+
+        // ASSERT
+        assertTrue(first);
+        assertFalse(repeated);
+        assertFalse(afterLoad);
+        assertTrue(revocationIndex.contains("jti_from_other_node"));
+        assertEquals(2L, revocationIndex.metrics().get("duplicates"));
+    }
+
+    @Test
+    @DisplayName("Should warm start from the mapped snapshot and replay only what was created after its high-water mark")
+    void shouldWarmStartFromSnapshot() {
+        // ARRANGE: un nodo carga la BD (un JTI ULID y uno UUID heredado) y vuelca el snapshot
+        Path file = dir.resolve("revocations.bin");
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        String legacyJti = UUID.randomUUID().toString();
+        revoke("01JA7ZQ5W3XK2M9T4V6B8C0D1E", expiresAt);
+        revoke(legacyJti, expiresAt);
+        RevocationIndex previousNode = newIndexWithSnapshot(file);
+        previousNode.loadOnStartup();
+        previousNode.add("01JA7ZQ5W3XK2M9T4V6B8C0D1F", expiresAt); // Llegó por el fanout
+        previousNode.writeSnapshot();
+
+        String issuedAfterSnapshot = new UlidTokenIdGenerator().nextId();
+        revoke(issuedAfterSnapshot, expiresAt);
+
+        // ACT: el nodo reinicia
+        RevocationIndex restarted = newIndexWithSnapshot(file);
+        restarted.loadOnStartup();
+
+        // ASSERT
+        assertTrue(restarted.isReady());
+        assertTrue(restarted.contains("01JA7ZQ5W3XK2M9T4V6B8C0D1E"));
+        assertTrue(restarted.contains(legacyJti));
+        assertTrue(restarted.contains("01JA7ZQ5W3XK2M9T4V6B8C0D1F"));
+        assertTrue(restarted.contains(issuedAfterSnapshot), "Lo revocado después del snapshot se pide a la BD");
+        assertEquals(2, loadsFrom.size());
+        assertEquals(new UUID(0L, 0L), loadsFrom.get(0), "Solo el primer nodo leyó la tabla entera");
+        // Rango de la clave primaria: tokens emitidos desde (marca de agua - margen - vida del Access Token)
+        Instant oldestIssued = Instant.now().minus(Duration.ofMinutes(5 + 15));
+        Instant lowerBound = Instant.ofEpochMilli(loadsFrom.get(1).getMostSignificantBits() >>> 16);
+        assertTrue(lowerBound.isBefore(oldestIssued.plusSeconds(5)));
+        assertTrue(lowerBound.isAfter(oldestIssued.minusSeconds(5)));
+    }
+
+    @Test
+    @DisplayName("Should fall back to a full load when the snapshot is corrupted")
+    void shouldIgnoreCorruptedSnapshot() throws Exception {
+        // ARRANGE
+        Path file = dir.resolve("revocations.bin");
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        revoke("01JA7ZQ5W3XK2M9T4V6B8C0D1E", expiresAt);
+        RevocationIndex previousNode = newIndexWithSnapshot(file);
+        previousNode.loadOnStartup();
+        previousNode.writeSnapshot();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x01; // Un bit dañado en el último registro
+        Files.write(file, bytes);
+
+        // ACT
+        RevocationIndex restarted = newIndexWithSnapshot(file);
+        restarted.loadOnStartup();
+
+        // ASSERT
+        assertTrue(restarted.contains("01JA7ZQ5W3XK2M9T4V6B8C0D1E"));
+        assertEquals(List.of(new UUID(0L, 0L), new UUID(0L, 0L)), loadsFrom, "Dos lecturas de la tabla entera");
+    }
+
+    @Test
+    @DisplayName("Should fall back to a full load when the replay window predates the ULID cutover")
+    void shouldIgnoreSnapshotBeforeUlidCutover() {
+        // ARRANGE: un UUID heredado revocado después del snapshot no entraría en el rango de claves ULID
+        Path file = dir.resolve("revocations.bin");
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        String legacyJti = UUID.randomUUID().toString();
+        revoke("01JA7ZQ5W3XK2M9T4V6B8C0D1E", expiresAt);
+        String cutover = Instant.now().minusSeconds(60).toString();
+        RevocationIndex previousNode = newIndexWithSnapshot(file, cutover);
+        previousNode.loadOnStartup();
+        previousNode.writeSnapshot();
+        revoke(legacyJti, expiresAt);
+
+        // ACT
+        RevocationIndex restarted = newIndexWithSnapshot(file, cutover);
+        restarted.loadOnStartup();
+
+        // ASSERT
+        assertTrue(restarted.contains(legacyJti));
+        assertEquals(List.of(new UUID(0L, 0L), new UUID(0L, 0L)), loadsFrom, "Dos lecturas de la tabla entera");
+    }
+
+    @Test
+    @DisplayName("Should page through the table by primary key without skipping or repeating rows")
+    void shouldLoadTheTablePageByPage() {
+        // ARRANGE: una página llena y una fila más, y una fila ya vencida que la consulta no trae
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        for (int i = 0; i <= RevocationIndex.PAGE_SIZE; i++) {
+            revoke("jti_" + i, expiresAt);
+        }
+        revoke("jti_expired", Instant.now().minusSeconds(1));
+
+        // ACT
+        revocationIndex.rebuild();
+
+        // ASSERT
+        assertEquals(2, pages, "Tras una página incompleta no se pide otra");
+        assertEquals((long) RevocationIndex.PAGE_SIZE + 1, revocationIndex.metrics().get("size"));
+        assertEquals(0L, revocationIndex.metrics().get("duplicates"));
+        for (int i = 0; i <= RevocationIndex.PAGE_SIZE; i++) {
+            assertTrue(revocationIndex.contains("jti_" + i));
+        }
+        assertFalse(revocationIndex.contains("jti_expired"));
+    }
+
+    @Test
+    @DisplayName("Should keep the false positive rate close to the configured target")
+    void bloomFilterShouldHonourFalsePositiveRate() {
+        // ARRANGE
+        BloomFilter bloom = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            UUID key = JtiKey.of("01JREVOKED" + i);
+            bloom.put(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        }
+
+        // ACT
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            UUID key = JtiKey.of("01JLIVE" + i);
+            if (bloom.mightContain(key.getMostSignificantBits(), key.getLeastSignificantBits())) {
+                falsePositives++;
+            }
+        }
+
+        // ASSERT
+        for (int i = 0; i < 10_000; i++) {
+            UUID key = JtiKey.of("01JREVOKED" + i);
+            assertTrue(bloom.mightContain(key.getMostSignificantBits(), key.getLeastSignificantBits()), "Un filtro de Bloom nunca da falsos negativos");
+        }
+        assertTrue(falsePositives < 1_000, "Falsos positivos: " + falsePositives);
+    }
+
+    private RevocationIndex newIndexWithSnapshot(Path file) {
+        return newIndexWithSnapshot(file, "2024-01-01T00:00:00Z");
+    }
+
+    private RevocationIndex newIndexWithSnapshot(Path file, String ulidJtiSince) {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setUlidJtiSince(ulidJtiSince);
+        jwtProperties.setRevocationIndexExpectedEntries(1_000);
+        jwtProperties.setAccessTokenExpirationSeconds(900);
+        jwtProperties.setRevocationSnapshotFile(file.toString());
+        return new RevocationIndex(jdbcTemplate, jwtProperties);
+    }
+
+    private void revoke(String jti, Instant expiresAt) {
+        table.put(JtiKey.of(jti), expiresAt);
+    }
+
+    /** Lo que devolvería MySQL: claves desde {@code from}, vigentes en {@code now}, en orden y hasta {@code limit}. */
+    private List<Map.Entry<UUID, Instant>> select(byte[] from, boolean inclusive, LocalDateTime now, int limit) {
+        UUID fromKey = fromBytes(from);
+        Instant nowInstant = now.toInstant(ZoneOffset.UTC);
+        return table.entrySet().stream()
+                .filter(entry -> {
+                    int cmp = table.comparator().compare(entry.getKey(), fromKey);
+                    return inclusive ? cmp >= 0 : cmp > 0;
+                })
+                .filter(entry -> entry.getValue().isAfter(nowInstant))
+                .limit(limit)
+                .toList();
+    }
+
+    private static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,65 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should write several chunks, sort them in the mapped file and read back only the active records")
+    void shouldRoundTripSortedRecords() throws Exception {
+        // ARRANGE: más registros que un tramo de escritura, en el orden (aleatorio) de la tabla hash
+        Path file = dir.resolve("revocations.bin");
+        long now = System.currentTimeMillis();
+        OffHeapRevocationSet revocations = new OffHeapRevocationSet(16);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 10_000; i++) {
+            revocations.add(random.nextLong(), random.nextLong(), i % 4 == 0 ? now + 1_000 : now + 600_000);
+        }
+        Instant highWaterMark = Instant.ofEpochMilli(now);
+
+        // ACT
+        RevocationSnapshot.write(file, highWaterMark, revocations);
+        RevocationSnapshot.Mapped snapshot = RevocationSnapshot.open(file);
+        OffHeapRevocationSet restored = new OffHeapRevocationSet(16);
+        AtomicInteger active = new AtomicInteger();
+        snapshot.forEachActive(Instant.ofEpochMilli(now + 60_000), (hi, lo, expiresAt) -> {
+            active.incrementAndGet();
+            restored.add(hi, lo, expiresAt);
+        });
+
+        // ASSERT: forEachActive rechaza un archivo desordenado
+        assertEquals(10_000, snapshot.size());
+        assertEquals(highWaterMark, snapshot.highWaterMark());
+        assertEquals(7_500, active.get());
+        assertFalse(Files.exists(dir.resolve("revocations.bin.tmp")));
+        revocations.forEach(now + 60_000, (hi, lo, expiresAt) -> assertTrue(restored.contains(hi, lo, now + 60_000)));
+    }
+
+    @Test
+    @DisplayName("Should write a valid header-only snapshot for an empty index")
+    void shouldWriteEmptySnapshot() throws Exception {
+        // ARRANGE
+        Path file = dir.resolve("revocations.bin");
+
+        // ACT
+        RevocationSnapshot.write(file, Instant.EPOCH, new OffHeapRevocationSet(16));
+        RevocationSnapshot.Mapped snapshot = RevocationSnapshot.open(file);
+
+        // ASSERT
+        assertEquals(0, snapshot.size());
+        assertEquals(32, Files.size(file));
+    }
+}
@@ -0,0 +1,91 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import com.ejemplos.jwt.infrastructure.security.jwt.JwtProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RevocationWriteBufferTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should write full batches right away and flush the remainder on shutdown")
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void shouldFlushBySizeAndOnShutdown() throws Exception {
+        // ARRANGE: ventana de flush larga, así solo el tamaño (o el apagado) dispara la escritura
+        RevocationWriteBuffer buffer = newBuffer(100, 60_000);
+        Instant expiresAt = Instant.now().plusSeconds(900);
+
+        // ACT
+        for (int i = 0; i < 250; i++) {
+            buffer.enqueue("jti_" + i, expiresAt);
+        }
+
+        // ASSERT
+        verify(jdbcTemplate, timeout(2_000).times(2))
+                .batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+
+        buffer.shutdown();
+        ArgumentCaptor<Collection> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(3))
+                .batchUpdate(startsWith("INSERT IGNORE"), rows.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(100, 100, 50), rows.getAllValues().stream().map(Collection::size).toList());
+        assertEquals(250L, buffer.metrics().get("written"));
+        assertEquals(0L, buffer.metrics().get("caller-runs"));
+    }
+
+    @Test
+    @DisplayName("Should write a partial batch once the flush window elapses")
+    @SuppressWarnings("unchecked")
+    void shouldFlushByTime() throws Exception {
+        // ARRANGE
+        RevocationWriteBuffer buffer = newBuffer(500, 20);
+
+        // ACT
+        buffer.enqueue("jti_logout", Instant.now().plusSeconds(900));
+
+        // ASSERT
+        verify(jdbcTemplate, timeout(2_000))
+                .batchUpdate(anyString(), argThat((Collection<?> c) -> c.size() == 1), eq(1), any(ParameterizedPreparedStatementSetter.class));
+        buffer.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should stay idle when durability is SYNC")
+    void shouldBeDisabledInSyncMode() throws Exception {
+        // ARRANGE
+        JwtProperties jwtProperties = new JwtProperties();
+
+        // ACT
+        RevocationWriteBuffer buffer = new RevocationWriteBuffer(jdbcTemplate, jwtProperties);
+        buffer.shutdown();
+
+        // ASSERT
+        assertFalse(buffer.isEnabled());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private RevocationWriteBuffer newBuffer(int batchSize, long flushMs) {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setRevocationDurability(RevocationDurability.WRITE_BEHIND);
+        jwtProperties.setRevocationBatchSize(batchSize);
+        jwtProperties.setRevocationFlushMs(flushMs);
+        return new RevocationWriteBuffer(jdbcTemplate, jwtProperties);
+    }
+}
@@ -0,0 +1,91 @@
+package com.ejemplos.jwt.infrastructure.persistence.revocation;
+
+import com.ejemplos.jwt.infrastructure.persistence.repository.SpringDataUserRepository;
+import com.ejemplos.jwt.infrastructure.persistence.repository.SpringDataUserRepository.UserCutoff;
+import com.ejemplos.jwt.infrastructure.security.jwt.JwtProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenCutoffRegistryTest {
+
+    @Mock
+    private SpringDataUserRepository springDataUserRepository;
+
+    @Test
+    @DisplayName("Should cut off only the tokens issued before the user's latest cutoff")
+    void shouldApplyLatestCutoffPerUser() {
+        // ARRANGE
+        Instant cutoff = Instant.now().minusSeconds(60);
+        when(springDataUserRepository.findByTokensValidAfterAfter(any()))
+                .thenReturn(List.of(userCutoff(7L, cutoff.minusSeconds(30))));
+        TokenCutoffRegistry registry = new TokenCutoffRegistry(springDataUserRepository, properties(null));
+
+        // ACT: el evento del corte nuevo llega antes que la carga (que trae uno más viejo)
+        registry.update(7L, cutoff);
+        registry.reload();
+
+        // ASSERT
+        assertTrue(registry.isReady());
+        assertTrue(registry.isCutOff(7L, cutoff.toEpochMilli() - 1));
+        assertFalse(registry.isCutOff(7L, cutoff.toEpochMilli()));
+        assertFalse(registry.isCutOff(8L, 0), "Un usuario sin corte no paga más que un get()");
+        assertFalse(registry.isNewer(7L, cutoff), "Un corte ya conocido no se vuelve a difundir");
+        assertTrue(registry.isNewer(7L, cutoff.plusMillis(1)));
+    }
+
+    @Test
+    @DisplayName("Should apply the global emergency cutoff to every token without touching the database")
+    void shouldApplyGlobalCutoff() {
+        // ARRANGE
+        Instant emergency = Instant.parse("2025-01-01T00:00:00Z");
+        TokenCutoffRegistry registry = new TokenCutoffRegistry(springDataUserRepository, properties(emergency.toString()));
+
+        // ACT & ASSERT
+        assertTrue(registry.isGloballyCutOff(emergency.toEpochMilli() - 1));
+        assertFalse(registry.isGloballyCutOff(emergency.toEpochMilli()));
+        assertFalse(registry.isReady());
+    }
+
+    @Test
+    @DisplayName("Should ignore cutoffs older than any token that could still be alive")
+    void shouldIgnoreExpiredCutoffs() {
+        // ARRANGE
+        TokenCutoffRegistry registry = new TokenCutoffRegistry(springDataUserRepository, properties(null));
+
+        // ACT & ASSERT: con vida máxima de 1200s, un corte de hace 2 horas ya no afecta a nadie
+        assertFalse(registry.isNewer(7L, Instant.now().minusSeconds(7_200)));
+    }
+
+    private static JwtProperties properties(String tokensValidAfter) {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setAccessTokenExpirationSeconds(900);
+        jwtProperties.setRefreshTokenExpirationSeconds(1_200);
+        jwtProperties.setTokensValidAfter(tokensValidAfter);
+        return jwtProperties;
+    }
+
+    private static UserCutoff userCutoff(Long id, Instant tokensValidAfter) {
+        return new UserCutoff() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Instant getTokensValidAfter() {
+                return tokensValidAfter;
+            }
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.ejemplos.jwt.infrastructure.security.authorization;
+
+import com.ejemplos.jwt.application.ports.out.VerifiedToken;
+import com.ejemplos.jwt.domain.enums.Permission;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PermissionAuthorizationManagerTest {
+
+    @Mock
+    private MethodInvocation invocation;
+
+    private final PermissionAuthorizationManager manager = new PermissionAuthorizationManager();
+
+    @Test
+    @DisplayName("Should grant only when the token carries every required permission bit")
+    void shouldCheckPermissionBits() throws Exception {
+        // ARRANGE
+        when(invocation.getMethod()).thenReturn(Endpoints.class.getMethod("adminAndMetrics"));
+        Authentication admin = authenticated(new VerifiedToken("jti_1", 1L, "admin@demo.com", "ADMIN",
+                Instant.now(), Instant.now().plusSeconds(60), "ACCESS"));
+        Authentication client = authenticated(new VerifiedToken("jti_2", 2L, "client@demo.com", "CLIENT",
+                Instant.now(), Instant.now().plusSeconds(60), "ACCESS"));
+        Authentication partial = authenticated(new VerifiedToken("jti_3", 3L, "x@demo.com", "CLIENT",
+                Instant.now(), Instant.now().plusSeconds(60), "ACCESS", Permission.USERS_ADMIN_AREA.mask()));
+
+        // ACT & ASSERT
+        assertTrue(manager.authorize(() -> admin, invocation).isGranted());
+        assertFalse(manager.authorize(() -> client, invocation).isGranted());
+        assertFalse(manager.authorize(() -> partial, invocation).isGranted());
+        assertFalse(manager.authorize(() -> null, invocation).isGranted());
+    }
+
+    private static Authentication authenticated(VerifiedToken token) {
+        return new UsernamePasswordAuthenticationToken(token.subject(), token, List.of());
+    }
+
+    static class Endpoints {
+        @RequiresPermission({Permission.USERS_ADMIN_AREA, Permission.METRICS_READ})
+        public void adminAndMetrics() {
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ejemplos.jwt.infrastructure.security.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de generación de JTIs: {@code UUID.randomUUID()} contra {@link UlidTokenIdGenerator},
+ * con uno y con varios hilos.
+ * <p>
+ * No corre con los tests. Para ejecutarlo (con {@code -prof gc} se ven además los bytes por operación):
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main UlidTokenIdGeneratorBenchmark -prof gc
+ * </pre>
+ * Con varios hilos, {@code UUID} comparte un único {@link java.security.SecureRandom}; el ULID usa uno por hilo.
+ * La diferencia solo aparece con tantos núcleos como hilos.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UlidTokenIdGeneratorBenchmark {
+
+    private final UlidTokenIdGenerator generator = new UlidTokenIdGenerator();
+
+    @Benchmark
+    @Threads(1)
+    public String uuidSingleThread() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String ulidSingleThread() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String uuidEightThreads() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String ulidEightThreads() {
+        return generator.nextId();
+    }
+}
@@ -0,0 +1,53 @@
+package com.ejemplos.jwt.infrastructure.security.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UlidTokenIdGeneratorTest {
+
+    private final UlidTokenIdGenerator generator = new UlidTokenIdGenerator();
+
+    @Test
+    @DisplayName("Should produce 26-char Crockford Base32 IDs ordered by time")
+    void shouldBeCompactAndTimeOrdered() {
+        // ACT
+        String earlier = generator.nextId(1_700_000_000_000L);
+        String later = generator.nextId(1_700_000_000_001L);
+
+        // ASSERT
+        assertEquals(26, earlier.length());
+        assertTrue(earlier.matches("[0-9A-HJKMNP-TV-Z]{26}"));
+        assertEquals("01HF7YAT00", earlier.substring(0, 10)); // Timestamp codificado
+        assertTrue(earlier.compareTo(later) < 0);
+    }
+
+    @Test
+    @DisplayName("Should not repeat IDs across threads within the same millisecond")
+    void shouldBeUniqueAcrossThreads() throws Exception {
+        // ARRANGE
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // ACT
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    ids.add(generator.nextId(1_700_000_000_000L));
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        // ASSERT
+        assertEquals(160_000, ids.size());
+    }
+}
@@ -0,0 +1,73 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import com.ejemplos.jwt.application.ports.out.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de la verificación de un Access Token HMAC: jjwt ({@code parseSignedClaims}) contra
+ * el camino rápido del {@link AccessTokenDecoder}.
+ * <p>
+ * No corre con los tests. Para ejecutarlo (con {@code -prof gc} se ve la alocación por operación):
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main AccessTokenDecoderBenchmark -prof gc
+ * </pre>
+ * Ambos verifican el mismo token (emitido por {@link TokenMinter}) con la misma llave; jjwt termina en un
+ * {@link Claims} genérico y el decodificador en un {@link VerifiedToken}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessTokenDecoderBenchmark {
+
+    private JwtParser jwtParser;
+    private AccessTokenDecoder decoder;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SecretKey key = Keys.hmacShaKeyFor("esta-es-una-clave-secreta-muy-larga-y-segura-para-benchmarks-solamente"
+                .getBytes(StandardCharsets.UTF_8));
+        long now = System.currentTimeMillis() / 1000;
+        token = new TokenMinter(key, JwtTokenProviderAdapter.ISSUER, "bench")
+                .mint("bench@demo.com", "01JA7ZQ5W3XK2M9T4V6B8C0D1E", 7L, "ADMIN", 0xFFL, "ACCESS", now, now + 3600);
+
+        jwtParser = Jwts.parser().verifyWith(key).build();
+        decoder = new AccessTokenDecoder(key, "bench");
+        if (decoder.decode(token) == null) {
+            throw new IllegalStateException("El decodificador rápido no acepta el token de referencia");
+        }
+    }
+
+    @Benchmark
+    public Claims jjwt() {
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public VerifiedToken fastPath() {
+        return decoder.decode(token);
+    }
+}
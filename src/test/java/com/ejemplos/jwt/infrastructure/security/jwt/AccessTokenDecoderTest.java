@@ -0,0 +1,124 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import com.ejemplos.jwt.application.ports.out.VerifiedToken;
+import com.ejemplos.jwt.domain.enums.UserRole;
+import com.ejemplos.jwt.infrastructure.security.id.Ulid;
+import com.ejemplos.jwt.infrastructure.security.id.UlidTokenIdGenerator;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessTokenDecoderTest {
+
+    private final SecretKey key = Keys.hmacShaKeyFor(
+            "esta-es-una-clave-secreta-muy-larga-y-segura-para-tests-local-solamente".getBytes(StandardCharsets.UTF_8));
+
+    private final AccessTokenDecoder decoder = new AccessTokenDecoder(key);
+
+    @Test
+    @DisplayName("Should decode our own access token layout")
+    void shouldDecodeAccessToken() {
+        // ARRANGE
+        Instant exp = Instant.now().plusSeconds(900);
+        String token = Jwts.builder()
+                .subject("test@demo.com")
+                .issuer("jwt-ejemplo")
+                .id("jti_1")
+                .claim("uid", 7L)
+                .claim("role", "ADMIN")
+                .claim("type", "ACCESS")
+                .issuedAt(new Date())
+                .expiration(Date.from(exp))
+                .signWith(key)
+                .compact();
+
+        // ACT
+        VerifiedToken verified = decoder.decode(token);
+
+        // ASSERT
+        assertNotNull(verified);
+        assertEquals("jti_1", verified.jti());
+        assertEquals(7L, verified.uid());
+        assertEquals("test@demo.com", verified.subject());
+        assertEquals("ADMIN", verified.role());
+        assertEquals("ACCESS", verified.type());
+        assertEquals(exp.getEpochSecond(), verified.expiresAt().getEpochSecond());
+    }
+
+    @Test
+    @DisplayName("Should decode the compact profile back to the classic view")
+    void shouldDecodeCompactProfile() {
+        // ARRANGE
+        String ulid = new UlidTokenIdGenerator().nextId();
+        byte[] jti = new byte[Ulid.BINARY_LENGTH];
+        Ulid.toBytes(ulid, jti, 0);
+        long now = Instant.now().getEpochSecond();
+        String token = new TokenMinter(key, "jwt-ejemplo").mintCompact("test@demo.com", jti, 7L,
+                CompactClaims.roleCode("CLIENT"), UserRole.CLIENT.getPermissions(), CompactClaims.typeCode("ACCESS"),
+                now, now + 900);
+
+        // ACT
+        VerifiedToken verified = decoder.decode(token);
+
+        // ASSERT
+        assertNotNull(verified);
+        assertEquals(ulid, verified.jti());
+        assertEquals("CLIENT", verified.role());
+        assertEquals("ACCESS", verified.type());
+        assertEquals(7L, verified.uid());
+        assertEquals(UserRole.CLIENT.getPermissions(), verified.permissions());
+    }
+
+    @Test
+    @DisplayName("Should fall back (null) when the signature does not match")
+    void shouldRejectTamperedSignature() {
+        // ARRANGE
+        SecretKey otherKey = Keys.hmacShaKeyFor(
+                "otra-clave-secreta-distinta-y-suficientemente-larga-para-hs512-en-tests!".getBytes(StandardCharsets.UTF_8));
+        String token = Jwts.builder()
+                .subject("test@demo.com")
+                .id("jti_1")
+                .claim("type", "ACCESS")
+                .expiration(Date.from(Instant.now().plusSeconds(900)))
+                .signWith(otherKey)
+                .compact();
+
+        // ACT & ASSERT
+        assertNull(decoder.decode(token));
+    }
+
+    @Test
+    @DisplayName("Should fall back (null) on expired tokens and unknown claims")
+    void shouldFallBackOnUnexpectedContent() {
+        // ARRANGE
+        String expired = Jwts.builder()
+                .subject("test@demo.com")
+                .id("jti_1")
+                .claim("type", "ACCESS")
+                .expiration(Date.from(Instant.now().minusSeconds(10)))
+                .signWith(key)
+                .compact();
+
+        String unknownClaim = Jwts.builder()
+                .subject("test@demo.com")
+                .id("jti_1")
+                .claim("type", "ACCESS")
+                .claim("scope", "extra")
+                .expiration(Date.from(Instant.now().plusSeconds(900)))
+                .signWith(key)
+                .compact();
+
+        // ACT & ASSERT
+        assertNull(decoder.decode(expired));
+        assertNull(decoder.decode(unknownClaim));
+        assertNull(decoder.decode("not-a-jwt"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import com.ejemplos.jwt.infrastructure.security.TokenDigest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class BearerTokenPreValidatorTest {
+
+    private static final String HEADER = "eyJhbGciOiJIUzUxMiJ9"; // {"alg":"HS512"}
+
+    @Mock
+    private JwtTokenProviderAdapter jwtTokenProviderAdapter;
+
+    private BearerTokenPreValidator preValidator;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setMaxTokenLength(128);
+        lenient().when(jwtTokenProviderAdapter.getAcceptedHeaders()).thenReturn(List.of(HEADER));
+        preValidator = new BearerTokenPreValidator(jwtTokenProviderAdapter, properties);
+    }
+
+    @Test
+    @DisplayName("Should accept a token with our header and three Base64URL segments")
+    void shouldAcceptWellFormedToken() {
+        // ACT & ASSERT
+        assertTrue(preValidator.isWellFormed(HEADER + ".eyJzdWIiOiJ4In0.c2lnbmF0dXJl-_"));
+    }
+
+    @Test
+    @DisplayName("Should reject garbage, foreign headers, bad alphabet, wrong segment count and oversized tokens")
+    void shouldRejectMalformedTokens() {
+        // ACT & ASSERT
+        assertFalse(preValidator.isWellFormed("wrong-access-token"));
+        assertFalse(preValidator.isWellFormed("eyJhbGciOiJub25lIn0.eyJzdWIiOiJ4In0.")); // {"alg":"none"}
+        assertFalse(preValidator.isWellFormed(HEADER + ".eyJzdWIiOiJ4In0.c2ln+bmF0/dXJl"));
+        assertFalse(preValidator.isWellFormed(HEADER + ".eyJzdWIiOiJ4In0"));
+        assertFalse(preValidator.isWellFormed(HEADER + "..c2lnbmF0dXJl"));
+        assertFalse(preValidator.isWellFormed(HEADER + ".a.b.c"));
+        assertFalse(preValidator.isWellFormed(HEADER + "." + "A".repeat(120) + ".c2lnbmF0dXJl"));
+        assertEquals(7L, preValidator.metrics().get("malformed"));
+    }
+
+    @Test
+    @DisplayName("Should short-circuit a token that was rejected recently")
+    void shouldRememberRejectedTokens() {
+        // ARRANGE
+        TokenDigest digest = TokenDigest.of(HEADER + ".eyJzdWIiOiJ4In0.Zm9yZ2Vk");
+        assertFalse(preValidator.isRecentlyRejected(digest));
+
+        // ACT
+        preValidator.markRejected(digest);
+
+        // ASSERT
+        assertTrue(preValidator.isRecentlyRejected(digest));
+        assertEquals(1L, preValidator.metrics().get("short-circuited"));
+    }
+}
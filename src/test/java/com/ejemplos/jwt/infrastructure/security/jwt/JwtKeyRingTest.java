@@ -0,0 +1,82 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import com.ejemplos.jwt.application.ports.out.VerifiedToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtKeyRingTest {
+
+    private static final String OLD_SECRET = "clave-anterior-del-anillo-lo-bastante-larga-para-firmar-con-hs512-ok!!";
+    private static final String NEW_SECRET = "clave-nueva-del-anillo-tambien-lo-bastante-larga-para-firmar-hs512-ok!";
+
+    @TempDir
+    Path dir;
+
+    private JwtKeyRing keyRing;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        keyRing.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should sign with the active kid and keep verifying retiring keys after a rotation")
+    void shouldRotateWithoutInvalidatingLiveTokens() throws Exception {
+        // ARRANGE
+        Path file = dir.resolve("keys.properties");
+        Files.writeString(file, "active=2026-04\nkey.2026-04=" + OLD_SECRET + "\n");
+        keyRing = newKeyRing(file);
+        long now = Instant.now().getEpochSecond();
+        String oldToken = keyRing.active().minter().mint("test@demo.com", "jti_1", 7L, "ADMIN", "ACCESS", now, now + 900);
+
+        // ACT: se agrega la llave nueva y pasa a ser la activa
+        Files.writeString(file, "active=2026-10\nkey.2026-10=" + NEW_SECRET + "\nkey.2026-04=" + OLD_SECRET + "\n");
+        keyRing.reload();
+        String newToken = keyRing.active().minter().mint("test@demo.com", "jti_2", 7L, "ADMIN", "ACCESS", now, now + 900);
+
+        // ASSERT
+        assertEquals("2026-10", keyRing.active().keyId());
+        VerifiedToken oldVerified = keyRing.forToken(oldToken).decoder().decode(oldToken);
+        VerifiedToken newVerified = keyRing.forToken(newToken).decoder().decode(newToken);
+        assertEquals("jti_1", oldVerified.jti());
+        assertEquals("jti_2", newVerified.jti());
+        assertEquals(2, keyRing.acceptedHeaders().size());
+        assertTrue(newToken.startsWith(keyRing.acceptedHeaders().get(0)), "La llave activa va primero");
+    }
+
+    @Test
+    @DisplayName("Should stop verifying a removed key and keep the previous ring when the file is invalid")
+    void shouldRetireKeysAndIgnoreBrokenFiles() throws Exception {
+        // ARRANGE
+        Path file = dir.resolve("keys.properties");
+        Files.writeString(file, "active=2026-10\nkey.2026-10=" + NEW_SECRET + "\nkey.2026-04=" + OLD_SECRET + "\n");
+        keyRing = newKeyRing(file);
+
+        // ACT
+        Files.writeString(file, "active=2026-10\nkey.2026-10=" + NEW_SECRET + "\n");
+        keyRing.reload();
+        Files.writeString(file, "active=inexistente\n");
+        keyRing.reload();
+
+        // ASSERT
+        assertNull(keyRing.verificationKey("2026-04"));
+        assertNotNull(keyRing.verificationKey("2026-10"));
+        assertEquals("2026-10", keyRing.active().keyId());
+    }
+
+    private static JwtKeyRing newKeyRing(Path file) throws Exception {
+        JwtProperties properties = new JwtProperties();
+        properties.setKeyRingFile(file.toString());
+        JwtKeyRing ring = new JwtKeyRing(properties, new VerifiedClaimsCache(properties));
+        ring.init();
+        return ring;
+    }
+}
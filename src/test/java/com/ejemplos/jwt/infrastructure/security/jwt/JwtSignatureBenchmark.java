@@ -0,0 +1,128 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import com.ejemplos.jwt.application.ports.out.VerifiedToken;
+import com.ejemplos.jwt.domain.enums.UserRole;
+import com.ejemplos.jwt.domain.model.User;
+import com.ejemplos.jwt.infrastructure.security.id.SecureRandomSecretTokenGenerator;
+import com.ejemplos.jwt.infrastructure.security.id.UlidTokenIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de firma y verificación de Access Tokens: HMAC (HS) contra EdDSA y ES256.
+ * <p>
+ * No corre con los tests. Para ejecutarlo:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main JwtSignatureBenchmark
+ * </pre>
+ * Mide el camino real del {@link JwtTokenProviderAdapter} (en HS: {@link TokenMinter} y {@link AccessTokenDecoder}).
+ * La caché de tokens verificados está deshabilitada y el umbral sin estado cubre toda la vida del token,
+ * así que {@code verify} es solo criptografía y parseo: ni caché ni Lista Negra.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtSignatureBenchmark {
+
+    @Param({"HS", "EDDSA", "ES256"})
+    public JwtSignatureAlgorithm algorithm;
+
+    private Path keysDir;
+    private JwtTokenProviderAdapter adapter;
+    private User user;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecretKey("esta-es-una-clave-secreta-muy-larga-y-segura-para-benchmarks-solamente");
+        properties.setAccessTokenExpirationSeconds(900);
+        properties.setClaimsCacheMaxSize(0);
+        properties.setStatelessValidationThresholdSeconds(3600);
+        properties.setSignatureAlgorithm(algorithm);
+        if (algorithm.isAsymmetric()) {
+            keysDir = Files.createTempDirectory("jwt-bench");
+            KeyPair keyPair = generateKeyPair();
+            properties.setPrivateKeyPath(writePem(keysDir.resolve("private.pem"), "PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+            properties.setPublicKeyPath(writePem(keysDir.resolve("public.pem"), "PUBLIC KEY", keyPair.getPublic().getEncoded()));
+        }
+
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(properties);
+        JwtKeyRing keyRing = new JwtKeyRing(properties, cache);
+        keyRing.init();
+        // Sin repositorios: con el umbral sin estado nunca se consultan
+        adapter = new JwtTokenProviderAdapter(properties, null, null, cache, keyRing, new UlidTokenIdGenerator(), new SecureRandomSecretTokenGenerator());
+        adapter.init();
+
+        user = new User(7L, "Bench", "User", "bench@demo.com", "hash", UserRole.ADMIN, true, Instant.now(), Instant.now());
+        token = adapter.generateAccessToken(user);
+        if (adapter.verifyAccessToken(token).isEmpty()) {
+            throw new IllegalStateException("El token de referencia no verifica");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (keysDir != null) {
+            try (var files = Files.list(keysDir)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(keysDir);
+        }
+    }
+
+    @Benchmark
+    public String sign() {
+        return adapter.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verify() {
+        return adapter.verifyAccessToken(token);
+    }
+
+    private KeyPair generateKeyPair() throws Exception {
+        if (algorithm == JwtSignatureAlgorithm.ES256) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        }
+        return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+    }
+
+    private static String writePem(Path file, String type, byte[] der) throws Exception {
+        String pem = "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+        Files.writeString(file, pem);
+        return file.toString();
+    }
+}
@@ -0,0 +1,229 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import com.ejemplos.jwt.application.ports.out.GeneratedToken;
+import com.ejemplos.jwt.application.ports.out.VerifiedToken;
+import com.ejemplos.jwt.domain.enums.UserRole;
+import com.ejemplos.jwt.domain.model.User;
+import com.ejemplos.jwt.domain.repository.RevokedTokenRepository;
+import com.ejemplos.jwt.domain.repository.TokenCutoffRepository;
+import com.ejemplos.jwt.infrastructure.security.id.SecureRandomSecretTokenGenerator;
+import com.ejemplos.jwt.infrastructure.security.id.UlidTokenIdGenerator;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwtTokenProviderAdapterTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    private TokenCutoffRepository tokenCutoffRepository;
+
+    @TempDir
+    Path keysDir;
+
+    @Test
+    @DisplayName("Should sign with Ed25519 and be verifiable with the published JWKS")
+    void shouldSignWithEdDsaAndPublishJwks() throws Exception {
+        // ARRANGE
+        KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        JwtProperties properties = new JwtProperties();
+        properties.setSignatureAlgorithm(JwtSignatureAlgorithm.EDDSA);
+        properties.setPrivateKeyPath(writePem(keysDir.resolve("private.pem"), "PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+        properties.setPublicKeyPath(writePem(keysDir.resolve("public.pem"), "PUBLIC KEY", keyPair.getPublic().getEncoded()));
+        properties.setAccessTokenExpirationSeconds(900);
+
+        JwtTokenProviderAdapter adapter = new JwtTokenProviderAdapter(
+                properties, revokedTokenRepository, tokenCutoffRepository, new VerifiedClaimsCache(properties), new JwtKeyRing(properties, new VerifiedClaimsCache(properties)),
+                new UlidTokenIdGenerator(), new SecureRandomSecretTokenGenerator());
+        adapter.init();
+
+        User user = new User(7L, "Test", "User", "test@demo.com", "hash", UserRole.CLIENT, true, Instant.now(), Instant.now());
+        when(revokedTokenRepository.isRevoked(anyString())).thenReturn(false);
+
+        // ACT
+        String token = adapter.generateAccessToken(user);
+        Optional<VerifiedToken> verified = adapter.verifyAccessToken(token);
+
+        // ASSERT: verificación interna
+        assertTrue(verified.isPresent());
+        assertEquals("test@demo.com", verified.get().subject());
+
+        // ASSERT: un tercero verifica solo con el JWKS publicado
+        JwkSet jwkSet = Jwks.setParser().build().parse(adapter.getJwksJson());
+        PublicJwk<?> jwk = (PublicJwk<?>) jwkSet.getKeys().iterator().next();
+        Claims claims = Jwts.parser()
+                .verifyWith((PublicKey) jwk.toKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        assertEquals("CLIENT", claims.get("role", String.class));
+        assertFalse(adapter.getJwksJson().contains("\"d\""), "El JWKS jamás debe incluir la parte privada");
+    }
+
+    @Test
+    @DisplayName("Should issue compact access tokens and keep accepting the classic profile")
+    void shouldAcceptBothProfiles() {
+        // ARRANGE
+        JwtProperties properties = new JwtProperties();
+        properties.setSecretKey("esta-es-una-clave-secreta-muy-larga-y-segura-para-tests-local-solamente");
+        properties.setAccessTokenExpirationSeconds(900);
+        JwtTokenProviderAdapter classicAdapter = newHmacAdapter(properties);
+        User user = new User(7L, "Test", "User", "test@demo.com", "hash", UserRole.ADMIN, true, Instant.now(), Instant.now());
+        String classic = classicAdapter.generateAccessToken(user);
+
+        properties.setCompactAccessTokens(true);
+        JwtTokenProviderAdapter compactAdapter = newHmacAdapter(properties);
+        when(revokedTokenRepository.isRevoked(anyString())).thenReturn(false);
+
+        // ACT
+        String compact = compactAdapter.generateAccessToken(user);
+        Optional<VerifiedToken> fromCompact = compactAdapter.verifyAccessToken(compact);
+        Optional<VerifiedToken> fromClassic = compactAdapter.verifyAccessToken(classic);
+
+        // ASSERT
+        assertTrue(compact.length() < classic.length());
+        assertTrue(fromCompact.isPresent());
+        assertTrue(fromClassic.isPresent());
+        assertEquals("ADMIN", fromCompact.get().role());
+        assertEquals("ACCESS", fromCompact.get().type());
+        assertEquals(26, fromCompact.get().jti().length(), "El JTI vuelve a su forma texto (ULID)");
+        Optional<VerifiedToken> reparsed = newHmacAdapter(properties).verifyAccessToken(compact); // Sin caché: parseo completo
+        assertEquals(fromCompact.get().jti(), reparsed.orElseThrow().jti());
+        assertEquals(fromCompact.get().subject(), reparsed.get().subject());
+        assertEquals(fromCompact.get().expiresAt(), reparsed.get().expiresAt());
+    }
+
+    @Test
+    @DisplayName("Should reject tokens issued before the user's cutoff and accept a login right after it")
+    void shouldApplySessionCutoffWithMillisecondPrecision() throws Exception {
+        // ARRANGE
+        JwtProperties properties = new JwtProperties();
+        properties.setSecretKey("esta-es-una-clave-secreta-muy-larga-y-segura-para-tests-local-solamente");
+        properties.setAccessTokenExpirationSeconds(900);
+        JwtTokenProviderAdapter adapter = newHmacAdapter(properties);
+        User user = new User(7L, "Test", "User", "test@demo.com", "hash", UserRole.CLIENT, true, Instant.now(), Instant.now());
+        when(revokedTokenRepository.isRevoked(anyString())).thenReturn(false);
+
+        String beforeCutoff = adapter.generateAccessToken(user);
+        Thread.sleep(2);
+        Instant cutoff = Instant.now(); // Ej: cambio de contraseña
+        Thread.sleep(2);
+        String afterCutoff = adapter.generateAccessToken(user); // Muy probablemente, el mismo segundo del corte
+        when(tokenCutoffRepository.isIssuedBeforeCutoff(eq(7L), any()))
+                .thenAnswer(invocation -> invocation.<Instant>getArgument(1).isBefore(cutoff));
+
+        // ACT & ASSERT
+        assertTrue(adapter.verifyAccessToken(beforeCutoff).isEmpty());
+        assertTrue(adapter.verifyAccessToken(afterCutoff).isPresent());
+    }
+
+    @Test
+    @DisplayName("Should skip the revocation lookups for tokens that expire within the stateless threshold")
+    void shouldValidateStatelesslyNearExpiry() {
+        // ARRANGE: Access Tokens de 5 segundos, umbral de 10 (validación totalmente sin estado)
+        JwtProperties properties = new JwtProperties();
+        properties.setSecretKey("esta-es-una-clave-secreta-muy-larga-y-segura-para-tests-local-solamente");
+        properties.setAccessTokenExpirationSeconds(5);
+        properties.setStatelessValidationThresholdSeconds(10);
+        JwtTokenProviderAdapter adapter = newHmacAdapter(properties);
+        User user = new User(7L, "Test", "User", "test@demo.com", "hash", UserRole.CLIENT, true, Instant.now(), Instant.now());
+        String token = adapter.generateAccessToken(user);
+
+        // ACT
+        Optional<VerifiedToken> verified = adapter.verifyAccessToken(token);
+        boolean revocationRequired = adapter.isRevocationRequired(verified.orElseThrow().expiresAt());
+
+        // ASSERT
+        assertFalse(revocationRequired, "Revocarlo no serviría: nadie lo consultaría");
+        assertTrue(adapter.isRevocationRequired(Instant.now().plusSeconds(60)));
+        verifyNoInteractions(revokedTokenRepository, tokenCutoffRepository);
+        assertEquals(1L, adapter.metrics().get("revocation-checks-skipped"));
+        assertEquals(0L, adapter.metrics().get("revocation-checks"));
+        assertEquals(1L, adapter.metrics().get("revocations-not-persisted"));
+    }
+
+    @Test
+    @DisplayName("Should issue opaque refresh tokens and accept legacy JWTs only while migrating")
+    void shouldIssueOpaqueRefreshTokensWithMigrationMode() {
+        // ARRANGE
+        JwtProperties properties = new JwtProperties();
+        properties.setSecretKey("esta-es-una-clave-secreta-muy-larga-y-segura-para-tests-local-solamente");
+        properties.setRefreshTokenExpirationSeconds(3600);
+        User user = new User(7L, "Test", "User", "test@demo.com", "hash", UserRole.CLIENT, true, Instant.now(), Instant.now());
+        String legacy = newHmacAdapter(properties).generateRefreshToken(user).token();
+
+        properties.setRefreshTokenFormat(RefreshTokenFormat.MIGRATION);
+        JwtTokenProviderAdapter migrating = newHmacAdapter(properties);
+        when(revokedTokenRepository.isRevoked(anyString())).thenReturn(false);
+
+        // ACT
+        GeneratedToken opaque = migrating.generateRefreshToken(user);
+        GeneratedToken another = migrating.generateRefreshToken(user);
+
+        // ASSERT
+        assertEquals(43, opaque.token().length(), "256 bits en Base64URL sin padding");
+        assertFalse(opaque.token().contains("."));
+        assertNotEquals(opaque.token(), another.token());
+        assertTrue(migrating.isRefreshTokenValid(opaque.token()));
+        assertTrue(migrating.isRefreshTokenValid(legacy), "Durante la migración los JWT siguen valiendo");
+        assertFalse(migrating.isRefreshTokenValid(opaque.token().substring(1) + "!"));
+        assertEquals(1L, migrating.metrics().get("refresh-opaque-accepted"));
+        assertEquals(1L, migrating.metrics().get("refresh-jwt-accepted"));
+
+        properties.setRefreshTokenFormat(RefreshTokenFormat.OPAQUE);
+        JwtTokenProviderAdapter opaqueOnly = newHmacAdapter(properties);
+        assertTrue(opaqueOnly.isRefreshTokenValid(opaque.token()));
+        assertFalse(opaqueOnly.isRefreshTokenValid(legacy), "Terminada la migración, un JWT ya no se acepta");
+        verify(revokedTokenRepository, times(1)).isRevoked(anyString());
+    }
+
+    private JwtTokenProviderAdapter newHmacAdapter(JwtProperties properties) {
+        try {
+            JwtKeyRing keyRing = new JwtKeyRing(properties, new VerifiedClaimsCache(properties));
+            keyRing.init();
+            JwtTokenProviderAdapter adapter = new JwtTokenProviderAdapter(
+                    properties, revokedTokenRepository, tokenCutoffRepository, new VerifiedClaimsCache(properties), keyRing, new UlidTokenIdGenerator(), new SecureRandomSecretTokenGenerator());
+            adapter.init();
+            return adapter;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String writePem(Path file, String type, byte[] der) throws Exception {
+        String pem = "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+        Files.writeString(file, pem);
+        return file.toString();
+    }
+}
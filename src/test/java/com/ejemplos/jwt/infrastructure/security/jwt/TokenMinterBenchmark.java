@@ -0,0 +1,82 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de la emisión de un Access Token HMAC: {@code Jwts.builder()} contra el {@link TokenMinter}.
+ * <p>
+ * No corre con los tests. Para ejecutarlo (con {@code -prof gc} se ve la alocación por operación):
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main TokenMinterBenchmark -prof gc
+ * </pre>
+ * Los dos arman el mismo token (header con {@code kid}, mismos claims y en el mismo orden) con la misma llave.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenMinterBenchmark {
+
+    private static final String SUBJECT = "bench@demo.com";
+    private static final String JTI = "01JA7ZQ5W3XK2M9T4V6B8C0D1E";
+
+    private SecretKey key;
+    private TokenMinter minter;
+    private long issuedAt;
+    private long expiration;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        key = Keys.hmacShaKeyFor("esta-es-una-clave-secreta-muy-larga-y-segura-para-benchmarks-solamente"
+                .getBytes(StandardCharsets.UTF_8));
+        minter = new TokenMinter(key, JwtTokenProviderAdapter.ISSUER, "bench");
+        issuedAt = System.currentTimeMillis() / 1000;
+        expiration = issuedAt + 900;
+        if (!jjwt().equals(minter())) {
+            throw new IllegalStateException("El minter y jjwt no emiten el mismo token");
+        }
+    }
+
+    @Benchmark
+    public String jjwt() {
+        return Jwts.builder()
+                .header().keyId("bench").and()
+                .subject(SUBJECT)
+                .issuer(JwtTokenProviderAdapter.ISSUER)
+                .id(JTI)
+                .claim("uid", 7L)
+                .claim("role", "ADMIN")
+                .claim("perm", 0xFFL)
+                .claim("type", "ACCESS")
+                .issuedAt(new Date(issuedAt * 1000))
+                .expiration(new Date(expiration * 1000))
+                .signWith(key)
+                .compact();
+    }
+
+    @Benchmark
+    public String minter() {
+        return minter.mint(SUBJECT, JTI, 7L, "ADMIN", 0xFFL, "ACCESS", issuedAt, expiration);
+    }
+}
@@ -0,0 +1,67 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenMinterTest {
+
+    private final SecretKey key = Keys.hmacShaKeyFor(
+            "esta-es-una-clave-secreta-muy-larga-y-segura-para-tests-local-solamente".getBytes(StandardCharsets.UTF_8));
+
+    private final TokenMinter tokenMinter = new TokenMinter(key, "jwt-ejemplo");
+
+    @Test
+    @DisplayName("Should mint the same bytes as Jwts.builder()")
+    void shouldMatchJjwtOutput() {
+        // ARRANGE
+        long now = Instant.now().getEpochSecond();
+        String expected = Jwts.builder()
+                .subject("test@demo.com")
+                .issuer("jwt-ejemplo")
+                .id("jti_1")
+                .claim("uid", 7L)
+                .claim("role", "ADMIN")
+                .claim("perm", 13L)
+                .claim("type", "ACCESS")
+                .issuedAt(new Date(now * 1000))
+                .expiration(new Date((now + 900) * 1000))
+                .signWith(key)
+                .compact();
+
+        // ACT
+        String minted = tokenMinter.mint("test@demo.com", "jti_1", 7L, "ADMIN", 13L, "ACCESS", now, now + 900);
+
+        // ASSERT
+        assertEquals(expected, minted);
+    }
+
+    @Test
+    @DisplayName("Should be verifiable by jjwt (refresh token with escaped subject)")
+    void shouldBeVerifiableByJjwt() {
+        // ARRANGE
+        long now = Instant.now().getEpochSecond();
+
+        // ACT
+        String minted = tokenMinter.mint("o\"brien@demo.com", "jti_2", 9L, null, "REFRESH", now, now + 60);
+        Claims claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(minted).getPayload();
+
+        // ASSERT
+        assertEquals("o\"brien@demo.com", claims.getSubject());
+        assertEquals("jwt-ejemplo", claims.getIssuer());
+        assertEquals("jti_2", claims.getId());
+        assertEquals(9L, claims.get("uid", Long.class));
+        assertNull(claims.get("role"));
+        assertEquals("REFRESH", claims.get("type", String.class));
+        assertEquals(now + 60, claims.getExpiration().toInstant().getEpochSecond());
+    }
+}
@@ -0,0 +1,116 @@
+package com.ejemplos.jwt.infrastructure.security.jwt;
+
+import com.ejemplos.jwt.application.ports.out.VerifiedToken;
+import com.ejemplos.jwt.infrastructure.security.TokenDigest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedClaimsCacheTest {
+
+    @Test
+    @DisplayName("Should return a cached token until its exp, even before the wheel evicts it")
+    void shouldExpireOnReadWithinTheCurrentTick() throws Exception {
+        // ARRANGE
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(properties(10));
+        TokenDigest digest = TokenDigest.of("header.payload.signature");
+        VerifiedToken token = token(Instant.now().plusMillis(300));
+        cache.put(digest, token);
+
+        // ACT
+        VerifiedToken beforeExp = cache.get(digest);
+        Thread.sleep(400); // Vence antes de que la rueda (ticks de 1 s) lo desaloje
+        VerifiedToken afterExp = cache.get(digest);
+
+        // ASSERT
+        assertSame(token, beforeExp);
+        assertNull(afterExp, "Un token vencido nunca sale de la caché");
+        assertEquals(0L, cache.size());
+        assertEquals(1L, cache.metrics().get("hits"));
+        assertEquals(1L, cache.metrics().get("misses"));
+        assertEquals(1L, cache.metrics().get("evictions"));
+    }
+
+    @Test
+    @DisplayName("Should evict entries at exp when the timing wheel advances")
+    void shouldEvictOnTheWheel() throws Exception {
+        // ARRANGE
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(properties(10));
+        cache.put(TokenDigest.of("short.lived.token"), token(Instant.now().plusMillis(10)));
+        cache.put(TokenDigest.of("long.lived.token"), token(Instant.now().plusSeconds(900)));
+
+        // ACT
+        Thread.sleep(1_100);
+        cache.evictExpired();
+
+        // ASSERT
+        assertEquals(1L, cache.size());
+        assertNotNull(cache.get(TokenDigest.of("long.lived.token")));
+        assertEquals(1L, cache.metrics().get("evictions"));
+    }
+
+    @Test
+    @DisplayName("Should never hold more than maxSize entries")
+    void shouldBoundTheSize() {
+        // ARRANGE
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(properties(3));
+
+        // ACT
+        for (int i = 0; i < 10; i++) {
+            cache.put(TokenDigest.of("token." + i + ".signature"), token(Instant.now().plusSeconds(900)));
+        }
+
+        // ASSERT
+        assertEquals(3L, cache.size());
+        assertEquals(7L, cache.metrics().get("evictions"));
+        assertNotNull(cache.get(TokenDigest.of("token.9.signature")), "La última entrada siempre se guarda");
+    }
+
+    @Test
+    @DisplayName("Should drop every entry when a signing key is retired")
+    void shouldClearOnKeyRetirement() {
+        // ARRANGE
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(properties(10));
+        TokenDigest digest = TokenDigest.of("signed.with.retired-key");
+        cache.put(digest, token(Instant.now().plusSeconds(900)));
+        cache.put(TokenDigest.of("another.signed.token"), token(Instant.now().plusSeconds(900)));
+
+        // ACT
+        cache.clear();
+
+        // ASSERT
+        assertEquals(0L, cache.size());
+        assertNull(cache.get(digest));
+        assertEquals(2L, cache.metrics().get("evictions"));
+        assertEquals(1L, cache.metrics().get("misses"));
+    }
+
+    @Test
+    @DisplayName("Should cache nothing when disabled")
+    void shouldDoNothingWhenDisabled() {
+        // ARRANGE
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(properties(0));
+        TokenDigest digest = TokenDigest.of("header.payload.signature");
+
+        // ACT
+        cache.put(digest, token(Instant.now().plusSeconds(900)));
+
+        // ASSERT
+        assertNull(cache.get(digest));
+        assertEquals(0L, cache.size());
+        assertEquals(1L, cache.metrics().get("misses"));
+    }
+
+    private static VerifiedToken token(Instant expiresAt) {
+        return new VerifiedToken("01J0000000000000000000000A", 7L, "test@demo.com", "CLIENT", Instant.now(), expiresAt, "ACCESS");
+    }
+
+    private static JwtProperties properties(int maxSize) {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setClaimsCacheMaxSize(maxSize);
+        return jwtProperties;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ejemplos.jwt.infrastructure.web;
+
+import com.ejemplos.jwt.infrastructure.security.jwt.JwtProperties;
+import com.ejemplos.jwt.infrastructure.security.jwt.JwtTokenProviderAdapter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwksControllerTest {
+
+    private static final String JWKS = "{\"keys\":[{\"kty\":\"OKP\",\"crv\":\"Ed25519\",\"kid\":\"k1\",\"x\":\"11qYAYKxCrfVS_7TyWQHOg7hcvPapiMlrwIaaPcHURo\"}]}";
+
+    @Mock
+    private JwtTokenProviderAdapter jwtTokenProviderAdapter;
+
+    private JwksController controller;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setJwksCacheSeconds(600);
+        when(jwtTokenProviderAdapter.getJwksJson()).thenReturn(JWKS);
+        controller = new JwksController(jwtTokenProviderAdapter, properties);
+        controller.init();
+    }
+
+    @Test
+    @DisplayName("Should serve the JWKS with a public max-age and an ETag")
+    void shouldServeJwksWithCacheHeaders() {
+        // ACT
+        ResponseEntity<String> response = controller.jwks(null);
+
+        // ASSERT
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(JWKS, response.getBody());
+        assertEquals("max-age=600, public", response.getHeaders().getCacheControl());
+        assertNotNull(response.getHeaders().getETag());
+        assertTrue(response.getHeaders().getETag().startsWith("\""), "ETag fuerte, entre comillas");
+    }
+
+    @Test
+    @DisplayName("Should answer 304 without a body when the client already has the current JWKS")
+    void shouldAnswerNotModifiedForMatchingETag() {
+        // ARRANGE
+        String eTag = controller.jwks(null).getHeaders().getETag();
+
+        // ACT
+        ResponseEntity<String> response = controller.jwks(eTag);
+
+        // ASSERT
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(eTag, response.getHeaders().getETag());
+        assertEquals("max-age=600, public", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    @DisplayName("Should serve the full JWKS when the client's ETag is stale")
+    void shouldServeJwksForStaleETag() {
+        // ACT
+        ResponseEntity<String> response = controller.jwks("\"stale\"");
+
+        // ASSERT
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(JWKS, response.getBody());
+    }
+}
@@ -0,0 +1,170 @@
+package com.ejemplos.jwt.infrastructure.web;
+
+import com.ejemplos.jwt.AbstractIT;
+import com.ejemplos.jwt.domain.model.RefreshToken;
+import com.ejemplos.jwt.domain.repository.RefreshTokenRepository;
+import com.ejemplos.jwt.infrastructure.web.dto.LoginRequest;
+import com.ejemplos.jwt.infrastructure.web.dto.RefreshRequest;
+import com.ejemplos.jwt.infrastructure.web.dto.RegisterRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ventana de gracia del refresh contra MySQL real.
+ * <p>
+ * Sin {@code @Transactional}: cada petición confirma su propia transacción, como en producción.
+ * Por eso cada test usa un usuario propio.
+ * </p>
+ */
+@TestPropertySource(properties = "jwt.refresh-grace-window-ms=1500")
+class RefreshGraceWindowIT extends AbstractIT {
+
+    private static final long GRACE_WINDOW_MS = 1_500;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoSpyBean
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Test
+    @DisplayName("Grace Window: A replay inside the window should get the same pair back")
+    void shouldReturnSamePairInsideGraceWindow() throws Exception {
+        String refreshToken = registerAndLogin();
+
+        MvcResult firstTab = refresh(refreshToken, 200);
+        MvcResult secondTab = refresh(refreshToken, 200);
+
+        JsonNode first = objectMapper.readTree(firstTab.getResponse().getContentAsString());
+        JsonNode second = objectMapper.readTree(secondTab.getResponse().getContentAsString());
+        assertEquals(first.get("accessToken").asText(), second.get("accessToken").asText());
+        assertEquals(first.get("refreshToken").asText(), second.get("refreshToken").asText());
+    }
+
+    @Test
+    @DisplayName("Grace Window: Two tabs refreshing in parallel should both get the same pair")
+    void shouldShareThePairBetweenParallelRefreshes() throws Exception {
+        String refreshToken = registerAndLogin();
+        CountDownLatch start = new CountDownLatch(1);
+        Callable<JsonNode> tab = () -> {
+            start.await();
+            return objectMapper.readTree(refresh(refreshToken, 200).getResponse().getContentAsString());
+        };
+
+        ExecutorService tabs = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<JsonNode>> results = List.of(tabs.submit(tab), tabs.submit(tab));
+            start.countDown();
+            JsonNode first = results.get(0).get(10, TimeUnit.SECONDS);
+            JsonNode second = results.get(1).get(10, TimeUnit.SECONDS);
+
+            assertEquals(first.get("refreshToken").asText(), second.get("refreshToken").asText(),
+                    "Una sola rotación: la otra pestaña recibe el par de la ganadora");
+            refresh(first.get("refreshToken").asText(), 200); // La sesión sigue viva
+        } finally {
+            tabs.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrency: The request that loses the conditional update should get the winner's pair")
+    void shouldServeWinnersPairToTheRaceLoser() throws Exception {
+        // ARRANGE: las dos peticiones leen el token vivo y recién entonces intentan rotarlo
+        String refreshToken = registerAndLogin();
+        CyclicBarrier bothRead = new CyclicBarrier(2);
+        AtomicInteger racing = new AtomicInteger(2);
+        ConcurrentLinkedQueue<Boolean> rotations = new ConcurrentLinkedQueue<>();
+        doAnswer(invocation -> {
+            if (racing.getAndDecrement() <= 0) {
+                return invocation.callRealMethod();
+            }
+            bothRead.await(10, TimeUnit.SECONDS);
+            boolean rotated = (boolean) invocation.callRealMethod();
+            rotations.add(rotated);
+            return rotated;
+        }).when(refreshTokenRepository).rotate(any(RefreshToken.class), any(RefreshToken.class));
+        Callable<JsonNode> tab = () -> objectMapper.readTree(refresh(refreshToken, 200).getResponse().getContentAsString());
+
+        // ACT
+        ExecutorService tabs = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<JsonNode>> results = List.of(tabs.submit(tab), tabs.submit(tab));
+            JsonNode first = results.get(0).get(10, TimeUnit.SECONDS);
+            JsonNode second = results.get(1).get(10, TimeUnit.SECONDS);
+
+            // ASSERT: una rotó; la otra perdió el UPDATE condicional (rotate() == false) y aun así recibió el par
+            assertEquals(List.of(false, true), rotations.stream().sorted().toList());
+            assertEquals(first.get("refreshToken").asText(), second.get("refreshToken").asText());
+            assertEquals(first.get("accessToken").asText(), second.get("accessToken").asText());
+            refresh(first.get("refreshToken").asText(), 200); // La familia no se revocó
+        } finally {
+            tabs.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Grace Window: A replay after the window should be treated as reuse (403)")
+    void shouldDetectReuseOutsideGraceWindow() throws Exception {
+        String refreshToken = registerAndLogin();
+
+        MvcResult rotated = refresh(refreshToken, 200);
+        Thread.sleep(GRACE_WINDOW_MS + 500);
+        refresh(refreshToken, 403);
+
+        // La familia quedó revocada: el sucesor tampoco sirve
+        String successor = objectMapper.readTree(rotated.getResponse().getContentAsString()).get("refreshToken").asText();
+        refresh(successor, 403);
+    }
+
+    private MvcResult refresh(String refreshToken, int expectedStatus) throws Exception {
+        return mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest(refreshToken))))
+                .andExpect(status().is(expectedStatus))
+                .andReturn();
+    }
+
+    private String registerAndLogin() throws Exception {
+        String email = "grace-" + UUID.randomUUID() + "@test.com";
+        String password = "testPassword";
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RegisterRequest("Aux", "Aux", email, password))))
+                .andExpect(status().isCreated());
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest(email, password))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(login.getResponse().getContentAsString()).get("refreshToken").asText();
+    }
+}